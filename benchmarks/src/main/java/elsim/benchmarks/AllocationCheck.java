@@ -0,0 +1,76 @@
+package main.java.elsim.benchmarks;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Checks that the event loop does not allocate in steady state, by measuring the bytes the current thread allocates
+ * while whole simulations are executed. Each scenario is warmed up first, then the average of the measured runs is
+ * compared against its bound. Exits with 0 if all scenarios stay within their bounds and 1 otherwise.
+ *
+ * With streaming arrivals, what is left is growing the arrays of the store, the pool and the queue to their peak size.
+ * Preloaded arrivals create the arrival event of every passenger before the first event is processed, about 40 bytes
+ * per passenger, since the pool is still empty at that point.
+ *
+ * Usage: {@code java -cp target/benchmarks.jar main.java.elsim.benchmarks.AllocationCheck}
+ */
+public class AllocationCheck {
+	private static final int WARMUP_RUNS = 10;
+	private static final int MEASURED_RUNS = 10;
+
+	public static void main(String[] args) throws Exception {
+		Scenarios.disableLogging();
+
+		var threads = ManagementFactory.getThreadMXBean();
+		if (!(threads instanceof com.sun.management.ThreadMXBean)
+				|| !((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported()) {
+			System.err.println("This JVM cannot measure the memory allocated by a thread.");
+			System.exit(2);
+		}
+
+		var allocations = (com.sun.management.ThreadMXBean) threads;
+		allocations.setThreadAllocatedMemoryEnabled(true);
+
+		var passed = check(allocations, 8, 1, "streaming", 1.0)
+				& check(allocations, 32, 10, "streaming", 1.0)
+				& check(allocations, 8, 1, "preload", 4.0);
+		System.exit(passed ? 0 : 1);
+	}
+
+	/**
+	 * Measures the allocations of one scenario and prints them.
+	 * @param allocations The bean to read the allocated bytes of the current thread from.
+	 * @param floors The number of floors, see {@code Scenarios.createConfig}.
+	 * @param passengerScale The factor the amount of passengers is multiplied with.
+	 * @param arrivals The value of {@code Floor.arrivals}.
+	 * @param maxBytesPerEvent The bound of the average bytes allocated per processed event.
+	 * @return {@code true} if the scenario stays within its bound.
+	 */
+	private static boolean check(com.sun.management.ThreadMXBean allocations, int floors, int passengerScale,
+			String arrivals, double maxBytesPerEvent) throws Exception {
+		var config = Scenarios.createConfig(floors, passengerScale);
+		config.setProp("Floor.arrivals", arrivals);
+
+		for (int i = 0; i < WARMUP_RUNS; i++) {
+			Scenarios.createSimulation(config).execute();
+		}
+
+		var thread = Thread.currentThread().getId();
+		long bytes = 0;
+		long events = 0;
+		long passengers = 0;
+		for (int i = 0; i < MEASURED_RUNS; i++) {
+			var simulation = Scenarios.createSimulation(config);
+			var before = allocations.getThreadAllocatedBytes(thread);
+			simulation.execute();
+			bytes += allocations.getThreadAllocatedBytes(thread) - before;
+			events += simulation.getExecutedEventCount();
+			passengers += simulation.getDeliveredPassengerCount() + simulation.getAbandonedPassengerCount();
+		}
+
+		var bytesPerEvent = bytes / (double) events;
+		var passed = bytesPerEvent <= maxBytesPerEvent;
+		System.out.println(String.format("%s: %d floors, passenger scale %d, %s arrivals: %.2f bytes per event, %.1f per passenger (bound %.2f per event)",
+				passed ? "OK" : "FAILED", floors, passengerScale, arrivals, bytesPerEvent, bytes / (double) passengers, maxBytesPerEvent));
+		return passed;
+	}
+}
@@ -0,0 +1,68 @@
+package main.java.elsim.benchmarks;
+
+import main.java.elsim.models.Car;
+import main.java.elsim.models.ElevatorShaft;
+import main.java.elsim.models.Floor;
+import main.java.elsim.models.Passenger;
+import main.java.elsim.simulation.SimulationContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of boarding a full car load at a crowded floor with {@code Car.addAllPassengersAtFloor}.
+ * Before every invocation, the car is emptied and its passengers are put back at the floor.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CarBenchmark {
+	@Param({"20", "200", "2000"})
+	public int waitingPassengers;
+
+	private Car car;
+	private Floor floor;
+
+	@Setup(Level.Trial)
+	public void fillFloor() {
+		Scenarios.disableLogging();
+		var config = Scenarios.createConfig(8, 1);
+		var context = new SimulationContext(config);
+		car = new Car(context);
+		var shaft = new ElevatorShaft(car, context);
+		var floors = shaft.getFloors();
+		floor = floors.get(0);
+
+		for (int i = 0; i < waitingPassengers; i++) {
+			floor.addPassenger(new Passenger(context, floor, floors.get(1 + i % (floors.size() - 1))));
+		}
+	}
+
+	@Setup(Level.Invocation)
+	public void emptyCar() {
+		for (var passenger : new ArrayList<>(car.getCurrentPassengers())) {
+			car.removePassenger(passenger);
+			floor.addPassenger(passenger);
+		}
+	}
+
+	@Benchmark
+	public long addAllPassengersAtFloor() {
+		return car.addAllPassengersAtFloor(floor);
+	}
+}
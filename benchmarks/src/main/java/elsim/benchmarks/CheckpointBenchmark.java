@@ -0,0 +1,83 @@
+package main.java.elsim.benchmarks;
+
+import main.java.elsim.config.ConfigManager;
+import main.java.elsim.simulation.Simulation;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of writing a checkpoint of a simulation and of resuming a new simulation from it.
+ * The simulation has just been initialized, so all passengers are still waiting for their arrival, which is the largest
+ * live state of a run with preloaded arrivals. The {@code bytes} counter reports the size of the checkpoint.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class CheckpointBenchmark {
+	@Param({"1", "10"})
+	public int passengerScale;
+
+	private ConfigManager config;
+	private Simulation simulation;
+	private Simulation resumed;
+	private Path checkpoint;
+
+	/**
+	 * Reports the size of the checkpoint.
+	 */
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	@State(Scope.Thread)
+	public static class Size {
+		public long bytes;
+	}
+
+	@Setup(Level.Trial)
+	public void createCheckpoint() throws Exception {
+		Scenarios.disableLogging();
+		config = Scenarios.createConfig(8, passengerScale);
+		simulation = Scenarios.createSimulation(config);
+		checkpoint = Files.createTempFile("elsim", ".checkpoint");
+		simulation.writeCheckpoint(checkpoint);
+	}
+
+	@Setup(Level.Invocation)
+	public void createResumedSimulation() {
+		resumed = Scenarios.createUninitializedSimulation(config);
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteCheckpoint() throws Exception {
+		Files.deleteIfExists(checkpoint);
+	}
+
+	@Benchmark
+	public void write(Size size) throws Exception {
+		simulation.writeCheckpoint(checkpoint);
+		size.bytes = Files.size(checkpoint);
+	}
+
+	@Benchmark
+	public Simulation resume() throws Exception {
+		resumed.resume(checkpoint);
+		return resumed;
+	}
+}
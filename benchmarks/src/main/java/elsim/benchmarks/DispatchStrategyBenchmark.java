@@ -0,0 +1,106 @@
+package main.java.elsim.benchmarks;
+
+import main.java.elsim.models.Car;
+import main.java.elsim.models.ElevatorGroup;
+import main.java.elsim.models.ElevatorShaft;
+import main.java.elsim.models.MoveDirection;
+import main.java.elsim.models.Passenger;
+import main.java.elsim.simulation.SimulationContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the decisions of each dispatch strategy.
+ * {@code moveCar} measures choosing the next floor of a single car (plus moving it there), with the loads of
+ * {@code ElevatorShaftBenchmark}: {@code everyFloor} keeps calls and destinations at every floor,
+ * {@code middleFloors} keeps four passengers around the middle of the building.
+ * {@code assignCall} measures choosing the car for a hall call in a group of cars spread over the building,
+ * going through all floors and both directions.
+ * @see ElevatorShaftBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DispatchStrategyBenchmark {
+	@Param({"collective", "nearest"})
+	public String strategy;
+
+	@Param({"8", "128", "512"})
+	public int floors;
+
+	@Param({"everyFloor", "middleFloors"})
+	public String load;
+
+	@Param({"16"})
+	public int cars;
+
+	private ElevatorShaft shaft;
+	private ElevatorGroup group;
+	private int call;
+
+	@Setup(Level.Trial)
+	public void createShafts() {
+		Scenarios.disableLogging();
+		var config = Scenarios.createConfig(floors, 1);
+		config.setProp("ElevatorGroup.dispatch", strategy);
+		var context = new SimulationContext(config);
+
+		var car = new Car(context);
+		shaft = new ElevatorShaft(car, context);
+		var allFloors = shaft.getFloors();
+		if (load.equals("middleFloors")) {
+			var below = allFloors.get(allFloors.size() / 2 - 1);
+			var above = allFloors.get(allFloors.size() / 2 + 1);
+			below.addPassenger(new Passenger(context, below, above));
+			above.addPassenger(new Passenger(context, above, below));
+			car.addPassenger(new Passenger(context, allFloors.get(0), below));
+			car.addPassenger(new Passenger(context, allFloors.get(0), above));
+		} else {
+			for (int i = 0; i < allFloors.size(); i++) {
+				var floor = allFloors.get(i);
+				floor.addPassenger(new Passenger(context, floor, allFloors.get(i == 0 ? 1 : 0)));
+				floor.addPassenger(new Passenger(context, floor, allFloors.get(i == allFloors.size() - 1 ? i - 1 : allFloors.size() - 1)));
+				car.addPassenger(new Passenger(context, allFloors.get(0), floor));
+			}
+		}
+
+		// spread the cars of the group over the building by sending each to its own floor
+		group = new ElevatorGroup(context);
+		for (int i = 0; i < cars; i++) {
+			var groupCar = new Car(context);
+			var groupShaft = new ElevatorShaft(groupCar, group);
+			var target = group.getFloors().get((int) ((long) i * (floors - 1) / Math.max(cars - 1, 1)));
+			if (target.getIndex() > 0) {
+				groupCar.addPassenger(new Passenger(context, group.getFloors().get(0), target));
+				groupShaft.moveCar();
+			}
+		}
+	}
+
+	@Benchmark
+	public long moveCar() {
+		return shaft.moveCar();
+	}
+
+	@Benchmark
+	public int assignCall() {
+		call = call + 1 < 2 * floors ? call + 1 : 0;
+		var direction = (call & 1) == 0 ? MoveDirection.Up : MoveDirection.Down;
+		return group.getDispatchStrategy().assignCall(group, call >> 1, direction);
+	}
+}
@@ -0,0 +1,74 @@
+package main.java.elsim.benchmarks;
+
+import main.java.elsim.models.Car;
+import main.java.elsim.models.ElevatorShaft;
+import main.java.elsim.models.Passenger;
+import main.java.elsim.simulation.SimulationContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the dispatching decision in {@code ElevatorShaft.moveCar}.
+ * With {@code everyFloor}, passengers wait at every floor and ride the car to every floor, so that the car always has
+ * a next floor to move to and moves back and forth through the building. The work grows with the number of passengers.
+ * With {@code middleFloors}, four passengers keep the car moving around the middle of the building,
+ * so the cost of a decision should not depend on the height of the building.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ElevatorShaftBenchmark {
+	@Param({"8", "32", "128", "512"})
+	public int floors;
+
+	@Param({"everyFloor", "middleFloors"})
+	public String load;
+
+	private ElevatorShaft shaft;
+
+	@Setup(Level.Trial)
+	public void createShaft() {
+		Scenarios.disableLogging();
+		var context = new SimulationContext(Scenarios.createConfig(floors, 1));
+		var car = new Car(context);
+		shaft = new ElevatorShaft(car, context);
+
+		var allFloors = shaft.getFloors();
+		if (load.equals("middleFloors")) {
+			var below = allFloors.get(allFloors.size() / 2 - 1);
+			var above = allFloors.get(allFloors.size() / 2 + 1);
+			below.addPassenger(new Passenger(context, below, above));
+			above.addPassenger(new Passenger(context, above, below));
+			car.addPassenger(new Passenger(context, allFloors.get(0), below));
+			car.addPassenger(new Passenger(context, allFloors.get(0), above));
+			return;
+		}
+
+		for (int i = 0; i < allFloors.size(); i++) {
+			var floor = allFloors.get(i);
+			floor.addPassenger(new Passenger(context, floor, allFloors.get(i == 0 ? 1 : 0)));
+			floor.addPassenger(new Passenger(context, floor, allFloors.get(i == allFloors.size() - 1 ? i - 1 : allFloors.size() - 1)));
+			car.addPassenger(new Passenger(context, allFloors.get(0), floor));
+		}
+	}
+
+	@Benchmark
+	public long moveCar() {
+		return shaft.moveCar();
+	}
+}
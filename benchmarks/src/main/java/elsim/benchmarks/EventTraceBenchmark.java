@@ -0,0 +1,128 @@
+package main.java.elsim.benchmarks;
+
+import main.java.elsim.config.ConfigManager;
+import main.java.elsim.simulation.EventTraceReader;
+import main.java.elsim.simulation.EventTraceWriter;
+import main.java.elsim.simulation.Simulation;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of event traces: a whole run that records its trace, a whole run that is checked against it,
+ * a whole run that replays it, taking its passengers from the trace instead of drawing them,
+ * and the comparison of two traces of the same run, to be set against {@code SimulationBenchmark}.
+ * The runs include {@code initialize}, which creates or replays the passengers.
+ * The {@code events} counter reports the number of recorded events.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class EventTraceBenchmark {
+	@Param({"1", "10"})
+	public int passengerScale;
+
+	@Param({"preload", "streaming"})
+	public String arrivals;
+
+	private ConfigManager config;
+	private Simulation simulation;
+	private Path trace;
+	private Path copy;
+	private EventTraceReader expected;
+	private EventTraceReader expectedCopy;
+
+	/**
+	 * Reports the number of events in the trace.
+	 */
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	@State(Scope.Thread)
+	public static class Events {
+		public long events;
+	}
+
+	@Setup(Level.Trial)
+	public void recordTrace() throws Exception {
+		Scenarios.disableLogging();
+		config = Scenarios.createConfig(32, passengerScale);
+		config.setProp("Floor.arrivals", arrivals);
+		trace = Files.createTempFile("elsim", ".trace");
+		copy = Files.createTempFile("elsim", ".trace");
+
+		var recorded = Scenarios.createUninitializedSimulation(config);
+		try (var writer = new EventTraceWriter(trace, 0)) {
+			recorded.setEventTrace(writer);
+			recorded.initialize();
+			recorded.execute();
+		}
+		Files.copy(trace, copy, StandardCopyOption.REPLACE_EXISTING);
+		expected = new EventTraceReader(trace);
+		expectedCopy = new EventTraceReader(copy);
+	}
+
+	@Setup(Level.Invocation)
+	public void createSimulation() throws Exception {
+		simulation = Scenarios.createUninitializedSimulation(config);
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteTrace() throws Exception {
+		expected.close();
+		expectedCopy.close();
+		Files.deleteIfExists(trace);
+		Files.deleteIfExists(copy);
+	}
+
+	@Benchmark
+	public void record(Events events) throws Exception {
+		var file = Files.createTempFile("elsim", ".trace");
+		try (var writer = new EventTraceWriter(file, 0)) {
+			simulation.setEventTrace(writer);
+			simulation.initialize();
+			simulation.execute();
+			events.events = writer.getCount();
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Benchmark
+	public long verify() throws Exception {
+		simulation.setExpectedTrace(expected);
+		simulation.initialize();
+		simulation.execute();
+		return simulation.getTraceDivergence();
+	}
+
+	@Benchmark
+	public long replay() throws Exception {
+		simulation.setReplayTrace(expected);
+		simulation.initialize();
+		simulation.execute();
+		return simulation.getTraceDivergence();
+	}
+
+	@Benchmark
+	public long compare() {
+		return EventTraceReader.findDivergence(expected, expectedCopy);
+	}
+}
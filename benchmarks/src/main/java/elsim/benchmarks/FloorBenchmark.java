@@ -0,0 +1,76 @@
+package main.java.elsim.benchmarks;
+
+import main.java.elsim.models.Car;
+import main.java.elsim.models.ElevatorShaft;
+import main.java.elsim.models.Floor;
+import main.java.elsim.models.MoveDirection;
+import main.java.elsim.models.Passenger;
+import main.java.elsim.simulation.SimulationContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the search for the next passenger who can board at a floor,
+ * and of removing a waiting passenger as when their patience runs out.
+ * Most waiting passengers want to go down while the car goes up, so the search has to skip them.
+ * The found or removed passenger is put back at the end of the queue to keep the number of waiting passengers constant.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FloorBenchmark {
+	@Param({"10", "100", "1000"})
+	public int waitingPassengers;
+
+	private Floor floor;
+	private Passenger[] passengers;
+	private Random random;
+
+	@Setup(Level.Trial)
+	public void fillFloor() {
+		Scenarios.disableLogging();
+		var context = new SimulationContext(Scenarios.createConfig(8, 1));
+		var shaft = new ElevatorShaft(new Car(context), context);
+		var floors = shaft.getFloors();
+		floor = floors.get(floors.size() / 2);
+
+		random = new Random(42);
+		passengers = new Passenger[waitingPassengers];
+		for (int i = 0; i < waitingPassengers; i++) {
+			var destination = i % 10 == 9 ? floors.get(floors.size() - 1) : floors.get(0);
+			passengers[i] = new Passenger(context, floor, destination);
+			floor.addPassenger(passengers[i]);
+		}
+	}
+
+	@Benchmark
+	public Passenger findAndRemoveNextPossiblePassenger() {
+		var passenger = floor.findAndRemoveNextPossiblePassenger(1000, 9, MoveDirection.Up);
+		floor.addPassenger(passenger);
+		return passenger;
+	}
+
+	@Benchmark
+	public boolean removePassenger() {
+		var passenger = passengers[random.nextInt(passengers.length)];
+		var removed = floor.removePassenger(passenger);
+		floor.addPassenger(passenger);
+		return removed;
+	}
+}
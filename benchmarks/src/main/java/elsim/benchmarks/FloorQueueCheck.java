@@ -0,0 +1,292 @@
+package main.java.elsim.benchmarks;
+
+import main.java.elsim.models.Car;
+import main.java.elsim.models.ElevatorShaft;
+import main.java.elsim.models.Floor;
+import main.java.elsim.models.MoveDirection;
+import main.java.elsim.models.Passenger;
+import main.java.elsim.models.PassengerStore;
+import main.java.elsim.simulation.SimulationContext;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks the waiting queues and buttons of a floor against the implementation they replaced, a single {@code LinkedList}
+ * of all waiting passengers that was searched for the next one to board and for others going the same way.
+ * A random sequence of adding, removing, boarding, iterating with removal and resetting buttons is applied to both,
+ * and after every operation its result, the buttons and the waiting passengers of every direction in order of arrival
+ * have to be the same. Exits with 0 if they always are and 1 at the first difference.
+ *
+ * Usage: {@code java -cp target/benchmarks.jar main.java.elsim.benchmarks.FloorQueueCheck}
+ */
+public class FloorQueueCheck {
+	private static final long[] SEEDS = {1, 2, 3};
+	private static final int OPERATIONS = 200_000;
+	private static final int PASSENGERS = 300;
+
+	public static void main(String[] args) {
+		Scenarios.disableLogging();
+
+		for (var seed : SEEDS) {
+			var failure = check(seed);
+			if (failure != null) {
+				System.out.println(String.format("FAILED: seed %d, %s", seed, failure));
+				System.exit(1);
+			}
+			System.out.println(String.format("OK: seed %d, %d operations", seed, OPERATIONS));
+		}
+	}
+
+	/**
+	 * Runs one random sequence of operations on a floor and on the replaced implementation.
+	 * @param seed The seed of the sequence.
+	 * @return A description of the first difference, or {@code null} if there is none.
+	 */
+	private static String check(long seed) {
+		var context = new SimulationContext(Scenarios.createConfig(8, 1));
+		var shaft = new ElevatorShaft(new Car(context), context);
+		var floors = shaft.getFloors();
+		var floor = floors.get(floors.size() / 2);
+		var expected = new LinkedListFloor(context.getPassengers(), floor.getFloorNumber());
+		var random = new Random(seed);
+
+		// destinations include the floor itself, those passengers press no button and only board a car that holds
+		var passengers = new int[PASSENGERS];
+		for (int i = 0; i < passengers.length; i++) {
+			passengers[i] = new Passenger(context, floor, floors.get(random.nextInt(floors.size()))).getId();
+		}
+
+		var directions = MoveDirection.values();
+		for (int operation = 0; operation < OPERATIONS; operation++) {
+			var passenger = passengers[random.nextInt(passengers.length)];
+			String name;
+			Object actualResult;
+			Object expectedResult;
+			switch (random.nextInt(6)) {
+				case 0:
+				case 1:
+					name = "addPassenger(" + passenger + ")";
+					if (expected.isWaiting(passenger)) {
+						continue;
+					}
+					floor.addPassenger(passenger);
+					expected.addPassenger(passenger);
+					actualResult = null;
+					expectedResult = null;
+					break;
+				case 2:
+					name = "removePassenger(" + passenger + ")";
+					actualResult = floor.removePassenger(passenger);
+					expectedResult = expected.removePassenger(passenger);
+					break;
+				case 3: {
+					var freeMass = random.nextInt(300);
+					var freeSpace = random.nextInt(300) / 100.0;
+					var direction = directions[random.nextInt(directions.length)];
+					name = "findAndRemoveNextPossiblePassenger(" + freeMass + ", " + freeSpace + ", " + direction + ")";
+					var found = floor.findAndRemoveNextPossiblePassenger(freeMass, freeSpace, direction);
+					actualResult = found != null ? found.getId() : -1;
+					expectedResult = expected.findAndRemoveNextPossiblePassenger(freeMass, freeSpace, direction);
+					break;
+				}
+				case 4: {
+					var skip = random.nextInt(8);
+					var direction = directions[random.nextInt(directions.length)];
+					name = "waitingPassengers(" + direction + ") removing #" + skip;
+					actualResult = removeThroughIterator(floor.waitingPassengers(direction), skip);
+					expectedResult = expected.removeWaitingPassenger(direction, skip);
+					break;
+				}
+				default:
+					if (random.nextBoolean()) {
+						name = "resetButtonUp()";
+						floor.resetButtonUp();
+						expected.buttonPressedUp = false;
+					} else {
+						name = "resetButtonDown()";
+						floor.resetButtonDown();
+						expected.buttonPressedDown = false;
+					}
+					actualResult = null;
+					expectedResult = null;
+					break;
+			}
+
+			var difference = compare(floor, expected, actualResult, expectedResult);
+			if (difference != null) {
+				return String.format("operation %d, %s: %s", operation, name, difference);
+			}
+		}
+		return null;
+	}
+
+	private static String compare(Floor floor, LinkedListFloor expected, Object actualResult, Object expectedResult) {
+		if (actualResult != null ? !actualResult.equals(expectedResult) : expectedResult != null) {
+			return "returned " + actualResult + " instead of " + expectedResult;
+		}
+		if (floor.getButtonPressedUp() != expected.buttonPressedUp || floor.getButtonPressedDown() != expected.buttonPressedDown) {
+			return String.format("buttons are up %b, down %b instead of up %b, down %b", floor.getButtonPressedUp(),
+					floor.getButtonPressedDown(), expected.buttonPressedUp, expected.buttonPressedDown);
+		}
+		if (floor.getWaitingPassengerCount() != expected.passengers.size()
+				|| floor.getWaitingPassengerCount(MoveDirection.Up) != expected.waitingPassengers(MoveDirection.Up).size()
+				|| floor.getWaitingPassengerCount(MoveDirection.Down) != expected.waitingPassengers(MoveDirection.Down).size()) {
+			return "waiting counts differ";
+		}
+
+		for (var direction : MoveDirection.values()) {
+			var actualOrder = toList(floor.waitingPassengers(direction));
+			var expectedOrder = expected.waitingPassengers(direction);
+			if (!actualOrder.equals(expectedOrder)) {
+				return String.format("passengers waiting for %s are %s instead of %s", direction, actualOrder, expectedOrder);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Skips some waiting passengers and removes the next one through the iterator.
+	 * @return The removed passenger, or -1 if there are not enough waiting passengers.
+	 */
+	private static int removeThroughIterator(Iterator<Passenger> waiting, int skip) {
+		for (int i = 0; i < skip && waiting.hasNext(); i++) {
+			waiting.next();
+		}
+		if (!waiting.hasNext()) {
+			return -1;
+		}
+
+		var passenger = waiting.next();
+		waiting.remove();
+		return passenger.getId();
+	}
+
+	private static List<Integer> toList(Iterator<Passenger> passengers) {
+		var list = new ArrayList<Integer>();
+		passengers.forEachRemaining(passenger -> list.add(passenger.getId()));
+		return list;
+	}
+
+	/**
+	 * The waiting passengers and buttons of a floor as they were implemented before they were split by direction:
+	 * one list in order of arrival, searched for the next passenger to board, and for another passenger going the same way
+	 * before a button is reset. Passengers fit into a car by the footprint the store sums up, as they do in {@code Floor}.
+	 * Removing through {@code Floor.waitingPassengers} is documented to work like {@code removePassenger}, and is checked so.
+	 */
+	private static final class LinkedListFloor {
+		private final PassengerStore store;
+		private final int floorNumber;
+		private final LinkedList<Integer> passengers = new LinkedList<>();
+		private boolean buttonPressedUp;
+		private boolean buttonPressedDown;
+
+		LinkedListFloor(PassengerStore store, int floorNumber) {
+			this.store = store;
+			this.floorNumber = floorNumber;
+		}
+
+		boolean isWaiting(int passenger) {
+			return passengers.contains(passenger);
+		}
+
+		void addPassenger(int passenger) {
+			int destinationFloorNumber = destinationOf(passenger);
+
+			passengers.add(passenger);
+			if (destinationFloorNumber > this.floorNumber) {
+				buttonPressedUp = true;
+			}
+
+			if (destinationFloorNumber < this.floorNumber) {
+				buttonPressedDown = true;
+			}
+		}
+
+		int findAndRemoveNextPossiblePassenger(int freeMass, double freeSpace, MoveDirection direction) {
+			var freeGrams = freeMass * 1000;
+			var freeSquareCentimeters = Math.toIntExact(Math.round(freeSpace * 10000));
+			for (int passenger : passengers) {
+				if (store.getFootprintMass(passenger) <= freeGrams && store.getFootprintArea(passenger) <= freeSquareCentimeters
+						&& goes(passenger, direction)) {
+					removePassenger(passenger);
+					return passenger;
+				}
+			}
+			return -1;
+		}
+
+		boolean removePassenger(int passenger) {
+			var pGoingUp = destinationOf(passenger) > this.floorNumber;
+
+			if (pGoingUp) {
+				boolean otherGoingUp = false;
+
+				for (var p : this.passengers) {
+					if (p != passenger && destinationOf(p) > this.floorNumber) {
+						otherGoingUp = true;
+						break;
+					}
+				}
+
+				if (!otherGoingUp) {
+					buttonPressedUp = false;
+				}
+			} else {
+				boolean otherGoingDown = false;
+
+				for (var p : this.passengers) {
+					if (p != passenger && destinationOf(p) < this.floorNumber) {
+						otherGoingDown = true;
+						break;
+					}
+				}
+
+				if (!otherGoingDown) {
+					buttonPressedDown = false;
+				}
+			}
+
+			return this.passengers.remove((Integer) passenger);
+		}
+
+		/**
+		 * Removes the passenger {@code Floor.waitingPassengers} returns after skipping some, like {@code removePassenger}.
+		 * @return The removed passenger, or -1 if there are not enough waiting passengers.
+		 */
+		int removeWaitingPassenger(MoveDirection direction, int skip) {
+			var waiting = waitingPassengers(direction);
+			if (skip >= waiting.size()) {
+				return -1;
+			}
+
+			var passenger = waiting.get(skip);
+			removePassenger(passenger);
+			return passenger;
+		}
+
+		List<Integer> waitingPassengers(MoveDirection direction) {
+			var waiting = new ArrayList<Integer>();
+			for (int passenger : passengers) {
+				if (goes(passenger, direction)) {
+					waiting.add(passenger);
+				}
+			}
+			return waiting;
+		}
+
+		private boolean goes(int passenger, MoveDirection direction) {
+			var destinationFloorNumber = destinationOf(passenger);
+			return direction == MoveDirection.Hold
+					|| (direction == MoveDirection.Up && destinationFloorNumber > floorNumber)
+					|| (direction == MoveDirection.Down && destinationFloorNumber < floorNumber);
+		}
+
+		private int destinationOf(int passenger) {
+			return store.getFloorDestination(passenger).getFloorNumber();
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package main.java.elsim.benchmarks;
+
+import main.java.elsim.models.Car;
+import main.java.elsim.models.ElevatorShaft;
+import main.java.elsim.models.Floor;
+import main.java.elsim.models.PassengerArchetypes;
+import main.java.elsim.models.PassengerStore;
+import main.java.elsim.models.RNG;
+import main.java.elsim.simulation.SimulationContext;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of creating the passengers of a million-passenger scenario in the {@code PassengerStore} of a new simulation.
+ * The {@code bytesPerPassenger} counter reports the heap retained by the store per passenger, measured around the creation
+ * with a full garbage collection before and after, which is included in the time.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Thread)
+public class PassengerStoreBenchmark {
+	@Param({"1000000"})
+	public int passengers;
+
+	private PassengerStore store;
+	private PassengerArchetypes archetypes;
+	private RNG rng;
+	private List<Floor> floors;
+
+	/**
+	 * Reports the heap retained per passenger of one iteration.
+	 */
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	@State(Scope.Thread)
+	public static class Memory {
+		public long bytesPerPassenger;
+	}
+
+	@Setup(Level.Iteration)
+	public void createContext() {
+		Scenarios.disableLogging();
+		var context = new SimulationContext(Scenarios.createConfig(8, 1));
+		floors = new ElevatorShaft(new Car(context), context).getFloors();
+		store = context.getPassengers();
+		archetypes = context.getConfig().getPassengerArchetypes();
+		rng = context.getRng();
+	}
+
+	@Benchmark
+	public PassengerStore createPassengers(Memory memory) {
+		var before = usedHeap();
+		for (int i = 0; i < passengers; i++) {
+			store.add(archetypes, rng, floors.get(i % floors.size()), floors.get((i + 1) % floors.size()));
+		}
+		memory.bytesPerPassenger = (usedHeap() - before) / passengers;
+		return store;
+	}
+
+	private static long usedHeap() {
+		System.gc();
+		var runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
@@ -0,0 +1,79 @@
+package main.java.elsim.benchmarks;
+
+import main.java.elsim.config.ConfigManager;
+import main.java.elsim.models.ElevatorGroup;
+import main.java.elsim.simulation.SimEventManager;
+import main.java.elsim.simulation.Simulation;
+import main.java.elsim.simulation.SimulationContext;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Builds the configs and simulations the benchmarks run on.
+ * All of them are independent of the global config, so that benchmarks can run side by side.
+ */
+final class Scenarios {
+	private Scenarios() {
+	}
+
+	/**
+	 * Turns off all log output of the simulation, which would otherwise be printed to the console.
+	 */
+	static void disableLogging() {
+		Logger.getLogger("main.java.elsim").setLevel(Level.OFF);
+	}
+
+	/**
+	 * Creates the default config, optionally scaled up to a taller building and more passengers.
+	 * @param floors The number of floors. 8 keeps the floors of the default config,
+	 *               other values create floors of 300 cm with 100..300 passengers each.
+	 * @param passengerScale The factor the amount of passengers of every floor is multiplied with.
+	 * @return A new config.
+	 */
+	static ConfigManager createConfig(int floors, int passengerScale) {
+		var config = new ConfigManager();
+		config.setDefaultConfig();
+
+		if (floors != config.getPropAsInt("ElevatorShaft.floors.length")) {
+			config.setProp("ElevatorShaft.floors.length", floors);
+			for (int i = 0; i < floors; i++) {
+				config.setProp("ElevatorShaft.floors." + i, i + ";300;100..300");
+			}
+		}
+
+		for (int i = 0; i < floors; i++) {
+			var key = "ElevatorShaft.floors." + i;
+			var vars = config.getProp(key).split(";");
+			var range = vars[2].split("\\.\\.");
+			config.setProp(key, String.format("%s;%s;%d..%d", vars[0], vars[1],
+					Integer.parseInt(range[0]) * passengerScale, Integer.parseInt(range[1]) * passengerScale));
+		}
+		return config;
+	}
+
+	/**
+	 * Creates an initialized simulation of a config.
+	 * @param config The config to simulate.
+	 * @return A simulation that is ready to be executed.
+	 */
+	static Simulation createSimulation(ConfigManager config) throws Exception {
+		var simulation = createUninitializedSimulation(config);
+		simulation.initialize();
+		return simulation;
+	}
+
+	/**
+	 * Creates a simulation of a config that has not been initialized yet, e.g. to be resumed from a checkpoint.
+	 * @param config The config to simulate.
+	 * @return A simulation without any passengers or events.
+	 */
+	static Simulation createUninitializedSimulation(ConfigManager config) {
+		var context = new SimulationContext(config);
+		var start = context.getConfig().getStart();
+		var end = context.getConfig().getEnd();
+
+		var group = ElevatorGroup.fromConfig(context);
+		return new Simulation(context, group, new SimEventManager(context, start), start, end);
+	}
+}
@@ -0,0 +1,103 @@
+package main.java.elsim.benchmarks;
+
+import main.java.elsim.simulation.SimEventManager;
+import main.java.elsim.simulation.Simulation;
+import main.java.elsim.simulation.events.AbstractSimEvent;
+import main.java.elsim.simulation.events.SimEventType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the event queue with the classic hold model: every operation takes the next event
+ * and schedules it again at a random offset, so the number of pending events stays constant.
+ * A part of the offsets is zero, like the events scheduled for the same instant in a simulation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SimEventManagerBenchmark {
+	private static final int OFFSET_COUNT = 1 << 16;
+
+	@Param({"calendar", "treeset"})
+	public String queue;
+
+	@Param({"100", "10000", "1000000"})
+	public int pendingEvents;
+
+	private SimEventManager eventManager;
+	private long[] offsets;
+	private int nextOffset;
+
+	/**
+	 * An event without any behaviour that can be rescheduled.
+	 */
+	private static class HoldEvent extends AbstractSimEvent {
+		HoldEvent(Simulation simulation) {
+			super(simulation);
+		}
+
+		void reschedule(long time) {
+			reinitialize();
+			setTime(time);
+		}
+
+		@Override
+		public void processEvent() {
+		}
+
+		@Override
+		public SimEventType getType() {
+			return SimEventType.PassengerArrivesAtFloor; // any type that is not pooled
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void fillQueue() throws Exception {
+		Scenarios.disableLogging();
+		var config = Scenarios.createConfig(8, 1);
+		config.setProp("SimEventManager.queue", queue);
+
+		// the simulation is only needed for event ids, its own event manager is not used
+		var simulation = Scenarios.createSimulation(config);
+		eventManager = new SimEventManager(LocalDateTime.parse(config.getProp("Simulation.start")),
+				SimEventManager.createQueue(queue));
+
+		var random = new Random(42);
+		offsets = new long[OFFSET_COUNT];
+		for (int i = 0; i < OFFSET_COUNT; i++) {
+			offsets[i] = random.nextInt(4) == 0 ? 0 : (long) (-Math.log(1 - random.nextDouble()) * 60_000);
+		}
+
+		for (int i = 0; i < pendingEvents; i++) {
+			var event = new HoldEvent(simulation);
+			event.setTime(offsets[i % OFFSET_COUNT]);
+			eventManager.addEvent(event);
+		}
+	}
+
+	@Benchmark
+	public AbstractSimEvent hold() throws Exception {
+		var event = (HoldEvent) eventManager.getNextEvent();
+		event.reschedule(eventManager.getCurrentTime() + offsets[nextOffset]);
+		nextOffset = (nextOffset + 1) & (OFFSET_COUNT - 1);
+		eventManager.addEvent(event);
+		return event;
+	}
+}
@@ -0,0 +1,72 @@
+package main.java.elsim.benchmarks;
+
+import main.java.elsim.config.ConfigManager;
+import main.java.elsim.simulation.Simulation;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end benchmark of a whole simulation run on the default config and on scaled-up buildings.
+ * The {@code events} counter reports the throughput in processed events per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class SimulationBenchmark {
+	@Param({"8", "32"})
+	public int floors;
+
+	@Param({"1", "10"})
+	public int passengerScale;
+
+	@Param({"calendar", "treeset"})
+	public String queue;
+
+	private ConfigManager config;
+	private Simulation simulation;
+
+	/**
+	 * Counts the events processed by all runs of one iteration.
+	 */
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	@State(Scope.Thread)
+	public static class Events {
+		public long events;
+	}
+
+	@Setup(Level.Trial)
+	public void createConfig() {
+		Scenarios.disableLogging();
+		config = Scenarios.createConfig(floors, passengerScale);
+		config.setProp("SimEventManager.queue", queue);
+	}
+
+	@Setup(Level.Invocation)
+	public void createSimulation() throws Exception {
+		// one run takes long enough for the per-invocation setup not to distort the measurement
+		simulation = Scenarios.createSimulation(config);
+	}
+
+	@Benchmark
+	public long run(Events counter) throws Exception {
+		simulation.execute();
+		counter.events += simulation.getExecutedEventCount();
+		return simulation.getExecutedEventCount();
+	}
+}
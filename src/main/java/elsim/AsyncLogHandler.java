@@ -0,0 +1,176 @@
+package main.java.elsim;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * A log handler that writes to a file on a background thread.
+ *
+ * Published records are put into a bounded ring buffer. The writer thread takes all buffered records at once,
+ * formats them and writes them in one batch, flushing only once the buffer has been drained.
+ * When the buffer is full, publishing blocks until there is space again, so no records are lost.
+ * Publishing and closing hold the same lock, so the end marker put by {@code close} is always the last record,
+ * and records published after closing are dropped.
+ * The source class of a record is determined while publishing, since it is inferred from the calling thread's stack.
+ * Walking the stack costs more than the rest of the logging, so records of loggers named after a class
+ * (as with {@code Logger.getLogger(X.class.getName())}) use that class instead.
+ * @author jbook
+ */
+public class AsyncLogHandler extends Handler {
+	/**
+	 * The default number of records that can be buffered.
+	 */
+	public static final int DEFAULT_CAPACITY = 8192;
+
+	// marks the end of the records, so that the writer thread never has to be interrupted while writing
+	private static final LogRecord END_OF_RECORDS = new LogRecord(Level.OFF, null);
+
+	private final ArrayBlockingQueue<LogRecord> buffer;
+	private final Writer writer;
+	private final Thread writerThread;
+	private final Object publishLock = new Object();
+	private volatile boolean closed;
+
+	/**
+	 * Creates a handler writing to a file, replacing any existing content.
+	 * @param file The file to write to.
+	 * @param capacity The number of records that can be buffered.
+	 * @throws IOException When the file cannot be opened.
+	 */
+	public AsyncLogHandler(Path file, int capacity) throws IOException {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("capacity has to be at least 1.");
+		}
+
+		this.buffer = new ArrayBlockingQueue<>(capacity);
+		this.writer = Files.newBufferedWriter(file, Charset.defaultCharset());
+		setFormatter(new LogFormatter());
+		this.writerThread = new Thread(this::writeRecords, "elsim-log-writer");
+		this.writerThread.setDaemon(true);
+		this.writerThread.start();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void publish(LogRecord record) {
+		if (closed || !isLoggable(record)) {
+			return;
+		}
+
+		if (isClassName(record.getLoggerName())) {
+			record.setSourceClassName(record.getLoggerName());
+		} else {
+			record.getSourceClassName(); // infer the caller on the publishing thread
+		}
+
+		synchronized (publishLock) {
+			if (closed) {
+				return;
+			}
+
+			try {
+				buffer.put(record);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				reportError("Interrupted while waiting for buffer space.", e, ErrorManager.WRITE_FAILURE);
+			}
+		}
+	}
+
+	/**
+	 * Does nothing. Buffered records are written as soon as the writer thread gets to them.
+	 */
+	@Override
+	public void flush() {
+	}
+
+	/**
+	 * Writes all buffered records, stops the writer thread and closes the file.
+	 */
+	@Override
+	public void close() {
+		try {
+			synchronized (publishLock) {
+				if (closed) {
+					return;
+				}
+
+				closed = true;
+				buffer.put(END_OF_RECORDS);
+			}
+			writerThread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			reportError("Interrupted while writing the remaining records.", e, ErrorManager.CLOSE_FAILURE);
+		}
+
+		try {
+			writer.close();
+		} catch (IOException e) {
+			reportError(null, e, ErrorManager.CLOSE_FAILURE);
+		}
+	}
+
+	/**
+	 * Whether a logger name is a class name rather than a package name, judging by the case of its last part.
+	 */
+	private static boolean isClassName(String loggerName) {
+		if (loggerName == null || loggerName.isEmpty()) {
+			return false;
+		}
+
+		var lastPart = loggerName.lastIndexOf('.') + 1;
+		return lastPart < loggerName.length() && Character.isUpperCase(loggerName.charAt(lastPart));
+	}
+
+	/**
+	 * The loop of the writer thread.
+	 */
+	private void writeRecords() {
+		var batch = new ArrayList<LogRecord>(buffer.remainingCapacity());
+		var ended = false;
+		while (!ended) {
+			try {
+				batch.add(buffer.take());
+			} catch (InterruptedException e) {
+				continue;
+			}
+
+			buffer.drainTo(batch);
+			var last = batch.size() - 1;
+			if (batch.get(last) == END_OF_RECORDS) {
+				batch.remove(last);
+				ended = true;
+			}
+
+			write(batch);
+			batch.clear();
+		}
+	}
+
+	/**
+	 * Formats and writes one batch of records and flushes the file.
+	 */
+	private void write(ArrayList<LogRecord> batch) {
+		var formatter = getFormatter();
+		try {
+			for (var record : batch) {
+				writer.write(formatter.format(record));
+			}
+			writer.flush();
+		} catch (Exception e) {
+			reportError(null, e, ErrorManager.WRITE_FAILURE);
+		}
+	}
+}
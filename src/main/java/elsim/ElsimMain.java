@@ -1,34 +1,54 @@
 package main.java.elsim;
 
 import main.java.elsim.config.ConfigManager;
+import main.java.elsim.config.SimulationConfig;
 import main.java.elsim.models.Car;
-import main.java.elsim.models.ElevatorShaft;
+import main.java.elsim.models.ElevatorGroup;
+import main.java.elsim.replication.ReplicationRunner;
 import main.java.elsim.simulation.*;
 
 import java.io.IOException;
-import java.time.LocalDateTime;
-import java.util.logging.FileHandler;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class ElsimMain {
 
 	private static final Logger LOGGER = Logger.getLogger(ElsimMain.class.getPackageName());
+	private static final Logger MODELS_LOGGER = Logger.getLogger(Car.class.getPackageName());
+	private static final Logger SIMULATION_LOGGER = Logger.getLogger(Simulation.class.getPackageName());
 
 	public static void main(String[] args) throws
 			SimulationAlreadyInitializedException,
 			SimulationAlreadyRunningException,
 			SimulationNotInitializedException,
-			IOException {
+			IOException,
+			InterruptedException,
+			ExecutionException {
 
 		LOGGER.setUseParentHandlers(false);
 		LOGGER.setLevel(Level.FINER);
 
 		var logFile = args.length > 2 ? args[1] : "log.txt";
-		var fileHandler = new FileHandler(logFile);
-		var formatter = new LogFormatter();
-		fileHandler.setFormatter(formatter);
-		LOGGER.addHandler(fileHandler);
+		var logHandler = new AsyncLogHandler(Path.of(logFile), AsyncLogHandler.DEFAULT_CAPACITY);
+		LOGGER.addHandler(logHandler);
+
+		try {
+			run(args);
+		} finally {
+			// writes the log records that are still buffered
+			logHandler.close();
+		}
+	}
+
+	private static void run(String[] args) throws
+			SimulationAlreadyInitializedException,
+			SimulationAlreadyRunningException,
+			SimulationNotInitializedException,
+			IOException,
+			InterruptedException,
+			ExecutionException {
 
 		var configManager = ConfigManager.getInstance();
 
@@ -48,15 +68,82 @@ public class ElsimMain {
 
 
 
-		var timeStart = LocalDateTime.parse(configManager.getProp("Simulation.start"));
-		var timeEnd = LocalDateTime.parse(configManager.getProp("Simulation.end"));
+		var config = SimulationConfig.from(configManager); // parse and validate once
+		if (config.getReplications() > 1) {
+			runReplications(config);
+			return;
+		}
+
+		var context = new SimulationContext(config);
+		var elevatorGroup = ElevatorGroup.fromConfig(context); // construct from config
+		var eventManager = new SimEventManager(context, config.getStart());
+
+		var simulation = new Simulation(context, elevatorGroup, eventManager, config.getStart(), config.getEnd());
+
+		// traces are set up first, the passengers created by initialize are recorded or replayed as well
+		var expectedTraceFile = config.getReplayTrace().isEmpty() ? config.getVerifyTrace() : config.getReplayTrace();
+		EventTraceWriter trace = null;
+		EventTraceReader expectedTrace = null;
+		try {
+			if (!config.getTraceFile().isEmpty()) {
+				trace = new EventTraceWriter(Path.of(config.getTraceFile()), config.getSeed());
+				simulation.setEventTrace(trace);
+			}
+			if (!expectedTraceFile.isEmpty()) {
+				expectedTrace = new EventTraceReader(Path.of(expectedTraceFile));
+				if (expectedTrace.getSeed() != config.getSeed()) {
+					LOGGER.warning(String.format("Trace '%s' has been recorded with seed %d, this run has seed %d.",
+							expectedTraceFile, expectedTrace.getSeed(), config.getSeed()));
+				}
+				if (config.getReplayTrace().isEmpty()) {
+					simulation.setExpectedTrace(expectedTrace);
+				} else {
+					simulation.setReplayTrace(expectedTrace);
+				}
+			}
+
+			if (config.getResumeFrom().isEmpty()) {
+				simulation.initialize();
+			} else {
+				simulation.resume(Path.of(config.getResumeFrom()));
+			}
+			if (!config.getCheckpointFile().isEmpty()) {
+				simulation.setCheckpointFile(Path.of(config.getCheckpointFile()), config.getCheckpointIntervalMillis());
+			}
+
+			simulation.execute();
+		} finally {
+			if (trace != null) {
+				trace.close();
+				LOGGER.info(String.format("%d events and %d arrivals have been recorded to '%s'.",
+						trace.getCount(), trace.getArrivalCount(), config.getTraceFile()));
+			}
+			if (expectedTrace != null) {
+				expectedTrace.close();
+			}
+		}
 
-		var car = new Car(); // construct from config
-		var elevatorShaft = new ElevatorShaft(car);
-		var eventManager = new SimEventManager(timeStart);
+		if (expectedTrace != null && simulation.getTraceDivergence() < 0) {
+			LOGGER.info(String.format("All %d events have matched trace '%s'.", expectedTrace.size(), expectedTraceFile));
+		}
 
-		Simulation.initialize(elevatorShaft, eventManager, timeStart, timeEnd);
-		Simulation.run();
+		var summaryFile = config.getStatisticsSummaryFile();
+		if (simulation.getStatistics() != null && !summaryFile.isEmpty()) {
+			simulation.getStatistics().writeSummary(Path.of(summaryFile));
+			LOGGER.info("Trip statistics written to '" + summaryFile + "'.");
+		}
 	}
 
+	private static void runReplications(SimulationConfig config) throws InterruptedException, ExecutionException {
+		// the per-event output of concurrent replications would interleave and serialize all threads on the log file
+		MODELS_LOGGER.setLevel(Level.WARNING);
+		SIMULATION_LOGGER.setLevel(Level.WARNING);
+
+		var runner = ReplicationRunner.fromConfig(config);
+		var results = runner.run();
+
+		for (var summary : ReplicationRunner.summarize(results, config.getConfidenceLevel())) {
+			LOGGER.info(summary.toString());
+		}
+	}
 }
@@ -0,0 +1,50 @@
+package main.java.elsim;
+
+import main.java.elsim.simulation.EventTraceReader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Compares the event traces of two runs, e.g. before and after a change of a dispatch strategy,
+ * and prints the first event in which they differ together with the events leading up to it.
+ * Exits with 0 if the traces are identical, 1 if they differ and 2 on wrong usage.
+ *
+ * Usage: {@code EventTraceDiff <first trace> <second trace>}
+ * @see main.java.elsim.simulation.EventTraceWriter
+ */
+public class EventTraceDiff {
+	private static final int CONTEXT_EVENTS = 5;
+
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.err.println("Usage: EventTraceDiff <first trace> <second trace>");
+			System.exit(2);
+		}
+
+		try (var first = new EventTraceReader(Path.of(args[0]));
+				var second = new EventTraceReader(Path.of(args[1]))) {
+			if (first.getSeed() != second.getSeed()) {
+				System.out.println(String.format("Traces have been recorded with seeds %d and %d.", first.getSeed(), second.getSeed()));
+			}
+
+			var divergence = EventTraceReader.findDivergence(first, second);
+			if (divergence < 0) {
+				System.out.println(String.format("Traces are identical, %d events.", first.size()));
+				return;
+			}
+
+			System.out.println(String.format("Traces differ from event #%d on, they have %d and %d events.",
+					divergence, first.size(), second.size()));
+			System.out.println("Common events before:");
+			for (var i = Math.max(0, divergence - CONTEXT_EVENTS); i < divergence; i++) {
+				System.out.println("  " + first.describe(i));
+			}
+			System.out.println(args[0] + ":");
+			System.out.println("  " + first.describe(divergence));
+			System.out.println(args[1] + ":");
+			System.out.println("  " + second.describe(divergence));
+		}
+		System.exit(1);
+	}
+}
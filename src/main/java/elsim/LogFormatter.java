@@ -1,13 +1,17 @@
 package main.java.elsim;
 
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Formatter;
 import java.util.logging.LogRecord;
 
 /**
  * A custom formatter for our log files.
+ * The short names of the source classes are cached, since only a few classes write log output.
  * @author jbook
  */
 public class LogFormatter extends Formatter {
+	private final ConcurrentHashMap<String, String> shortClassNames = new ConcurrentHashMap<>();
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -18,12 +22,20 @@ public class LogFormatter extends Formatter {
 		if (sourceClassFull == null) {
 			sourceClass = "unknown";
 		} else {
-			var split = record.getSourceClassName().split("\\.");
-			sourceClass = split[split.length - 1];
+			sourceClass = shortClassNames.computeIfAbsent(sourceClassFull, LogFormatter::getShortClassName);
 		}
 		var level = record.getLevel().toString();
 		var msg = record.getMessage();
 
-		return String.format("%s:\t[%s] %s\n", level, sourceClass, msg);
+		return new StringBuilder(level.length() + sourceClass.length() + msg.length() + 6)
+				.append(level).append(":\t[").append(sourceClass).append("] ").append(msg).append('\n')
+				.toString();
+	}
+
+	/**
+	 * Gets the part of a fully qualified class name after the last dot.
+	 */
+	private static String getShortClassName(String className) {
+		return className.substring(className.lastIndexOf('.') + 1);
 	}
 }
@@ -29,6 +29,10 @@ import java.util.logging.Logger;
  *
  * Default Config:
  * Either edit this class, method setDefaultConfig() or pass the parameter defaultValue in each getProp call that will be returned if no value is set
+ *
+ * Multiple simulations:
+ * Use new ConfigManager() or ConfigManager.getInstance().copy() to get a config that is independent of the global instance,
+ * e.g. to run several simulations with different parameters in one process.
  * @author jdunker
  */
 public class ConfigManager {
@@ -37,15 +41,29 @@ public class ConfigManager {
     private Properties prop;
     private static ConfigManager instance;
 
-    private ConfigManager() {
+    /**
+     * Create an empty config that is independent of the global instance.
+     * Use readConfig() or setDefaultConfig() to fill it.
+     */
+    public ConfigManager() {
         this.prop = new SortedProperties();
     }
 
+    /**
+     * Create an independent copy of this config
+     * @return copy of all properties
+     */
+    public ConfigManager copy() {
+        var copy = new ConfigManager();
+        copy.prop.putAll(this.prop);
+        return copy;
+    }
+
     /**
      * Get global instance of the ConfigManager
      * @return instance
      */
-    public static ConfigManager getInstance() {
+    public static synchronized ConfigManager getInstance() {
         if (ConfigManager.instance == null) {
             ConfigManager.instance = new ConfigManager();
         }
@@ -66,6 +84,27 @@ public class ConfigManager {
         // Simulation namespace
         this.setProp("Simulation.start", "2020-07-01T04:00:00");
         this.setProp("Simulation.end", "2020-07-03T23:59:59");
+        this.setProp("Simulation.checkpoint.comment", "Single runs only. checkpointFile: path of a checkpoint of the complete state, written every checkpointInterval seconds of simulated time, empty to write none. resumeFrom: path of a checkpoint to continue from with the same floors, cars and seed, empty to start over.");
+        this.setProp("Simulation.checkpointFile", "");
+        this.setProp("Simulation.checkpointInterval", 3600);
+        this.setProp("Simulation.resumeFrom", "");
+        this.setProp("Simulation.trace.comment", "Single runs only. traceFile: path of a binary trace of every processed event and every new passenger, empty to record none. verifyTrace: path of a trace of an earlier run to check this run against, which stops at the first event that differs, empty to check none. replayTrace: like verifyTrace, but the passengers are created from the trace instead of being drawn; needs the config and seed the trace has been recorded with, empty to replay none.");
+        this.setProp("Simulation.traceFile", "");
+        this.setProp("Simulation.verifyTrace", "");
+        this.setProp("Simulation.replayTrace", "");
+
+        // SimEventManager namespace
+        this.setProp("SimEventManager.queue.comment", "Event queue implementation: calendar (fast) or treeset (reference implementation). Both process events in the same order.");
+        this.setProp("SimEventManager.queue", "calendar");
+
+        // Floor namespace
+        this.setProp("Floor.arrivals.comment", "preload creates all passengers of the simulation up front, streaming only schedules the next arrival of each floor. Both distribute arrivals uniformly over the simulation window.");
+        this.setProp("Floor.arrivals", "preload");
+
+        // TripStatistics namespace
+        this.setProp("TripStatistics.comment", "Records wait and ride times of all passengers. summaryFile: path of the summary written after a single run, empty to write none.");
+        this.setProp("TripStatistics.enabled", "true");
+        this.setProp("TripStatistics.summaryFile", "statistics.txt");
 
         // Passenger namespace
         this.setProp("Passenger.people.comment", "Separated by semicolon ; . Define a range using 'min..max'. Order: Mass in kg (int);spaceRequired in sqm(double);timeChange in ms(int);timePatience in ms(int);number of items(int)");
@@ -78,12 +117,24 @@ public class ConfigManager {
         // RNG namespace
         this.setProp("RNG.seed", 12345678);
 
+        // ReplicationRunner namespace
+        this.setProp("ReplicationRunner.comment", "Number of independent replications, each with a seed derived from RNG.seed. Threads: 0 uses all processors. More than one replication only logs warnings of the individual runs.");
+        this.setProp("ReplicationRunner.replications", 1);
+        this.setProp("ReplicationRunner.threads", 0);
+        this.setProp("ReplicationRunner.confidenceLevel", 0.95);
+
         // ElevatorCar namespace
         this.setProp("ElevatorCar.maxPassengerNumber", 12);
         this.setProp("ElevatorCar.maxCarArea", 9);
         this.setProp("ElevatorCar.maxMass", 1000);
         this.setProp("ElevatorCar.changeDoorTime", 1);
 
+        // ElevatorGroup namespace
+        this.setProp("ElevatorGroup.comment", "Number of elevator cars serving the floors. Every car is built from the ElevatorCar settings, and each hall call is assigned to the car nearest to it when its button is pressed.");
+        this.setProp("ElevatorGroup.cars", 1);
+        this.setProp("ElevatorGroup.dispatch.comment", "Dispatch strategy: collective (keeps its direction while there are stops ahead) or nearest (always the nearest stop).");
+        this.setProp("ElevatorGroup.dispatch", "collective");
+
         // ElevatorShaft namespace
         this.setProp("ElevatorShaft.carSpeed", 2);
         this.setProp("ElevatorShaft.floors.length", 8);
@@ -327,7 +378,7 @@ public class ConfigManager {
      * @return value
      */
     public double getPropAsDouble(String key){
-        return Float.parseFloat(this.getProp(key));
+        return Double.parseDouble(this.getProp(key));
     }
 
     /**
@@ -0,0 +1,498 @@
+package main.java.elsim.config;
+
+import main.java.elsim.models.PassengerArchetypes;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Typed, validated and immutable snapshot of the settings of a simulation, built once from a {@code ConfigManager}.
+ *
+ * All values are parsed and checked when the snapshot is created, and a missing or malformed entry is reported with its key.
+ * Models and events read their settings from here instead of from the {@code ConfigManager},
+ * so no strings are parsed while a simulation runs. Since it cannot change, one snapshot can be shared
+ * by any number of simulations running in parallel, e.g. all replications of a run differing only in their seed.
+ * @see ConfigManager
+ * @author jdunker
+ */
+public final class SimulationConfig {
+    private static final Logger LOGGER = Logger.getLogger(SimulationConfig.class.getName());
+
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final int seed;
+    private final String eventQueue;
+    private final boolean streamingArrivals;
+    private final boolean statisticsEnabled;
+    private final String statisticsSummaryFile;
+    private final String checkpointFile;
+    private final long checkpointInterval;          // ms
+    private final String resumeFrom;
+    private final String traceFile;
+    private final String verifyTrace;
+    private final String replayTrace;
+    private final int replications;
+    private final int replicationThreads;
+    private final double confidenceLevel;
+    private final int carMaxPassengerNumber;
+    private final int carMaxMass;
+    private final int carMaxArea;
+    private final long carChangeDoorTime;           // ms
+    private final double carSpeed;
+    private final int cars;
+    private final String dispatchStrategy;
+    private final List<FloorConfig> floors;
+    private final PassengerArchetypes passengerArchetypes;
+
+    private SimulationConfig(ConfigManager config) {
+        this.start = parseDateTime(config, "Simulation.start");
+        this.end = parseDateTime(config, "Simulation.end");
+        if (this.end.isBefore(this.start)) {
+            throw new IllegalArgumentException("Simulation.end must not be before Simulation.start.");
+        }
+
+        this.seed = parseInt(config, "RNG.seed", 0);
+        this.eventQueue = config.getProp("SimEventManager.queue", "calendar");
+
+        var arrivals = config.getProp("Floor.arrivals", "preload");
+        this.streamingArrivals = arrivals.equalsIgnoreCase("streaming");
+        if (!this.streamingArrivals && !arrivals.equalsIgnoreCase("preload")) {
+            LOGGER.warning("Invalid arrival mode '" + arrivals + "' supplied in config. Using preload instead.");
+        }
+
+        this.statisticsEnabled = Boolean.parseBoolean(config.getProp("TripStatistics.enabled", "true"));
+        this.statisticsSummaryFile = config.getProp("TripStatistics.summaryFile", "");
+
+        this.checkpointFile = config.getProp("Simulation.checkpointFile", "");
+        var interval = parseDouble(config, "Simulation.checkpointInterval", 3600);
+        if (!(interval > 0)) {
+            throw new IllegalArgumentException("Simulation.checkpointInterval has to be greater than 0, but is " + interval + ".");
+        }
+        this.checkpointInterval = Math.round(1000 * interval);
+        this.resumeFrom = config.getProp("Simulation.resumeFrom", "");
+        this.traceFile = config.getProp("Simulation.traceFile", "");
+        this.verifyTrace = config.getProp("Simulation.verifyTrace", "");
+        this.replayTrace = config.getProp("Simulation.replayTrace", "");
+        if (!verifyTrace.isEmpty() && !replayTrace.isEmpty()) {
+            throw new IllegalArgumentException("Simulation.verifyTrace and Simulation.replayTrace cannot both be set, a replay verifies the run as well.");
+        }
+
+        this.replications = atLeast("ReplicationRunner.replications", parseInt(config, "ReplicationRunner.replications", 1), 1);
+        this.replicationThreads = atLeast("ReplicationRunner.threads", parseInt(config, "ReplicationRunner.threads", 0), 0);
+        this.confidenceLevel = parseDouble(config, "ReplicationRunner.confidenceLevel", 0.95);
+        if (!(this.confidenceLevel > 0 && this.confidenceLevel < 1)) {
+            throw new IllegalArgumentException("ReplicationRunner.confidenceLevel has to be between 0 and 1, but is " + this.confidenceLevel + ".");
+        }
+
+        this.carMaxPassengerNumber = atLeast("ElevatorCar.maxPassengerNumber", parseInt(config, "ElevatorCar.maxPassengerNumber"), 1);
+        this.carMaxMass = atLeast("ElevatorCar.maxMass", parseInt(config, "ElevatorCar.maxMass"), 0);
+        this.carMaxArea = atLeast("ElevatorCar.maxCarArea", parseInt(config, "ElevatorCar.maxCarArea"), 0);
+        this.carChangeDoorTime = Math.round(1000 * atLeast("ElevatorCar.changeDoorTime", parseDouble(config, "ElevatorCar.changeDoorTime"), 0));
+        this.carSpeed = parseDouble(config, "ElevatorShaft.carSpeed");
+        if (!(this.carSpeed > 0)) {
+            throw new IllegalArgumentException("ElevatorShaft.carSpeed has to be greater than 0, but is " + this.carSpeed + ".");
+        }
+        this.cars = atLeast("ElevatorGroup.cars", parseInt(config, "ElevatorGroup.cars", 1), 1);
+        this.dispatchStrategy = config.getProp("ElevatorGroup.dispatch", "collective");
+
+        var floorCount = atLeast("ElevatorShaft.floors.length", parseInt(config, "ElevatorShaft.floors.length"), 1);
+        var floorList = new ArrayList<FloorConfig>(floorCount);
+        for (int i = 0; i < floorCount; i++) {
+            floorList.add(FloorConfig.parse(config, "ElevatorShaft.floors." + i));
+        }
+        this.floors = Collections.unmodifiableList(floorList);
+
+        this.passengerArchetypes = PassengerArchetypes.fromConfig(config);
+    }
+
+    private SimulationConfig(SimulationConfig other, int seed) {
+        this.start = other.start;
+        this.end = other.end;
+        this.seed = seed;
+        this.eventQueue = other.eventQueue;
+        this.streamingArrivals = other.streamingArrivals;
+        this.statisticsEnabled = other.statisticsEnabled;
+        this.statisticsSummaryFile = other.statisticsSummaryFile;
+        this.checkpointFile = other.checkpointFile;
+        this.checkpointInterval = other.checkpointInterval;
+        this.resumeFrom = other.resumeFrom;
+        this.traceFile = other.traceFile;
+        this.verifyTrace = other.verifyTrace;
+        this.replayTrace = other.replayTrace;
+        this.replications = other.replications;
+        this.replicationThreads = other.replicationThreads;
+        this.confidenceLevel = other.confidenceLevel;
+        this.carMaxPassengerNumber = other.carMaxPassengerNumber;
+        this.carMaxMass = other.carMaxMass;
+        this.carMaxArea = other.carMaxArea;
+        this.carChangeDoorTime = other.carChangeDoorTime;
+        this.carSpeed = other.carSpeed;
+        this.cars = other.cars;
+        this.dispatchStrategy = other.dispatchStrategy;
+        this.floors = other.floors;
+        this.passengerArchetypes = other.passengerArchetypes;
+    }
+
+    /**
+     * Parses and validates all settings of a config.
+     * @param config The config to read. Later changes to it do not affect the snapshot.
+     * @return The snapshot of the settings
+     * @throws IllegalArgumentException if an entry is missing or malformed, naming the entry
+     */
+    public static SimulationConfig from(ConfigManager config) {
+        if (config == null) {
+            throw new IllegalArgumentException("config");
+        }
+
+        return new SimulationConfig(config);
+    }
+
+    /**
+     * Creates a snapshot that only differs in the seed, without parsing anything again.
+     * @param seed The seed of the random number generator
+     * @return The snapshot with the given seed
+     */
+    public SimulationConfig withSeed(int seed) {
+        return new SimulationConfig(this, seed);
+    }
+
+    /**
+     * Get the point at which the simulation starts ({@code Simulation.start})
+     * @return timestamp
+     */
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    /**
+     * Get the point at which the simulation ends ({@code Simulation.end})
+     * @return timestamp
+     */
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    /**
+     * Get the seed of the random number generator ({@code RNG.seed})
+     * @return seed
+     */
+    public int getSeed() {
+        return seed;
+    }
+
+    /**
+     * Get the name of the event queue implementation ({@code SimEventManager.queue})
+     * @return name, e.g. calendar
+     */
+    public String getEventQueue() {
+        return eventQueue;
+    }
+
+    /**
+     * Get whether the floors only schedule their next arrival ({@code Floor.arrivals=streaming})
+     * instead of creating all passengers up front
+     * @return true for streaming arrivals
+     */
+    public boolean isStreamingArrivals() {
+        return streamingArrivals;
+    }
+
+    /**
+     * Get whether trip statistics are recorded ({@code TripStatistics.enabled})
+     * @return true if enabled
+     */
+    public boolean isStatisticsEnabled() {
+        return statisticsEnabled;
+    }
+
+    /**
+     * Get the file the trip statistics are written to after a single run ({@code TripStatistics.summaryFile})
+     * @return path, empty to write none
+     */
+    public String getStatisticsSummaryFile() {
+        return statisticsSummaryFile;
+    }
+
+    /**
+     * Get the file a checkpoint of a single run is written to periodically ({@code Simulation.checkpointFile})
+     * @return path, empty to write none
+     */
+    public String getCheckpointFile() {
+        return checkpointFile;
+    }
+
+    /**
+     * Get the simulated time between two checkpoints ({@code Simulation.checkpointInterval}, in s)
+     * @return time in ms, greater than 0
+     */
+    public long getCheckpointIntervalMillis() {
+        return checkpointInterval;
+    }
+
+    /**
+     * Get the checkpoint a single run continues from instead of starting over ({@code Simulation.resumeFrom})
+     * @return path, empty to start over
+     */
+    public String getResumeFrom() {
+        return resumeFrom;
+    }
+
+    /**
+     * Get the file every event processed by a single run is recorded to ({@code Simulation.traceFile})
+     * @return path, empty to record none
+     */
+    public String getTraceFile() {
+        return traceFile;
+    }
+
+    /**
+     * Get the trace of an earlier run a single run is checked against event by event ({@code Simulation.verifyTrace})
+     * @return path, empty to check none
+     */
+    public String getVerifyTrace() {
+        return verifyTrace;
+    }
+
+    /**
+     * Get the trace of an earlier run a single run takes its passengers from and is checked against event by event ({@code Simulation.replayTrace})
+     * @return path, empty to replay none
+     */
+    public String getReplayTrace() {
+        return replayTrace;
+    }
+
+    /**
+     * Get the number of replications ({@code ReplicationRunner.replications})
+     * @return at least 1
+     */
+    public int getReplications() {
+        return replications;
+    }
+
+    /**
+     * Get the number of threads running replications ({@code ReplicationRunner.threads})
+     * @return number of threads, 0 for all processors
+     */
+    public int getReplicationThreads() {
+        return replicationThreads;
+    }
+
+    /**
+     * Get the confidence level of the intervals of replications ({@code ReplicationRunner.confidenceLevel})
+     * @return level between 0 and 1
+     */
+    public double getConfidenceLevel() {
+        return confidenceLevel;
+    }
+
+    /**
+     * Get the maximum number of passengers in an elevator car ({@code ElevatorCar.maxPassengerNumber})
+     * @return number of passengers
+     */
+    public int getCarMaxPassengerNumber() {
+        return carMaxPassengerNumber;
+    }
+
+    /**
+     * Get the maximum mass an elevator car can carry ({@code ElevatorCar.maxMass})
+     * @return mass in kg
+     */
+    public int getCarMaxMass() {
+        return carMaxMass;
+    }
+
+    /**
+     * Get the floor area of an elevator car ({@code ElevatorCar.maxCarArea})
+     * @return area in m²
+     */
+    public int getCarMaxArea() {
+        return carMaxArea;
+    }
+
+    /**
+     * Get the time the doors of an elevator car take to open or close ({@code ElevatorCar.changeDoorTime}, in s with up to 3 decimals)
+     * @return time in ms
+     */
+    public long getCarChangeDoorTimeMillis() {
+        return carChangeDoorTime;
+    }
+
+    /**
+     * Get the speed of the elevator cars ({@code ElevatorShaft.carSpeed})
+     * @return speed in m/s
+     */
+    public double getCarSpeed() {
+        return carSpeed;
+    }
+
+    /**
+     * Get the number of cars of the elevator group ({@code ElevatorGroup.cars})
+     * @return at least 1
+     */
+    public int getCars() {
+        return cars;
+    }
+
+    /**
+     * Get the name of the dispatch strategy ({@code ElevatorGroup.dispatch})
+     * @return name, e.g. collective
+     */
+    public String getDispatchStrategy() {
+        return dispatchStrategy;
+    }
+
+    /**
+     * Get the floors of the building ({@code ElevatorShaft.floors.*})
+     * @return unmodifiable list of floors, from the bottom to the top
+     */
+    public List<FloorConfig> getFloors() {
+        return floors;
+    }
+
+    /**
+     * Get the passenger types ({@code Passenger.people.*}) and item ranges ({@code Item.*})
+     * @return compiled passenger types
+     */
+    public PassengerArchetypes getPassengerArchetypes() {
+        return passengerArchetypes;
+    }
+
+    private static String require(ConfigManager config, String key) {
+        var value = config.getProp(key);
+        if (value == null) {
+            throw new IllegalArgumentException(key + " is missing in the config.");
+        }
+        return value.trim();
+    }
+
+    private static int parseInt(ConfigManager config, String key) {
+        return parseInt(key, require(config, key));
+    }
+
+    private static int parseInt(ConfigManager config, String key, int defaultValue) {
+        var value = config.getProp(key);
+        return value == null ? defaultValue : parseInt(key, value.trim());
+    }
+
+    private static int parseInt(String key, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " has to be an integer, but is '" + value + "'.", e);
+        }
+    }
+
+    private static double parseDouble(ConfigManager config, String key) {
+        return parseDouble(key, require(config, key));
+    }
+
+    private static double parseDouble(ConfigManager config, String key, double defaultValue) {
+        var value = config.getProp(key);
+        return value == null ? defaultValue : parseDouble(key, value.trim());
+    }
+
+    private static double parseDouble(String key, String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " has to be a number, but is '" + value + "'.", e);
+        }
+    }
+
+    private static LocalDateTime parseDateTime(ConfigManager config, String key) {
+        var value = require(config, key);
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(key + " has to be a date and time like 2020-01-01T08:00:00, but is '" + value + "'.", e);
+        }
+    }
+
+    private static int atLeast(String key, int value, int min) {
+        if (value < min) {
+            throw new IllegalArgumentException(key + " has to be at least " + min + ", but is " + value + ".");
+        }
+        return value;
+    }
+
+    private static double atLeast(String key, double value, double min) {
+        if (!(value >= min)) {
+            throw new IllegalArgumentException(key + " has to be at least " + min + ", but is " + value + ".");
+        }
+        return value;
+    }
+
+    /**
+     * One floor of the building: its number, its height and the range of the number of passengers arriving there.
+     */
+    public static final class FloorConfig {
+        private final int number;
+        private final int height;
+        private final int minPassengers;
+        private final int maxPassengers;
+
+        private FloorConfig(int number, int height, int minPassengers, int maxPassengers) {
+            this.number = number;
+            this.height = height;
+            this.minPassengers = minPassengers;
+            this.maxPassengers = maxPassengers;
+        }
+
+        /**
+         * Parses one {@code ElevatorShaft.floors.<index>} entry: {@code number;height in cm;min..max amount of passengers}.
+         */
+        private static FloorConfig parse(ConfigManager config, String key) {
+            var vars = require(config, key).split(";");
+            if (vars.length < 3) {
+                throw new IllegalArgumentException(key + " has " + vars.length + " fields, but needs 3: floor number;height in cm;min..max amount of passengers.");
+            }
+
+            var range = vars[2].split("\\.\\.");
+            if (range.length != 2) {
+                throw new IllegalArgumentException(key + " amount of passengers has to be a range min..max, but is '" + vars[2] + "'.");
+            }
+
+            var number = parseInt(key + " floor number", vars[0].trim());
+            var height = atLeast(key + " height", parseInt(key + " height", vars[1].trim()), 0);
+            var min = atLeast(key + " min amount of passengers", parseInt(key + " min amount of passengers", range[0].trim()), 0);
+            var max = atLeast(key + " max amount of passengers", parseInt(key + " max amount of passengers", range[1].trim()), min);
+            return new FloorConfig(number, height, min, max);
+        }
+
+        /**
+         * Get the floor number
+         * @return floor number, e.g. -1 for the basement
+         */
+        public int getNumber() {
+            return number;
+        }
+
+        /**
+         * Get the height of the floor
+         * @return height in cm
+         */
+        public int getHeight() {
+            return height;
+        }
+
+        /**
+         * Get the minimum number of passengers arriving at the floor
+         * @return number of passengers
+         */
+        public int getMinPassengers() {
+            return minPassengers;
+        }
+
+        /**
+         * Get the maximum number of passengers arriving at the floor
+         * @return number of passengers
+         */
+        public int getMaxPassengers() {
+            return maxPassengers;
+        }
+    }
+}
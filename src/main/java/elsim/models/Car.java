@@ -1,18 +1,31 @@
 package main.java.elsim.models;
 
-import java.time.Duration;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import main.java.elsim.config.ConfigManager;
+import main.java.elsim.simulation.CheckpointReader;
+import main.java.elsim.simulation.CheckpointWriter;
+import main.java.elsim.simulation.SimulationContext;
+import main.java.elsim.statistics.TripStatistics;
 
 /**
  * Contains all information needed to handle the elevator car for passenger transportation.
  * All information needed to create an elevator car are supplied by the {@code ConfigManager}.
  * Main functionality includes the managing of {@code Passenger} (adding, removing).
+ * The passengers are kept in one bucket per destination floor, together with a set of the floors that are destinations,
+ * so that finding the nearest destination and unloading at a floor do not have to look at every passenger.
+ * The buckets are queues of passenger ids in the {@code PassengerStore} of the simulation.
+ * Mass and area are accounted in grams and cm², so adding and removing the precomputed footprints of passengers stays exact
+ * however long the simulation runs.
  * @see ConfigManager
  * @see Passenger
+ * @see PassengerStore
  * @author fwagner
  */
 
@@ -20,27 +33,43 @@ public class Car {
 	private static final Logger LOGGER = Logger.getLogger(Car.class.getName());
 
 	private ElevatorShaft shaft;
+	private TripStatistics statistics;
+	private final PassengerStore passengers;
 
 	private final int maxPassengerNumber;
-	private final int maxMass;						// Mass in kg
-	private final double maxCarArea;
-	private final double changeDoorTime;			// Time in seconds
+	private final int maxMass;						// Mass in g
+	private final int maxCarArea;					// area in cm²
+	private final long changeDoorTime;				// Time in ms
 	
-	private int currentMass;						// Mass in kg
-	private double currentCarArea;					// area in m²
-	private final List<Passenger> currentPassengers;
+	private int currentMass;						// Mass in g
+	private int currentCarArea;						// area in cm²
+	private PassengerStore.Queue[] passengersByDestination;	// indexed by Floor.getIndex(), in order of entering
+	private final BitSet destinations;						// car calls: floors with at least one passenger to exit
+	private int passengerCount;
 
 	/**
-     * Car constructor from values of the configuration
+     * Car constructor from values of the global configuration
      */
 	public Car() {
-		this.maxPassengerNumber =  ConfigManager.getInstance().getPropAsInt("ElevatorCar.maxPassengerNumber");
-		this.maxMass = ConfigManager.getInstance().getPropAsInt("ElevatorCar.maxMass");
-		this.maxCarArea = ConfigManager.getInstance().getPropAsInt("ElevatorCar.maxCarArea");
-		this.changeDoorTime = ConfigManager.getInstance().getPropAsInt("ElevatorCar.changeDoorTime");
+		this(SimulationContext.getDefault());
+	}
+
+	/**
+     * Car constructor from values of the configuration of a simulation
+     * @param context The context of the simulation this car belongs to
+     */
+	public Car(SimulationContext context) {
+		var config = context.getConfig();
+		this.passengers = context.getPassengers();
+		this.maxPassengerNumber = config.getCarMaxPassengerNumber();
+		this.maxMass = Load.toGrams(config.getCarMaxMass());
+		this.maxCarArea = Load.toSquareCentimeters(config.getCarMaxArea());
+		this.changeDoorTime = config.getCarChangeDoorTimeMillis();
 		this.currentMass = 0;
-		this.currentCarArea = 0.0;
-		this.currentPassengers = new ArrayList<>();
+		this.currentCarArea = 0;
+		this.passengersByDestination = new PassengerStore.Queue[0];
+		this.destinations = new BitSet();
+		this.passengerCount = 0;
 	}
 
 	/**
@@ -54,66 +83,149 @@ public class Car {
 		}
 	}
 
+	/**
+	 * Sets the collector that records passengers entering and exiting this car.
+	 * @param statistics The statistics of the simulation, or {@code null} to record nothing.
+	 */
+	public void setStatistics(TripStatistics statistics) {
+		this.statistics = statistics;
+	}
+
 	/**
 	 * Returns current mass inside the car
-	 * @return Current mass inside the car
+	 * @return Current mass inside the car in kg
 	 */
 	public int getCurrentMass() {
-		return currentMass;
+		return currentMass / 1000;
 	}
 
 	/**
 	 * Returns current area used inside the car 
-	 * @return Current area used inside the car 
+	 * @return Current area used inside the car in m²
 	 */
 	public double getCurrentCarArea() {
-		return currentCarArea;
+		return currentCarArea / 10000.0;
 	}
 
 	/**
-	 * Returns list of passenger inside the car
+	 * Returns list of passenger inside the car, ordered by their destination floor.
+	 * Creates a new list on every call, use {@code getPassengerCount} to only get the number of passengers.
 	 * @return List of passenger inside the car
 	 */
 	public List<Passenger> getCurrentPassengers() {
-		return currentPassengers;
+		var current = new ArrayList<Passenger>(passengerCount);
+		for (int i = destinations.nextSetBit(0); i >= 0; i = destinations.nextSetBit(i + 1)) {
+			var bucket = passengersByDestination[i];
+			for (int p = bucket.first(); p >= 0; p = bucket.next(p)) {
+				current.add(passengers.get(p));
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Returns number of passengers inside the car
+	 * @return Number of passengers inside the car
+	 */
+	public int getPassengerCount() {
+		return passengerCount;
+	}
+
+	/**
+	 * Returns the nearest floor above the given one that is the destination of a passenger inside the car
+	 * @param floorIndex Index of the floor to search from, which itself is not included
+	 * @return Index of the destination floor, or -1 if no passenger wants to go up
+	 */
+	public int nextDestinationAbove(int floorIndex) {
+		return destinations.nextSetBit(floorIndex + 1);
+	}
+
+	/**
+	 * Returns the nearest floor below the given one that is the destination of a passenger inside the car
+	 * @param floorIndex Index of the floor to search from, which itself is not included
+	 * @return Index of the destination floor, or -1 if no passenger wants to go down
+	 */
+	public int nextDestinationBelow(int floorIndex) {
+		return destinations.previousSetBit(floorIndex - 1);
 	}
 	
 	/**
 	 * Returns spare mass inside the car (maxMass - currentMass)
-	 * @return Spare mass inside the car
+	 * @return Spare mass inside the car in kg
 	 */
 	public int getSpareMass() {
-		return this.maxMass - this.currentMass;
+		return (this.maxMass - this.currentMass) / 1000;
 	}
 	
 	/**
 	 * Returns spare area inside the car (maxArea - currentArea)
-	 * @return Spare mass inside the car
+	 * @return Spare area inside the car in m²
 	 */
 	public double getSpareArea() {
-		return this.maxCarArea - this.currentCarArea;
+		return (this.maxCarArea - this.currentCarArea) / 10000.0;
+	}
+
+	/**
+	 * Returns whether a passenger fits into the spare mass and area of the car
+	 * @param passenger Id of the passenger in the passenger store of the simulation
+	 * @return true if both the passenger's footprint mass and area fit
+	 */
+	private boolean fits(int passenger) {
+		return passengers.getFootprintMass(passenger) <= this.maxMass - this.currentMass
+				&& passengers.getFootprintArea(passenger) <= this.maxCarArea - this.currentCarArea;
 	}
 
 	/**
-     * Adding a passenger to a car
+     * Adding a passenger to a car. The passenger will no longer run out of patience.
+     * A passenger who is still waiting at their starting floor leaves it, like {@code Floor.removePassenger}.
      * @see Passenger
      * @param passenger Passenger to be added to the car
      * @return Status if passenger can be added
+     * @throws IllegalStateException When the passenger is inside a car already.
      */
 	public boolean addPassenger(Passenger passenger) {
-		int addedMass = passenger.getMass();
-		double addedCarArea = passenger.getSpaceRequired();
-		List<Item> passengerItems = passenger.getItems();
-		
-		for (int i = 0; i < passengerItems.size(); i++) {
-			addedMass = addedMass + passengerItems.get(i).getMass();
-			addedCarArea = passengerItems.get(i).getSpaceRequired();
-		}
-		
-		this.currentPassengers.add(passenger);
-		this.currentMass = this.currentMass + addedMass;
-		this.currentCarArea = this.currentCarArea + addedCarArea;
-		LOGGER.info(String.format("A passenger has entered the car who wants to go to floor %d.", passenger.getFloorDestination().getFloorNumber()));
+		return addPassenger(idOf(passenger));
+	}
+
+	/**
+     * Adding a passenger to a car. The passenger will no longer run out of patience.
+     * A passenger who is still waiting at their starting floor leaves it, like {@code Floor.removePassenger}.
+     * @see PassengerStore
+     * @param passenger Id of the passenger to be added to the car in the passenger store of the simulation
+     * @return Status if passenger can be added
+     * @throws IllegalStateException When the passenger is inside a car already.
+     */
+	public boolean addPassenger(int passenger) {
+		// floors and cars keep their passengers in queues of the same store, a passenger can only be in one of them
+		if (passengers.isQueued(passenger)) {
+			passengers.getFloorStartingPoint(passenger).removePassenger(passenger);
+			if (passengers.isQueued(passenger)) {
+				throw new IllegalStateException("passenger is already inside a car.");
+			}
+		}
+
+		var destinationFloor = passengers.getFloorDestination(passenger);
+		var destination = destinationFloor.getIndex();
+		if (destination < 0) {
+			throw new IllegalArgumentException("passenger has to go to a floor of an elevator shaft.");
+		}
+
+		if (destination >= this.passengersByDestination.length) {
+			growBuckets(destination + 1);
+		}
+		var bucket = this.passengersByDestination[destination];
+		bucket.add(passenger);
+		passengers.cancelPatienceTimeout(passenger);
+		if (this.statistics != null) {
+			this.statistics.passengerBoarded(passenger);
+		}
+		this.destinations.set(destination);
+		this.passengerCount++;
+		this.currentMass = this.currentMass + passengers.getFootprintMass(passenger);
+		this.currentCarArea = this.currentCarArea + passengers.getFootprintArea(passenger);
+		if (LOGGER.isLoggable(Level.INFO)) {
+			LOGGER.info(String.format("A passenger has entered the car who wants to go to floor %d.", destinationFloor.getFloorNumber()));
+		}
 		return true;
 	}
 
@@ -123,34 +235,47 @@ public class Car {
      * @param passenger Passenger to be removed to the car
      */
 	public void removePassenger(Passenger passenger) {
-		int removedMass = passenger.getMass();
-		double removedCarArea = passenger.getSpaceRequired();
-		List<Item> passengerItems = passenger.getItems();
-		
-		for (int i = 0; i < passengerItems.size(); i++) {
-			removedMass = removedMass + passengerItems.get(i).getMass();	
-			removedCarArea = passengerItems.get(i).getSpaceRequired();
-		}
-		
-		this.currentPassengers.remove(passenger);
-		this.currentMass = this.currentMass - removedMass;
-		this.currentCarArea = currentCarArea - removedCarArea;
-		LOGGER.info(String.format("A passenger from floor %d has exited the car.", passenger.getFloorStartingPoint().getFloorNumber()));
+		removePassenger(idOf(passenger));
+	}
+
+	/**
+	 * Removing a passenger from the car
+     * @see PassengerStore
+     * @param passenger Id of the passenger to be removed from the car in the passenger store of the simulation
+     */
+	public void removePassenger(int passenger) {
+		var destination = passengers.getFloorDestination(passenger).getIndex();
+		if (destination < 0 || destination >= this.passengersByDestination.length || !this.passengersByDestination[destination].remove(passenger)) {
+			return;
+		}
+
+		if (this.passengersByDestination[destination].isEmpty()) {
+			this.destinations.clear(destination);
+		}
+		this.passengerCount--;
+		if (this.statistics != null) {
+			this.statistics.passengerExited(passenger);
+		}
+		this.currentMass = this.currentMass - passengers.getFootprintMass(passenger);
+		this.currentCarArea = this.currentCarArea - passengers.getFootprintArea(passenger);
+		if (LOGGER.isLoggable(Level.INFO)) {
+			LOGGER.info(String.format("A passenger from floor %d has exited the car.", passengers.getFloorStartingPoint(passenger).getFloorNumber()));
+		}
 	}
 	
 	/**
 	 * Opens the door
-	 * @return changeDoorTime Time it takes to open the door 
+	 * @return changeDoorTime Time it takes to open the door in ms
 	 */
-	public double openDoor() {
+	public long openDoor() {
 		return changeDoorTime;
 	}
 	
 	/**
 	 * Closes the door
-	 * @return changeDoorTime Time it takes to close the door 
+	 * @return changeDoorTime Time it takes to close the door in ms
 	 */
-	public double closeDoor() {
+	public long closeDoor() {
 		return changeDoorTime;
 	}
 
@@ -160,55 +285,129 @@ public class Car {
 
 	/**
 	 * Removes all passengers that have the given floor as destination.
+	 * They have arrived and leave the simulation, so they are released to the passenger store to be reused.
+	 * @see PassengerStore#release(int)
 	 * @param floor The floor to have passengers exit at.
-	 * @return How long the action takes.
+	 * @return How long the action takes in ms.
 	 */
-	public Duration removeAllPassengersAtFloor(Floor floor) {
-		Duration exitDuration = Duration.ZERO;
-
-		var toRemove = new ArrayList<Passenger>();
+	public long removeAllPassengersAtFloor(Floor floor) {
+		long exitMillis = 0;
 
-		for (var p : this.currentPassengers) {
-			if (p.getFloorDestination().equals(floor)) {
-				toRemove.add(p);
-				exitDuration = exitDuration.plus(p.getTimeChange());
-			}
+		var index = floor.getIndex();
+		if (index < 0 || !this.destinations.get(index)) {
+			return exitMillis;
 		}
 
-		for (var rm : toRemove) {
-			this.removePassenger(rm);
+		// the passengers exit in the order they have entered
+		var bucket = this.passengersByDestination[index];
+		while (!bucket.isEmpty()) {
+			var p = bucket.first();
+			exitMillis += passengers.getTimeChange(p);
+			this.removePassenger(p);
+			passengers.release(p);
 		}
 
-		return exitDuration;
+		return exitMillis;
 	}
 
 	/**
 	 * Add all passengers that can enter the elevator car at the given floor.
+	 * The waiting passengers of the car's direction are gone through once in order of their arrival,
+	 * and everyone who still fits in by mass and area enters until the car is full.
 	 * @param currentFloor The floor to have passengers enter the car at.
-	 * @return How long the action takes.
+	 * @return How long the action takes in ms.
 	 */
-	public Duration addAllPassengersAtFloor(Floor currentFloor) {
+	public long addAllPassengersAtFloor(Floor currentFloor) {
 		var moveDirection = shaft.getDir();
 
-		if (this.currentPassengers.size() >= this.maxPassengerNumber) {
+		if (this.passengerCount >= this.maxPassengerNumber) {
 			LOGGER.warning("Car is full but wants to add passengers.");
+			return 0;
 		}
 
-		var nextPassenger = currentFloor.findAndRemoveNextPossiblePassenger(maxMass - currentMass, getSpareArea(), moveDirection);
-		if (nextPassenger == null) {
-			return Duration.ZERO;
+		long enterMillis = 0;
+		var passengersBefore = this.passengerCount;
+		var waiting = currentFloor.waitingPassengerIds(moveDirection);
+		while (this.passengerCount < this.maxPassengerNumber && waiting.hasNext()) {
+			var nextPassenger = waiting.nextId();
+			if (!fits(nextPassenger)) {
+				continue;
+			}
+
+			waiting.remove();
+			if (this.passengerCount == passengersBefore) {
+				// the first passenger to enter needs twice their change time
+				enterMillis = passengers.getTimeChange(nextPassenger);
+			}
+			this.addPassenger(nextPassenger);
+			enterMillis += passengers.getTimeChange(nextPassenger);
 		}
 
-		Duration enterDuration = nextPassenger.getTimeChange();
+		return enterMillis;
+	}
 
-		while (nextPassenger != null && this.currentPassengers.size() < this.maxPassengerNumber) {
-			this.addPassenger(nextPassenger);
-			enterDuration = enterDuration.plus(nextPassenger.getTimeChange());
+	/**
+	 * Writes the passengers inside the car to a checkpoint, ordered by their destination floor and in order of entering.
+	 * Mass and area are not written, they are summed up again from the passengers' footprints.
+	 * @param out The checkpoint to write to.
+	 * @throws IOException When the checkpoint cannot be written.
+	 */
+	void writeState(CheckpointWriter out) throws IOException {
+		out.writeInt(passengerCount);
+		for (int i = destinations.nextSetBit(0); i >= 0; i = destinations.nextSetBit(i + 1)) {
+			var bucket = passengersByDestination[i];
+			for (int p = bucket.first(); p >= 0; p = bucket.next(p)) {
+				out.writeInt(p);
+			}
+		}
+	}
 
-			var freeMass = this.maxMass - this.currentMass;
-			nextPassenger = currentFloor.findAndRemoveNextPossiblePassenger(freeMass, getSpareArea(), moveDirection);
+	/**
+	 * Restores the passengers written by {@code writeState} into this empty car.
+	 * Unlike {@code addPassenger}, nothing is recorded or logged.
+	 * @param in The checkpoint to read from.
+	 * @throws IOException When the checkpoint cannot be read.
+	 */
+	void readState(CheckpointReader in) throws IOException {
+		if (this.passengerCount != 0) {
+			throw new IllegalStateException("passengers are already inside the car.");
 		}
 
-		return enterDuration;
+		var count = in.readCount(passengers.size());
+		for (int i = 0; i < count; i++) {
+			var passenger = passengers.readId(in);
+			var destination = passengers.getFloorDestination(passenger).getIndex();
+			if (destination < 0) {
+				throw new IOException("Invalid destination of passenger " + passenger + " in checkpoint.");
+			}
+
+			if (destination >= this.passengersByDestination.length) {
+				growBuckets(destination + 1);
+			}
+			this.passengersByDestination[destination].add(passenger);
+			this.destinations.set(destination);
+			this.passengerCount++;
+			this.currentMass = this.currentMass + passengers.getFootprintMass(passenger);
+			this.currentCarArea = this.currentCarArea + passengers.getFootprintArea(passenger);
+		}
+	}
+
+	/**
+	 * Makes room for the buckets of more destination floors.
+	 * @param floorCount The number of floors that need a bucket.
+	 */
+	private void growBuckets(int floorCount) {
+		var previousLength = this.passengersByDestination.length;
+		this.passengersByDestination = Arrays.copyOf(this.passengersByDestination, floorCount);
+		for (int i = previousLength; i < floorCount; i++) {
+			this.passengersByDestination[i] = passengers.createQueue();
+		}
+	}
+
+	private int idOf(Passenger passenger) {
+		if (passenger.getStore() != passengers) {
+			throw new IllegalArgumentException("passenger belongs to another simulation.");
+		}
+		return passenger.getId();
 	}
 }
@@ -0,0 +1,141 @@
+package main.java.elsim.models;
+
+/**
+ * Directional collective control, the default dispatch strategy.
+ *
+ * A car keeps its direction as long as there are hall calls assigned to it or destinations of its passengers ahead,
+ * and stops at whichever comes first. Hall calls in the car's direction come before calls for the opposite direction.
+ * Only then the car turns around.
+ * A hall call is assigned to the car that is expected to travel the shortest distance to it,
+ * assuming every car finishes its current direction first.
+ * @author lBlankemeyer
+ */
+public class CollectiveDispatchStrategy implements DispatchStrategy {
+
+    /**
+     * {@inheritDoc}
+     * Only compares the cars' positions and directions, so the cost does not depend on the number of floors.
+     * Ties go to the car created first.
+     */
+    @Override
+    public int assignCall(ElevatorGroup group, int floorIndex, MoveDirection direction) {
+        var shafts = group.getShafts();
+        int best = -1;
+        long bestDistance = Long.MAX_VALUE;
+        for (int i = 0; i < shafts.size(); i++) {
+            var distance = estimateDistance(group, shafts.get(i), floorIndex, direction);
+            if (distance < bestDistance) {
+                best = i;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Estimates how far a car travels until it reaches a hall call, assuming it finishes its current direction first,
+     * i.e. travels to the end of the building before turning around.
+     */
+    private long estimateDistance(ElevatorGroup group, ElevatorShaft shaft, int floorIndex, MoveDirection direction) {
+        long top = group.getFloorPosition(group.getFloors().size() - 1);
+        long car = group.getFloorPosition(shaft.getCurrentCarFloor().getIndex());
+        long call = group.getFloorPosition(floorIndex);
+
+        switch (shaft.getDir()) {
+            case Up:
+                if (direction == MoveDirection.Up && call >= car) {
+                    return call - car;
+                } else if (direction == MoveDirection.Down) {
+                    return (top - car) + (top - call);
+                }
+                return (top - car) + top + call;
+            case Down:
+                if (direction == MoveDirection.Down && call <= car) {
+                    return car - call;
+                } else if (direction == MoveDirection.Up) {
+                    return car + call;
+                }
+                return car + top + (top - call);
+            default:
+                return Math.abs(call - car);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * If there is no next floor in the car's direction, the direction is reversed and searched again.
+     */
+    @Override
+    public int nextFloor(ElevatorShaft shaft) {
+        var next = nextFloorInDirection(shaft);
+
+        if (next < 0) {
+            if (shaft.getDir() == MoveDirection.Up) {
+                shaft.setDir(MoveDirection.Down);
+                next = nextFloorInDirection(shaft);
+            } else if (shaft.getDir() == MoveDirection.Down) {
+                shaft.setDir(MoveDirection.Up);
+                next = nextFloorInDirection(shaft);
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Method that finds out which floor of the two auxiliary algorithms has determined the optimal floor.
+     * @return Index of the floor, if there is an optimal Floor. -1, if there is no optimal Floor.
+     */
+    private int nextFloorInDirection(ElevatorShaft shaft) {
+        if (shaft.getDir() == MoveDirection.Hold) shaft.setDir(MoveDirection.Up);
+        int enter = nextFloorEnters(shaft);
+        int leaver = nextFloorLeaves(shaft);
+        if (enter >= 0 && leaver >= 0) {
+            if (shaft.getDir() == MoveDirection.Up) {
+                return Math.min(enter, leaver);
+            } else {
+                return Math.max(enter, leaver);
+            }
+        }
+        return enter >= 0 ? enter : leaver;
+    }
+
+    /**
+     * Part of the algorithm, to find the next destination floor.
+     * The elevator shaft pays attention to the nearest floor whose hall call is assigned to its car.
+     * Calls in the car's direction come first, then calls for the opposite direction above and below the car.
+     * @return Index of the next destination floor in terms of passengers waiting for the elevator car, or -1
+     */
+    private int nextFloorEnters(ElevatorShaft shaft) {
+        var hallCalls = shaft.getHallCalls();
+        int car = shaft.getIndex();
+        int current = shaft.getCurrentCarFloor().getIndex();
+        int next = -1;
+        if (shaft.getDir() == MoveDirection.Up) {
+            next = hallCalls.nextAbove(car, current, MoveDirection.Up);
+        } else if (shaft.getDir() == MoveDirection.Down) {
+            next = hallCalls.nextBelow(car, current, MoveDirection.Down);
+        }
+        if (next < 0) {
+            next = hallCalls.nextAbove(car, current, MoveDirection.Down);
+        }
+        if (next < 0) {
+            next = hallCalls.nextBelow(car, current, MoveDirection.Up);
+        }
+        return next;
+    }
+
+    /**
+     * Part of the algorithm, to find the next destination floor.
+     * The elevator shaft pays attention to the nearest floor, which is also a passenger's destination floor.
+     * @return Index of the next destination floor in terms of passengers in the elevator car, or -1
+     */
+    private int nextFloorLeaves(ElevatorShaft shaft) {
+        int current = shaft.getCurrentCarFloor().getIndex();
+        if (shaft.getDir() == MoveDirection.Up) {
+            return shaft.getElevatorCar().nextDestinationAbove(current);
+        } else if (shaft.getDir() == MoveDirection.Down) {
+            return shaft.getElevatorCar().nextDestinationBelow(current);
+        }
+        return -1;
+    }
+}
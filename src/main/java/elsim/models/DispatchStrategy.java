@@ -0,0 +1,31 @@
+package main.java.elsim.models;
+
+/**
+ * The policy by which an elevator group serves its floors: which car answers a hall call and where a car moves next.
+ *
+ * One instance belongs to one {@code ElevatorGroup} and is asked for every decision of it and its shafts.
+ * Which implementation is used can be configured with the config key {@code ElevatorGroup.dispatch}:
+ * {@code collective} (default) or {@code nearest}.
+ * @see ElevatorGroup#createDispatchStrategy(String)
+ * @author jbook
+ */
+public interface DispatchStrategy {
+    /**
+     * Chooses the car that is to answer a hall call. Called once when the hall button is pressed, only for groups with shafts.
+     * Every call has to be assigned, as a car only travels to the calls assigned to it and its passengers' destinations.
+     * @param group The group the hall call belongs to.
+     * @param floorIndex Index of the floor of the hall call.
+     * @param direction Direction of the hall call, Up or Down.
+     * @return Index of the chosen shaft in {@code group.getShafts()}, a valid index.
+     */
+    int assignCall(ElevatorGroup group, int floorIndex, MoveDirection direction);
+
+    /**
+     * Chooses the floor the car of a shaft moves to next, i.e. the next hall call assigned to it or destination of its passengers.
+     * May change the direction of the shaft with {@code ElevatorShaft.setDir}, which decides the passengers that board
+     * at the next floor. The shaft switches to {@code Hold} by itself when there is no next floor.
+     * @param shaft The shaft whose car is to move.
+     * @return Index of the next floor, or -1 if there is nothing to do.
+     */
+    int nextFloor(ElevatorShaft shaft);
+}
@@ -0,0 +1,272 @@
+package main.java.elsim.models;
+
+import main.java.elsim.simulation.CheckpointReader;
+import main.java.elsim.simulation.CheckpointWriter;
+import main.java.elsim.simulation.SimulationContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * A group of elevator shafts serving the same floors, like a bank of elevators in one building.
+ * The group owns the floors and their hall calls. Each hall call is assigned to one car as soon as its button is pressed,
+ * and a car only travels to the hall calls assigned to it and to the destinations of its passengers.
+ * A car that stops at a floor still takes everyone waiting to go its way, no matter which car the call is assigned to.
+ * Both decisions are made by the group's {@code DispatchStrategy}.
+ * An {@code ElevatorShaft} that is created on its own forms a group of one.
+ * @see HallCalls
+ * @see DispatchStrategy
+ * @author jbook
+ */
+public class ElevatorGroup {
+    private static final Logger LOGGER = Logger.getLogger(ElevatorGroup.class.getName());
+    private final SimulationContext context;
+    private final DispatchStrategy dispatchStrategy;
+    private final Floor[] floors;
+    private final List<Floor> floorList;
+    private final int[] floorPositions;             // height of each floor's bottom above the lowest floor in cm
+    private final HallCalls hallCalls;
+    private final List<ElevatorShaft> shafts;
+    private final List<ElevatorShaft> shaftsView;   // asked for on every hall call
+
+    /**
+     * Creates a group with the floors of the config of a simulation and the number of cars set by {@code ElevatorGroup.cars}.
+     * All cars are built from the {@code ElevatorCar} config.
+     * @param context The context of the simulation this group belongs to
+     * @return Group of elevator shafts
+     */
+    public static ElevatorGroup fromConfig(SimulationContext context) {
+        var group = new ElevatorGroup(context);
+        var cars = context.getConfig().getCars();
+        for (int i = 0; i < cars; i++) {
+            new ElevatorShaft(new Car(context), group);
+        }
+        return group;
+    }
+
+    /**
+     * Creates a group without any shafts yet, with the floors and the dispatch strategy of the config of a simulation.
+     * Shafts join the group when they are created with it.
+     * @param context The context of the simulation this group belongs to
+     */
+    public ElevatorGroup(SimulationContext context) {
+        this(context, createDispatchStrategy(context.getConfig().getDispatchStrategy()));
+    }
+
+    /**
+     * Creates a group without any shafts yet, with the floors of the config of a simulation.
+     * Shafts join the group when they are created with it.
+     * @param context The context of the simulation this group belongs to
+     * @param dispatchStrategy The strategy that assigns hall calls and moves the cars of this group
+     */
+    public ElevatorGroup(SimulationContext context, DispatchStrategy dispatchStrategy) {
+        if (dispatchStrategy == null) {
+            throw new IllegalArgumentException("dispatchStrategy");
+        }
+
+        this.context = context;
+        this.dispatchStrategy = dispatchStrategy;
+        this.shafts = new ArrayList<>();
+        this.shaftsView = Collections.unmodifiableList(this.shafts);
+
+        var floorCount = context.getConfig().getFloors().size();
+        this.floors = new Floor[floorCount];
+        this.floorPositions = new int[floorCount];
+        this.hallCalls = new HallCalls(floorCount, this);
+        this.loadFloors(context);
+        this.floorList = List.of(this.floors);
+    }
+
+    /**
+     * Creates a dispatch strategy by its config name.
+     * @param name Either {@code collective} or {@code nearest}. Unknown names fall back to {@code collective}.
+     * @return A new dispatch strategy.
+     */
+    public static DispatchStrategy createDispatchStrategy(String name) {
+        switch (name.toLowerCase()) {
+            case "nearest":
+                return new NearestStopDispatchStrategy();
+            case "collective":
+                return new CollectiveDispatchStrategy();
+            default:
+                LOGGER.warning("Invalid dispatch strategy '" + name + "' supplied in config. Using collective instead.");
+                return new CollectiveDispatchStrategy();
+        }
+    }
+
+    /**
+     * Creates each floor of the config inside the group, filling the floor and position arrays of the constructor.
+     * Each floor is told its index, and the position of every floor is summed up once,
+     * so that looking up a floor or the distance between two floors does not depend on the number of floors.
+     * @param context The context of the simulation this group belongs to
+     */
+    private void loadFloors(SimulationContext context){
+        var floorConfigs = context.getConfig().getFloors();
+        int position = 0;
+        for (int i = 0; i < floors.length; i++){
+            var floorConfig = floorConfigs.get(i);
+            var floor = new Floor(context, floorConfig.getNumber(), floorConfig.getHeight(), floorConfig.getMinPassengers(), floorConfig.getMaxPassengers());
+            floor.placeInGroup(i, this.hallCalls);
+            this.floors[i] = floor;
+            this.floorPositions[i] = position;
+            position += floor.getHeight();
+        }
+    }
+
+    /**
+     * Adds a shaft to this group. Only to be used by the {@code ElevatorShaft} while it is created.
+     * @param shaft The new shaft
+     * @return Index of the shaft in this group, which is also the index of its car in the hall calls
+     */
+    int addShaft(ElevatorShaft shaft) {
+        shafts.add(shaft);
+        return shafts.size() - 1;
+    }
+
+    /**
+     * Public GETTER for the context of the simulation this group belongs to.
+     * @return Context of the simulation
+     */
+    public SimulationContext getContext() {
+        return context;
+    }
+
+    /**
+     * Public GETTER for the dispatch strategy.
+     * @return Strategy that assigns hall calls and moves the cars of this group.
+     */
+    public DispatchStrategy getDispatchStrategy() {
+        return dispatchStrategy;
+    }
+
+    /**
+     * Public GETTER for shafts.
+     * @return Unmodifiable list of the shafts of this group, in order of their creation.
+     */
+    public List<ElevatorShaft> getShafts() {
+        return shaftsView;
+    }
+
+    /**
+     * Public GETTER for floors.
+     * @return Unmodifiable list of floors served by this group, from the bottom to the top.
+     * The index of each floor in this list is its {@code Floor.getIndex()}.
+     */
+    public List<Floor> getFloors() {
+        return floorList;
+    }
+
+    /**
+     * Public GETTER for the pressed hall buttons of all floors and the cars they are assigned to.
+     * @return Hall calls of this group, indexed like {@code getFloors()}.
+     */
+    public HallCalls getHallCalls() {
+        return hallCalls;
+    }
+
+    /**
+     * Gets a floor by its index.
+     * @param floorIndex Index of the floor in {@code getFloors()}.
+     * @return The floor.
+     */
+    Floor getFloor(int floorIndex) {
+        return floors[floorIndex];
+    }
+
+    /**
+     * Gets the height of a floor's bottom above the bottom of the lowest floor.
+     * @param floor Floor of this group.
+     * @return Position in centimeters.
+     */
+    public int getFloorPosition(Floor floor) {
+        return floorPositions[floor.getIndex()];
+    }
+
+    /**
+     * Gets the height of a floor's bottom above the bottom of the lowest floor.
+     * @param floorIndex Index of the floor in {@code getFloors()}.
+     * @return Position in centimeters.
+     */
+    public int getFloorPosition(int floorIndex) {
+        return floorPositions[floorIndex];
+    }
+
+    /**
+     * Gets the shaft whose car is to pick up the passengers waiting at a floor to go in a direction.
+     * That is the car the hall call is assigned to, or the car it would be assigned to if the button is not pressed.
+     * @param floor Floor of this group.
+     * @param direction Up or Down.
+     * @return The shaft serving the floor in the direction, or {@code null} if the group has no shafts yet.
+     */
+    public ElevatorShaft getServingShaft(Floor floor, MoveDirection direction) {
+        var car = hallCalls.getAssignedCar(floor.getIndex(), direction);
+        if (car < 0) {
+            car = selectCar(floor.getIndex(), direction);
+        }
+        return car >= 0 ? shafts.get(car) : null;
+    }
+
+    /**
+     * Writes the state of the floors, hall calls and shafts of this group to a checkpoint.
+     * The passengers they refer to have to be written to the same checkpoint before.
+     * @param out The checkpoint to write to.
+     * @throws IOException When the checkpoint cannot be written.
+     */
+    public void writeState(CheckpointWriter out) throws IOException {
+        out.writeInt(floors.length);
+        out.writeInt(shafts.size());
+        for (var floor : floors) {
+            floor.writeState(out);
+        }
+        hallCalls.writeState(out);
+        for (var shaft : shafts) {
+            shaft.writeState(out);
+        }
+    }
+
+    /**
+     * Restores the state written by {@code writeState} into this group, which has to have been created from the same config,
+     * and whose passengers have been restored already. Nobody may be waiting or riding yet.
+     * @param in The checkpoint to read from.
+     * @throws IOException When the checkpoint cannot be read or has been written of a group with other floors or shafts.
+     */
+    public void readState(CheckpointReader in) throws IOException {
+        var floorCount = in.readInt();
+        var shaftCount = in.readInt();
+        if (floorCount != floors.length || shaftCount != shafts.size()) {
+            throw new IOException(String.format("Checkpoint has %d floors and %d shafts, the elevator group has %d and %d.",
+                    floorCount, shaftCount, floors.length, shafts.size()));
+        }
+
+        for (var floor : floors) {
+            floor.readState(in);
+        }
+        hallCalls.readState(in, shafts.size());
+        for (var shaft : shafts) {
+            shaft.readState(in);
+        }
+    }
+
+    /**
+     * Chooses the car that is to answer a hall call by asking the dispatch strategy.
+     * @param floorIndex Index of the floor of the hall call.
+     * @param direction Direction of the hall call, Up or Down.
+     * @return Index of the chosen car, or -1 if the group has no shafts yet.
+     * @throws IllegalStateException When the dispatch strategy does not choose one of the shafts.
+     */
+    int selectCar(int floorIndex, MoveDirection direction) {
+        if (shafts.isEmpty()) {
+            return -1;
+        }
+
+        var car = dispatchStrategy.assignCall(this, floorIndex, direction);
+        if (car < 0 || car >= shafts.size()) {
+            throw new IllegalStateException(String.format("%s has assigned the %s call at floor %d to car %d, the group has %d cars.",
+                    dispatchStrategy.getClass().getSimpleName(), direction, floorIndex, car, shafts.size()));
+        }
+        return car;
+    }
+}
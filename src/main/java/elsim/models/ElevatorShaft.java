@@ -1,23 +1,26 @@
 package main.java.elsim.models;
 
-import main.java.elsim.config.ConfigManager;
+import main.java.elsim.simulation.CheckpointReader;
+import main.java.elsim.simulation.CheckpointWriter;
+import main.java.elsim.simulation.SimulationContext;
 
-import java.time.Duration;
-import java.util.LinkedList;
+import java.io.IOException;
 import java.util.List;
 import java.util.logging.Logger;
 
 /**
  * Contains all Information of the elevator shaft. The elevator shaft also contains the elevator car.
  * The elevator car is controlled from the elevator shaft to move it to the individual floors.
- * In addition, this class controls the algorithm with which the elevator car travels to each floor.
+ * The floor the elevator car travels to next is chosen by the dispatch strategy of the shaft's group.
+ * The floors, their positions and the hall calls belong to the group, the shaft looks them up there.
  * @author lBlankemeyer
  */
 public class ElevatorShaft {
 
     private static final Logger LOGGER = Logger.getLogger(ElevatorShaft.class.getName());
     private Car elevatorCar;
-    private List<Floor> floors;
+    private final ElevatorGroup group;
+    private final int index;
     private Floor carFloor;
     private MoveDirection carDir;
     private double carSpeed;
@@ -31,31 +34,51 @@ public class ElevatorShaft {
     }
 
     /**
-     * Public constructor, which creates an elevator shaft with an elevator car.
+     * Public SETTER of move direction. Only to be used by the {@code DispatchStrategy} while it chooses the next floor.
+     * @param dir Direction of car movement
+     */
+    public void setDir(MoveDirection dir) {
+        if (dir == null) {
+            throw new IllegalArgumentException("dir");
+        }
+
+        this.carDir = dir;
+    }
+
+    /**
+     * Public constructor, which creates an elevator shaft with an elevator car from the global config.
      * Elevator car speed is set by the config.
      * @param c The elevator car, which is contained by the elevator Shaft
      */
     public ElevatorShaft(Car c) {
-        this.elevatorCar = c;
-        this.elevatorCar.setElevatorShaft(this);
-        this.loadFloors();
-        this.carFloor = floors.get(0);
-        this.carDir = MoveDirection.Up;
+        this(c, SimulationContext.getDefault());
+    }
 
-        carSpeed = ConfigManager.getInstance().getPropAsInt("ElevatorShaft.carSpeed");
+    /**
+     * Public constructor, which creates an elevator shaft with an elevator car as the only shaft of a new group.
+     * Elevator car speed and floors are set by the config of the given simulation context.
+     * @param c The elevator car, which is contained by the elevator Shaft
+     * @param context The context of the simulation this shaft belongs to
+     */
+    public ElevatorShaft(Car c, SimulationContext context) {
+        this(c, new ElevatorGroup(context));
     }
 
     /**
-     * First reads the floor count from the config.
-     * Then each floor is read from the config file and created inside the elevator shaft.
+     * Public constructor, which creates an elevator shaft with an elevator car and adds it to a group.
+     * The shaft serves the floors of the group. Elevator car speed is set by the config of the group's context.
+     * @param c The elevator car, which is contained by the elevator Shaft
+     * @param group The group this shaft belongs to
      */
-    private void loadFloors(){
-        this.floors = new LinkedList<Floor>();
-        for (int i = 0; i < ConfigManager.getInstance().getPropAsInt("ElevatorShaft.floors.length"); i++){
-            String[] vars = ConfigManager.getInstance().getProp("ElevatorShaft.floors." + i).split(";");
-            var temp = vars[2].split("\\.\\.");
-            this.floors.add(new Floor(Integer.parseInt(vars[0]), Integer.parseInt(vars[1]), Integer.parseInt(temp[0]), Integer.parseInt(temp[1])));
-        }
+    public ElevatorShaft(Car c, ElevatorGroup group) {
+        this.elevatorCar = c;
+        this.elevatorCar.setElevatorShaft(this);
+        this.group = group;
+        this.index = group.addShaft(this);
+        this.carFloor = group.getFloor(0);
+        this.carDir = MoveDirection.Up;
+
+        carSpeed = group.getContext().getConfig().getCarSpeed();
     }
 
     /**
@@ -67,162 +90,86 @@ public class ElevatorShaft {
     }
 
     /**
-     * Public GETTER for elevator car.
-     * @return List of floors, which is contained by the elevator shaft.
+     * Public GETTER for the group of this shaft.
+     * @return Elevator group, which contains this shaft.
+     */
+    public ElevatorGroup getGroup() {
+        return group;
+    }
+
+    /**
+     * Public GETTER for the index of this shaft in its group.
+     * @return Index in {@code ElevatorGroup.getShafts()}.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Public GETTER for floors.
+     * @return Unmodifiable list of floors, which are served by the elevator shaft, from the bottom to the top.
+     * The index of each floor in this list is its {@code Floor.getIndex()}.
      */
     public List<Floor> getFloors() {
-        return floors;
+        return group.getFloors();
     }
 
     /**
-     * Adds up all floor heights of floors between start and destination floor.
+     * Public GETTER for the pressed hall buttons of all floors.
+     * @return Hall calls of the group of this elevator shaft, indexed like {@code getFloors()}.
+     */
+    public HallCalls getHallCalls() {
+        return group.getHallCalls();
+    }
+
+    /**
+     * Gets the height of a floor's bottom above the bottom of the lowest floor.
+     * @param floor Floor of this elevator shaft.
+     * @return Position in centimeters.
+     */
+    public int getFloorPosition(Floor floor) {
+        return group.getFloorPosition(floor);
+    }
+
+    /**
+     * Calculates the distance between the current floor of the car and another floor, i.e. the heights of all floors in between.
      * @param floor Floor to which the distance is to be measured.
      * @return Distance in centimeters.
      */
     private int distanceToFloor(Floor floor) {
-        int distance = 0;
-        int save;
-        int from = floors.indexOf(carFloor);
-        int to = floors.indexOf(floor);
-        if (from > to) {
-            save = to;
-            to = from;
-            from = save;
-        }
-        for (int i = from; i < to; i++) {
-            distance += this.getFloors().get(i).getHeight();
-        }
-        return distance;
-    }
-
-    /**
-     * Method that finds out which floor of the two auxiliary algorithms has determined the optimal floor.
-     * @return Floor, if there is an optimal Floor. Null, if there is no optimal Floor.
-     */
-    private Floor nextFloor() {
-        if (carDir == MoveDirection.Hold) carDir = MoveDirection.Up;
-        Floor enter = nextFloorEnters();
-        Floor leaver = nextFloorLeaves();
-        if (enter != null && leaver != null) {
-            if (carDir == MoveDirection.Up) {
-                if (floors.indexOf(enter) < floors.indexOf(leaver)) {
-                    return enter;
-                } else {
-                    return leaver;
-                }
-            } else if (carDir == MoveDirection.Down) {
-                if (floors.indexOf(enter) > floors.indexOf(leaver)) {
-                    return enter;
-                } else {
-                    return leaver;
-                }
-            }
-        }
-        if (enter != null && leaver == null) return enter;
-        if (enter == null && leaver != null) return leaver;
-        return null;
-    }
-
-    /**
-     * Part of the algorithm, to find the next destination floor.
-     * The elevator shaft pays attention to the nearest floor and queries the button statuses.
-     * If the elevator shaft finds no floor, it
-     * @return Next destination floor in terms of passengers waiting for the elevator car
-     */
-    private Floor nextFloorEnters() {
-        if (carDir == MoveDirection.Up) {
-            for (int i = floors.indexOf(carFloor) + 1; i < floors.size(); i++) {
-                if (floors.get(i).getButtonPressedUp()) {
-                    return floors.get(i);
-                }
-            }
-        } else if (carDir == MoveDirection.Down) {
-            for (int i = floors.indexOf(carFloor) - 1; i >= 0; i--) {
-                if (floors.get(i).getButtonPressedDown()) {
-                    return floors.get(i);
-                }
-            }
-        }
-        for (int i = floors.indexOf(carFloor) + 1; i < floors.size(); i++) {
-            if (floors.get(i).getButtonPressedDown()) {
-                return floors.get(i);
-            }
-        }
-        for (int i = floors.indexOf(carFloor) - 1; i >= 0; i--) {
-            if (floors.get(i).getButtonPressedUp()) {
-                return floors.get(i);
-            }
-        }
-        return null;
-
-    }
-
-    /**
-     * Part of the algorithm, to find the next destination floor.
-     * The elevator shaft pays attention to the nearest floor, which is also a passenger's destination floor.
-     * @return Next destination floor in terms of passengers in the elevator car
-     */
-    private Floor nextFloorLeaves() {
-        Floor f = null;
-        if (carDir == MoveDirection.Up) {
-            for (Passenger p : elevatorCar.getCurrentPassengers()) {
-                if (floors.indexOf(p.getFloorDestination())>floors.indexOf(carFloor)) {
-                    if (floors.indexOf(f)>floors.indexOf(p.getFloorDestination())||f==null) {
-                        f=p.getFloorDestination();
-                    }
-                }
-            }
-        } else if (carDir == MoveDirection.Down) {
-            for (Passenger p : elevatorCar.getCurrentPassengers()) {
-                if (floors.indexOf(p.getFloorDestination())<floors.indexOf(carFloor)) {
-                    if (floors.indexOf(f)<floors.indexOf(p.getFloorDestination())||f==null) {
-                        f=p.getFloorDestination();
-                    }
-                }
-            }
-        }
-        return f;
+        return Math.abs(group.getFloorPosition(floor) - group.getFloorPosition(carFloor));
     }
 
     /**
-     * Calculates the duration, the car needs, to move from floor to floor.
-     * @param distance Distance, which needs to be traveled.
-     * @return Return of Duration
+     * Calculates the time, the car needs, to move from floor to floor.
+     * @param distance Distance in centimeters, which needs to be traveled.
+     * @return Time in milliseconds, rounded to the nearest
      */
-    private Duration getDurationForDistance(int distance) {
-        return Duration.ofMillis((long) (1000 * (distance/100 / carSpeed)));
+    private long getTimeForDistance(int distance) {
+        return Math.round(distance * 10 / carSpeed);
     }
 
     /**
      * Public method which gets called by events to perform the car movement.
-     * @return Duration of moving car
-     */
-    public Duration moveCar() {
-        var nextFloor = nextFloor();
-
-        if (nextFloor == null) {
-            if (carDir == MoveDirection.Up) {
-                carDir = MoveDirection.Down;
-                nextFloor = nextFloor();
-            } else if (carDir == MoveDirection.Down) {
-                carDir = MoveDirection.Up;
-                nextFloor = nextFloor();
-            }
-        }
+     * @return Time of moving car in milliseconds, 0 if there is no floor to move to
+     */
+    public long moveCar() {
+        var next = group.getDispatchStrategy().nextFloor(this);
 
-        if (nextFloor == null) {
+        if (next < 0) {
             LOGGER.fine("No floor to move to. Changing to hold state.");
             carDir = MoveDirection.Hold;
-            return Duration.ZERO;
+            return 0;
         }
 
+        var nextFloor = group.getFloor(next);
         var distance = distanceToFloor(nextFloor);
         this.moveToFloor(nextFloor);
-        if (this.getElevatorCar().getCurrentPassengers().size() == 0) {
+        if (this.getElevatorCar().getPassengerCount() == 0) {
             carDir = MoveDirection.Hold;
         }
 
-        return getDurationForDistance(distance);
+        return getTimeForDistance(distance);
     }
 
     /**
@@ -233,12 +180,35 @@ public class ElevatorShaft {
         return this.carFloor;
     }
 
+    /**
+     * Writes the floor and direction of the car and the passengers inside it to a checkpoint.
+     * @param out The checkpoint to write to.
+     * @throws IOException When the checkpoint cannot be written.
+     */
+    void writeState(CheckpointWriter out) throws IOException {
+        out.writeInt(carFloor.getIndex());
+        out.writeInt(carDir.ordinal());
+        elevatorCar.writeState(out);
+    }
+
+    /**
+     * Restores the state written by {@code writeState}.
+     * @param in The checkpoint to read from.
+     * @throws IOException When the checkpoint cannot be read.
+     */
+    void readState(CheckpointReader in) throws IOException {
+        this.carFloor = group.getFloor(in.readCount(group.getFloors().size() - 1));
+        this.carDir = MoveDirection.values()[in.readCount(MoveDirection.values().length - 1)];
+        elevatorCar.readState(in);
+    }
+
     /**
      * This Method transfers the elevator car to a specific floor.
      * @param floor Floor, where the elevator car should be moved to.
      */
     private void moveToFloor(Floor floor) {
-        if (!this.floors.contains(floor)) {
+        var index = floor.getIndex();
+        if (index < 0 || index >= group.getFloors().size() || group.getFloor(index) != floor) {
             throw new IllegalArgumentException("floor");
         }
 
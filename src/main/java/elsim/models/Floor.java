@@ -1,17 +1,24 @@
 package main.java.elsim.models;
 
+import main.java.elsim.simulation.CheckpointReader;
+import main.java.elsim.simulation.CheckpointWriter;
 import main.java.elsim.simulation.Simulation;
-import main.java.elsim.simulation.SimulationNotInitializedException;
-import main.java.elsim.simulation.events.PassengerArrivesAtFloorEvent;
-import main.java.elsim.simulation.events.PassengerLeavesFloorSimEvent;
+import main.java.elsim.simulation.SimulationContext;
 
+import java.io.IOException;
 import java.time.Duration;
-import java.util.LinkedList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.logging.Logger;
 
 /**
  * Class for floors where the passengers wait for the elevator
+ * Waiting passengers are kept in one queue per direction, each in order of arrival. Passengers who want to go to this floor
+ * itself press no button and wait in a third queue, they only board a car that holds.
+ * The queues are linked through the ids of the passengers in the {@code PassengerStore} of the simulation,
+ * so a passenger is removed without searching for them, and a button is reset as soon as the queue of its direction is empty.
  * @see Passenger
+ * @see PassengerStore
  * @author mjaeckel, jbook
  */
 public class Floor {
@@ -19,26 +26,54 @@ public class Floor {
 
     private final int floorNumber;
     private final int height;
-    private final LinkedList<Passenger> passengers;
+    private int index = -1;
+    private HallCalls hallCalls;
+    private final PassengerStore passengers;
+    private final int passengerStoreIndex;
+    private final PassengerStore.Queue passengersUp;
+    private final PassengerStore.Queue passengersDown;
+    private final PassengerStore.Queue passengersStaying;   // those who want to go to this floor
+    private final WaitingPassengerIterator boardingIterator = new WaitingPassengerIterator(-1, -1, -1);
+    private long arrivalCount;
     private boolean buttonPressedUp;
     private boolean buttonPressedDown;
 
+    private final RNG arrivalRng;
+    private final RNG passengerRng;
     private final int passengerAmount;
 
     /**
-     * Manual constructor for Passenger Objects.
+     * Manual constructor for Floor Objects using the global random number generator.
      * @param height Height of the floor in centimeters.
      */
     public Floor(int floorNumber, int height, int minPassengers, int maxPassengers) {
+        this(SimulationContext.getDefault(), floorNumber, height, minPassengers, maxPassengers);
+    }
+
+    /**
+     * Manual constructor for Floor Objects.
+     * The floor draws the amount, destinations and arrival times of its passengers, and their properties,
+     * from two streams of the simulation's random number generator that belong to its floor number alone.
+     * The floor is registered in the passenger store of the simulation, so that its passengers can start at or go to it.
+     * @param context The context of the simulation whose random number generator determines the amount of passengers.
+     * @param height Height of the floor in centimeters.
+     */
+    public Floor(SimulationContext context, int floorNumber, int height, int minPassengers, int maxPassengers) {
         this.floorNumber = floorNumber;
         this.height = height;
-        passengers = new LinkedList<>();
+        this.passengers = context.getPassengers();
+        this.passengerStoreIndex = passengers.registerFloor(this);
+        passengersUp = passengers.createQueue();
+        passengersDown = passengers.createQueue();
+        passengersStaying = passengers.createQueue();
 
         if (minPassengers > maxPassengers) {
             throw new IllegalArgumentException("minPassengers has to be smaller than or equal to maxPassengers.");
         }
 
-        this.passengerAmount = RNG.getInstance().getRandomInteger(minPassengers, maxPassengers);
+        this.arrivalRng = context.getRng().stream(RNG.Stream.ARRIVALS, floorNumber);
+        this.passengerRng = context.getRng().stream(RNG.Stream.PASSENGERS, floorNumber);
+        this.passengerAmount = arrivalRng.getRandomInteger(minPassengers, maxPassengers);
     }
 
     /**
@@ -47,40 +82,206 @@ public class Floor {
      */
     public int getFloorNumber() { return floorNumber; }
 
-    public void loadPassengers(Simulation sim, ElevatorShaft shaft) throws SimulationNotInitializedException {
+    /**
+     * Get the position of the floor in its elevator group, counted from the bottom.
+     * @return The index of the floor, or -1 if it does not belong to a group.
+     */
+    public int getIndex() { return index; }
 
-        var allFloors = shaft.getFloors();
+    /**
+     * Get the position of the floor in the passenger store it has been registered in.
+     * @return The index of the floor in the store.
+     */
+    int getPassengerStoreIndex() { return passengerStoreIndex; }
+
+    /**
+     * Place the floor in an elevator group. Only to be used by the {@code ElevatorGroup} while loading its floors.
+     * From then on, the buttons of this floor are mirrored into the hall calls of the group.
+     * @param index The index of the floor, counted from the bottom.
+     * @param hallCalls The hall calls of the group.
+     */
+    void placeInGroup(int index, HallCalls hallCalls) {
+        if (this.index >= 0) {
+            throw new IllegalStateException("floor already belongs to an elevator group.");
+        }
+
+        this.index = index;
+        this.hallCalls = hallCalls;
+        hallCalls.set(index, MoveDirection.Up, buttonPressedUp);
+        hallCalls.set(index, MoveDirection.Down, buttonPressedDown);
+    }
+
+    /**
+     * Create all passengers arriving at this floor during the simulation and schedule their arrivals.
+     * @param sim The simulation to schedule the arrivals in.
+     * @param group The elevator group the passengers want to use.
+     */
+    public void loadPassengers(Simulation sim, ElevatorGroup group) {
+        scheduleArrivals(sim, group, createArrivals(sim, group));
+    }
+
+    /**
+     * Create all passengers arriving at this floor during the simulation, without scheduling them yet.
+     * Only draws from the random streams of this floor and changes nothing but them and a new batch of passengers,
+     * so all floors of a building can create their passengers in parallel with the same result.
+     * @param sim The simulation whose window the arrivals are distributed over.
+     * @param group The elevator group the passengers want to use.
+     * @return The passengers and their arrival times, to be passed to {@code scheduleArrivals}.
+     */
+    public Arrivals createArrivals(Simulation sim, ElevatorGroup group) {
+        var archetypes = sim.getContext().getConfig().getPassengerArchetypes();
+        var allFloors = group.getFloors();
         var secondsDuration = Duration.between(sim.getStart(), sim.getEnd()).toSeconds();
+        var arrivals = new Arrivals(this.passengers.createBatch(), this.passengerAmount);
 
         for (int i = 0; i < this.passengerAmount; i++) {
 
-            var targetFloorIndex = RNG.getInstance().getRandomIntegerExcept(0, allFloors.size() - 1, allFloors.indexOf(this));
-            var p = new Passenger(this, allFloors.get(targetFloorIndex));
-            var randomOffset = RNG.getInstance().getRandomInteger(0, (int)secondsDuration);
+            var targetFloorIndex = arrivalRng.getRandomIntegerExcept(0, allFloors.size() - 1, this.index);
+            arrivals.passengers.add(archetypes, passengerRng, this, allFloors.get(targetFloorIndex));
+            arrivals.offsets[i] = arrivalRng.getRandomInteger(0, (int)secondsDuration);
+        }
+        return arrivals;
+    }
+
+    /**
+     * Add the passengers created by {@code createArrivals} to the passenger store and schedule their arrivals,
+     * in the order they have been created.
+     * @param sim The simulation to schedule the arrivals in.
+     * @param group The elevator group the passengers want to use.
+     * @param arrivals The arrivals of this floor.
+     */
+    public void scheduleArrivals(Simulation sim, ElevatorGroup group, Arrivals arrivals) {
+        var first = this.passengers.addAll(arrivals.passengers);
+        for (int i = 0; i < arrivals.offsets.length; i++) {
+            sim.scheduleArrival(arrivals.offsets[i] * 1000L, first + i, this, group, null);
+        }
+    }
 
-            sim.addSimEvent(randomOffset, new PassengerArrivesAtFloorEvent(p, this, shaft));
+    /**
+     * Create all passengers arriving at this floor during the simulation from the trace the simulation replays, instead of
+     * drawing them with {@code createArrivals}, and schedule their arrivals in the order they have been recorded.
+     * @param sim The simulation replaying a trace, see {@code Simulation.setReplayTrace}.
+     * @param group The elevator group the passengers want to use.
+     */
+    public void replayArrivals(Simulation sim, ElevatorGroup group) {
+        for (int i = 0; i < this.passengerAmount; i++) {
+            sim.replayArrival(this, group, null);
         }
     }
 
+    /**
+     * Get the random stream of the amount, destinations and arrival times of the passengers of this floor.
+     * @return The random number generator.
+     */
+    RNG getArrivalRng() {
+        return arrivalRng;
+    }
+
+    /**
+     * Get the random stream of the properties of the passengers starting at this floor.
+     * @return The random number generator.
+     */
+    RNG getPassengerRng() {
+        return passengerRng;
+    }
+
+    /**
+     * Start the streaming generation of the passengers arriving at this floor during the simulation.
+     * Only the first arrival is scheduled; every arrival schedules the next one, so only one passenger per floor exists before arriving.
+     * @param sim The simulation to schedule the arrivals in.
+     * @param group The elevator group the passengers want to use.
+     * @return The generator of this floor's arrivals.
+     */
+    public PassengerArrivalGenerator startPassengerArrivals(Simulation sim, ElevatorGroup group) {
+        var generator = new PassengerArrivalGenerator(sim, this, group, this.passengerAmount);
+        generator.scheduleNext(sim);
+        return generator;
+    }
+
     /**
      * Add a passenger who wait at this floor for the elevator and press the button up or down to call the elevator car.
      * @param passenger A new passenger who will wait for an elevator.
      */
     public void addPassenger(Passenger passenger) {
-        int destinationFloorNumber = passenger.getFloorDestination().getFloorNumber();
+        addPassenger(idOf(passenger));
+    }
+
+    /**
+     * Add a passenger who wait at this floor for the elevator and press the button up or down to call the elevator car.
+     * @param passenger The id of a new passenger in the passenger store of the simulation.
+     */
+    public void addPassenger(int passenger) {
+        int destinationFloorNumber = passengers.getFloorDestination(passenger).getFloorNumber();
 
         if (destinationFloorNumber == this.floorNumber) {
             LOGGER.warning(String.format("Tried to add passenger to floor %d that has the same floor as their destination.", this.floorNumber));
         }
 
-        passengers.add(passenger);
+        passengers.setWaitingSequence(passenger, arrivalCount++);
         if (destinationFloorNumber > this.floorNumber) {
-            buttonPressedUp = true;
+            passengersUp.add(passenger);
+            if (!buttonPressedUp) {
+                setButtonUp(true);
+            }
+        } else if (destinationFloorNumber < this.floorNumber) {
+            passengersDown.add(passenger);
+            if (!buttonPressedDown) {
+                setButtonDown(true);
+            }
+        } else {
+            passengersStaying.add(passenger);
         }
+    }
 
-        if (destinationFloorNumber < this.floorNumber) {
-            buttonPressedDown = true;
+    /**
+     * Get the number of passengers waiting at this floor.
+     * @return Number of waiting passengers in both directions and of those who want to go to this floor.
+     */
+    public int getWaitingPassengerCount() { return passengersUp.size() + passengersDown.size() + passengersStaying.size(); }
+
+    /**
+     * Get the number of passengers waiting at this floor to go in a direction.
+     * The button of a direction is pressed exactly while this is not zero, unless it has been reset in between.
+     * @param direction Up or Down. Passengers who want to go to this floor are counted in neither direction.
+     * @return Number of waiting passengers.
+     */
+    public int getWaitingPassengerCount(MoveDirection direction) {
+        if (direction == MoveDirection.Up) {
+            return passengersUp.size();
+        } else if (direction == MoveDirection.Down) {
+            return passengersDown.size();
         }
+
+        throw new IllegalArgumentException("direction");
+    }
+
+    /**
+     * Iterate over the passengers waiting to go in a direction, in order of their arrival.
+     * Removing a passenger through the iterator removes them from this floor like {@code removePassenger}.
+     * @param direction The move direction of the elevator car. With {@code Hold}, all waiting passengers are returned,
+     *                  including those who want to go to this floor.
+     * @return Iterator over the waiting passengers.
+     */
+    public Iterator<Passenger> waitingPassengers(MoveDirection direction) {
+        return new WaitingPassengerIterator(
+                direction != MoveDirection.Down ? passengersUp.first() : -1,
+                direction != MoveDirection.Up ? passengersDown.first() : -1,
+                direction == MoveDirection.Hold ? passengersStaying.first() : -1);
+    }
+
+    /**
+     * Iterate over the ids of the passengers waiting to go in a direction, in order of their arrival, without creating any views.
+     * The floor has only one such iterator, which is reset and returned again by the next call.
+     * @param direction The move direction of the elevator car. With {@code Hold}, all waiting passengers are returned,
+     *                  including those who want to go to this floor.
+     * @return Iterator over the waiting passengers, use {@code nextId} instead of {@code next}.
+     */
+    WaitingPassengerIterator waitingPassengerIds(MoveDirection direction) {
+        boardingIterator.reset(
+                direction != MoveDirection.Down ? passengersUp.first() : -1,
+                direction != MoveDirection.Up ? passengersDown.first() : -1,
+                direction == MoveDirection.Hold ? passengersStaying.first() : -1);
+        return boardingIterator;
     }
 
     /**
@@ -91,39 +292,25 @@ public class Floor {
 
     /**
      * Find, return and remove next waiting passenger who can get into the elevator limited by mass, required space and direction.
-     * @param freeMass Free mass of the elevator.
-     * @param freeSpace Free space of the elevator.
+     * The button of the passenger's direction is reset if nobody else is waiting to go that way.
+     * The limits are compared with the passengers' footprints in grams and cm².
+     * @param freeMass Free mass of the elevator in kg.
+     * @param freeSpace Free space of the elevator in m².
      * @param direction The move direction of the elevator car.
      * @return Passenger as type Passenger who fit with the conditions and can enter the elevator. If no passenger fit it will return null.
      */
     public Passenger findAndRemoveNextPossiblePassenger(int freeMass, double freeSpace, MoveDirection direction) {
-        Passenger passenger = null;
-
-        for (Passenger tmp: passengers) {
-            int directionFloorNumber = tmp.getFloorDestination().getFloorNumber();
-            int neededMass = tmp.getMass();
-            double neededSpace = tmp.getSpaceRequired();
-            // The needed mass and space for the passenger + his/her items
-            for (Item item : tmp.getItems()) {
-                neededMass += item.getMass();
-                neededSpace += item.getSpaceRequired();
-            }
-
-            if (neededMass <= freeMass &&
-                neededSpace <= freeSpace && (
-                    (direction == MoveDirection.Hold) ||
-                    (direction == MoveDirection.Up && directionFloorNumber > floorNumber) ||
-                    (direction == MoveDirection.Down && directionFloorNumber < floorNumber)
-                )) {
-
-                passenger = tmp;
-                break;
+        var freeGrams = Load.toGrams(freeMass);
+        var freeSquareCentimeters = Load.toSquareCentimeters(freeSpace);
+        var waiting = waitingPassengerIds(direction);
+        while (waiting.hasNext()) {
+            var passenger = waiting.nextId();
+            if (passengers.getFootprintMass(passenger) <= freeGrams && passengers.getFootprintArea(passenger) <= freeSquareCentimeters) {
+                waiting.remove();
+                return passengers.get(passenger);
             }
         }
-        if (passenger != null) {
-            passengers.remove(passenger);
-        }
-        return passenger;
+        return null;
     }
 
     /**
@@ -135,7 +322,7 @@ public class Floor {
     /**
      * Reset the button up to false (necessary after the car arrived)
      */
-    public void resetButtonUp() { buttonPressedUp = false; }
+    public void resetButtonUp() { setButtonUp(false); }
 
     /**
      * Getter, check if the down button was pressed
@@ -146,7 +333,21 @@ public class Floor {
     /**
      * Reset the button down to false (necessary after the car arrived)
      */
-    public void resetButtonDown() { buttonPressedDown = false; }
+    public void resetButtonDown() { setButtonDown(false); }
+
+    private void setButtonUp(boolean pressed) {
+        buttonPressedUp = pressed;
+        if (hallCalls != null) {
+            hallCalls.set(index, MoveDirection.Up, pressed);
+        }
+    }
+
+    private void setButtonDown(boolean pressed) {
+        buttonPressedDown = pressed;
+        if (hallCalls != null) {
+            hallCalls.set(index, MoveDirection.Down, pressed);
+        }
+    }
 
     /**
      * Removes one passenger from this floor. This is called either when a passenger enters the elevator car or leaves because of their patience running out.
@@ -154,37 +355,179 @@ public class Floor {
      * @return Whether the passenger was removed.
      */
     public boolean removePassenger(Passenger passenger) {
-        var pGoingUp = passenger.getFloorDestination().getFloorNumber() > this.getFloorNumber();
+        return removePassenger(idOf(passenger));
+    }
+
+    /**
+     * Removes one passenger from this floor. This is called either when a passenger enters the elevator car or leaves because of their patience running out.
+     * @param passenger The id of the passenger to leave this floor in the passenger store of the simulation.
+     * @return Whether the passenger was removed.
+     */
+    public boolean removePassenger(int passenger) {
+        var destinationFloorNumber = passengers.getFloorDestination(passenger).getFloorNumber();
+        var pGoingUp = destinationFloorNumber > this.getFloorNumber();
+        var queue = pGoingUp ? passengersUp : destinationFloorNumber < this.getFloorNumber() ? passengersDown : passengersStaying;
+        var removed = queue.remove(passenger);
+        resetButtonIfNobodyWaits(pGoingUp);
+        return removed;
+    }
 
-        // これは文書化する必要はありません - とにかく誰もそれを理解していません。
-        if (pGoingUp) {
-            boolean otherGoingUp = false;
+    /**
+     * Writes the position of the floor's random streams, its buttons and its waiting passengers in order to a checkpoint.
+     * @param out The checkpoint to write to.
+     * @throws IOException When the checkpoint cannot be written.
+     */
+    void writeState(CheckpointWriter out) throws IOException {
+        out.writeLong(arrivalRng.getState());
+        out.writeLong(passengerRng.getState());
+        out.writeLong(arrivalCount);
+        out.writeBoolean(buttonPressedUp);
+        out.writeBoolean(buttonPressedDown);
+        writeQueue(out, passengersUp);
+        writeQueue(out, passengersDown);
+        writeQueue(out, passengersStaying);
+    }
 
-            for (var p : this.passengers) {
-                if (!p.equals(passenger) && p.getFloorDestination().getFloorNumber() > this.getFloorNumber()) {
-                    otherGoingUp = true;
-                    break;
-                }
-            }
+    /**
+     * Restores the state written by {@code writeState} into this floor without anybody waiting yet.
+     * The buttons are not mirrored into the hall calls, which restore their own state.
+     * @param in The checkpoint to read from.
+     * @throws IOException When the checkpoint cannot be read.
+     */
+    void readState(CheckpointReader in) throws IOException {
+        if (!passengersUp.isEmpty() || !passengersDown.isEmpty() || !passengersStaying.isEmpty()) {
+            throw new IllegalStateException("passengers are already waiting.");
+        }
+
+        arrivalRng.setState(in.readLong());
+        passengerRng.setState(in.readLong());
+        arrivalCount = in.readLong();
+        buttonPressedUp = in.readBoolean();
+        buttonPressedDown = in.readBoolean();
+        readQueue(in, passengersUp);
+        readQueue(in, passengersDown);
+        readQueue(in, passengersStaying);
+    }
+
+    private static void writeQueue(CheckpointWriter out, PassengerStore.Queue queue) throws IOException {
+        out.writeInt(queue.size());
+        for (int p = queue.first(); p >= 0; p = queue.next(p)) {
+            out.writeInt(p);
+        }
+    }
+
+    private void readQueue(CheckpointReader in, PassengerStore.Queue queue) throws IOException {
+        var count = in.readCount(passengers.size());
+        for (int i = 0; i < count; i++) {
+            queue.add(passengers.readId(in));
+        }
+    }
+
+    private int idOf(Passenger passenger) {
+        if (passenger.getStore() != passengers) {
+            throw new IllegalArgumentException("passenger belongs to another simulation.");
+        }
+        return passenger.getId();
+    }
+
+    /**
+     * Reset the button of a direction if no passenger waits to go that way anymore.
+     * @param up Whether to check the up button instead of the down button.
+     */
+    private void resetButtonIfNobodyWaits(boolean up) {
+        if (up && passengersUp.isEmpty()) {
+            this.resetButtonUp();
+        } else if (!up && passengersDown.isEmpty()) {
+            this.resetButtonDown();
+        }
+    }
+
+    /**
+     * Iterates over some of the queues of waiting passengers, merged in order of arrival.
+     */
+    final class WaitingPassengerIterator implements Iterator<Passenger> {
+        private int nextUp;
+        private int nextDown;
+        private int nextStaying;
+        private int last = -1;
+
+        private WaitingPassengerIterator(int firstUp, int firstDown, int firstStaying) {
+            reset(firstUp, firstDown, firstStaying);
+        }
+
+        private void reset(int firstUp, int firstDown, int firstStaying) {
+            this.nextUp = firstUp;
+            this.nextDown = firstDown;
+            this.nextStaying = firstStaying;
+            this.last = -1;
+        }
 
-            if (!otherGoingUp) {
-                this.resetButtonUp();
+        @Override
+        public boolean hasNext() {
+            return nextUp >= 0 || nextDown >= 0 || nextStaying >= 0;
+        }
+
+        @Override
+        public Passenger next() {
+            return passengers.get(nextId());
+        }
+
+        /**
+         * Returns the id of the next waiting passenger.
+         * @return The id in the passenger store of the simulation.
+         */
+        int nextId() {
+            last = earlier(earlier(nextUp, nextDown), nextStaying);
+            if (last < 0) {
+                throw new NoSuchElementException();
+            } else if (last == nextUp) {
+                nextUp = passengersUp.next(nextUp);
+            } else if (last == nextDown) {
+                nextDown = passengersDown.next(nextDown);
+            } else {
+                nextStaying = passengersStaying.next(nextStaying);
             }
-        } else {
-            boolean otherGoingDown = false;
 
-            for (var p : this.passengers) {
-                if (!p.equals(passenger) && p.getFloorDestination().getFloorNumber() < this.getFloorNumber()) {
-                    otherGoingDown = true;
-                    break;
-                }
+            return last;
+        }
+
+        private int earlier(int first, int second) {
+            if (first < 0) {
+                return second;
             }
+            return second < 0 || passengers.getWaitingSequence(first) < passengers.getWaitingSequence(second) ? first : second;
+        }
 
-            if (!otherGoingDown) {
-                this.resetButtonDown();
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
             }
+
+            removePassenger(last);
+            last = -1;
+        }
+    }
+
+    /**
+     * The passengers arriving at a floor during a simulation and their arrival times, created but not scheduled yet.
+     * @see Floor#createArrivals(Simulation, ElevatorGroup)
+     */
+    public static final class Arrivals {
+        private final PassengerStore passengers;        // batch of the passenger store of the simulation
+        private final int[] offsets;                    // seconds after the simulation start
+
+        private Arrivals(PassengerStore passengers, int passengerAmount) {
+            this.passengers = passengers;
+            this.offsets = new int[passengerAmount];
         }
 
-        return this.passengers.remove(passenger);
+        /**
+         * Get the number of arriving passengers.
+         * @return The number of passengers.
+         */
+        public int size() {
+            return offsets.length;
+        }
     }
 }
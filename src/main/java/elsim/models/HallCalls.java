@@ -0,0 +1,249 @@
+package main.java.elsim.models;
+
+import main.java.elsim.simulation.CheckpointReader;
+import main.java.elsim.simulation.CheckpointWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * The pressed hall buttons of all floors of a building, kept as one bit per floor and direction.
+ *
+ * Each {@code Floor} mirrors its up and down buttons into the registry of its group, indexed by {@code Floor.getIndex()}.
+ * When a button is pressed, the group assigns the call to one of its cars, and each car has its own bits of the calls assigned to it.
+ * Finding the nearest call above or below a floor then scans 64 floors per word instead of asking every floor.
+ * @see ElevatorGroup
+ * @see Floor#getButtonPressedUp()
+ * @see Floor#getButtonPressedDown()
+ * @author jbook
+ */
+public class HallCalls {
+    private final int floorCount;
+    private final ElevatorGroup group;
+    private final BitSet up;
+    private final BitSet down;
+    private final int[] assignedUp;                 // index of the car per floor, -1 if not assigned
+    private final int[] assignedDown;
+    private final ArrayList<BitSet> carCallsUp;     // calls assigned to each car
+    private final ArrayList<BitSet> carCallsDown;
+
+    /**
+     * Creates a registry without any pressed buttons.
+     * @param floorCount The number of floors of the building.
+     * @param group The group that assigns pressed calls to its cars, or {@code null} to leave them unassigned.
+     */
+    public HallCalls(int floorCount, ElevatorGroup group) {
+        if (floorCount < 0) {
+            throw new IllegalArgumentException("floorCount must not be negative.");
+        }
+
+        this.floorCount = floorCount;
+        this.group = group;
+        this.up = new BitSet(floorCount);
+        this.down = new BitSet(floorCount);
+        this.assignedUp = new int[floorCount];
+        this.assignedDown = new int[floorCount];
+        Arrays.fill(this.assignedUp, -1);
+        Arrays.fill(this.assignedDown, -1);
+        this.carCallsUp = new ArrayList<>();
+        this.carCallsDown = new ArrayList<>();
+    }
+
+    /**
+     * Sets the state of a hall button. A newly pressed button is assigned to a car of the group,
+     * a released button is taken from its car.
+     * @param floorIndex The index of the floor.
+     * @param direction The direction of the button, {@code Up} or {@code Down}.
+     * @param pressed Whether the button is pressed.
+     */
+    public void set(int floorIndex, MoveDirection direction, boolean pressed) {
+        if (floorIndex < 0 || floorIndex >= floorCount) {
+            throw new IllegalArgumentException("floorIndex");
+        }
+
+        var calls = callsOf(direction);
+        if (calls.get(floorIndex) == pressed) {
+            return;
+        }
+
+        calls.set(floorIndex, pressed);
+        if (!pressed) {
+            unassign(floorIndex, direction);
+        } else if (group != null) {
+            var car = group.selectCar(floorIndex, direction);
+            if (car >= 0) {
+                assign(floorIndex, direction, car);
+            }
+        }
+    }
+
+    /**
+     * Gets the state of a hall button.
+     * @param floorIndex The index of the floor.
+     * @param direction The direction of the button, {@code Up} or {@code Down}.
+     * @return true if the button is pressed and false if not
+     */
+    public boolean isPressed(int floorIndex, MoveDirection direction) {
+        return callsOf(direction).get(floorIndex);
+    }
+
+    /**
+     * Assigns a pressed hall call to a car, taking it from the car it has been assigned to before.
+     * @param floorIndex The index of the floor.
+     * @param direction The direction of the button, {@code Up} or {@code Down}.
+     * @param car The index of the car in its group.
+     */
+    public void assign(int floorIndex, MoveDirection direction, int car) {
+        if (!isPressed(floorIndex, direction)) {
+            throw new IllegalArgumentException("floorIndex");
+        }
+
+        if (car < 0) {
+            throw new IllegalArgumentException("car");
+        }
+
+        unassign(floorIndex, direction);
+        assignmentsOf(direction)[floorIndex] = car;
+        carCallsOf(car, direction).set(floorIndex);
+    }
+
+    /**
+     * Gets the car a hall call is assigned to.
+     * @param floorIndex The index of the floor.
+     * @param direction The direction of the button, {@code Up} or {@code Down}.
+     * @return The index of the car in its group, or -1 if the button is not pressed or the call is not assigned.
+     */
+    public int getAssignedCar(int floorIndex, MoveDirection direction) {
+        return assignmentsOf(direction)[floorIndex];
+    }
+
+    /**
+     * Finds the nearest floor above a floor whose button of the given direction is pressed.
+     * @param floorIndex The index of the floor to search from, which itself is not included.
+     * @param direction The direction of the button, {@code Up} or {@code Down}.
+     * @return The index of the nearest floor above, or -1 if there is none.
+     */
+    public int nextAbove(int floorIndex, MoveDirection direction) {
+        return callsOf(direction).nextSetBit(floorIndex + 1);
+    }
+
+    /**
+     * Finds the nearest floor below a floor whose button of the given direction is pressed.
+     * @param floorIndex The index of the floor to search from, which itself is not included.
+     * @param direction The direction of the button, {@code Up} or {@code Down}.
+     * @return The index of the nearest floor below, or -1 if there is none.
+     */
+    public int nextBelow(int floorIndex, MoveDirection direction) {
+        return callsOf(direction).previousSetBit(floorIndex - 1);
+    }
+
+    /**
+     * Finds the nearest floor above a floor with a call of the given direction assigned to a car.
+     * @param car The index of the car in its group.
+     * @param floorIndex The index of the floor to search from, which itself is not included.
+     * @param direction The direction of the button, {@code Up} or {@code Down}.
+     * @return The index of the nearest floor above, or -1 if there is none.
+     */
+    public int nextAbove(int car, int floorIndex, MoveDirection direction) {
+        return carCallsOf(car, direction).nextSetBit(floorIndex + 1);
+    }
+
+    /**
+     * Finds the nearest floor below a floor with a call of the given direction assigned to a car.
+     * @param car The index of the car in its group.
+     * @param floorIndex The index of the floor to search from, which itself is not included.
+     * @param direction The direction of the button, {@code Up} or {@code Down}.
+     * @return The index of the nearest floor below, or -1 if there is none.
+     */
+    public int nextBelow(int car, int floorIndex, MoveDirection direction) {
+        return carCallsOf(car, direction).previousSetBit(floorIndex - 1);
+    }
+
+    /**
+     * Gets whether any hall button of the building is pressed.
+     * @return true if nobody is waiting for a car.
+     */
+    public boolean isEmpty() {
+        return up.isEmpty() && down.isEmpty();
+    }
+
+    /**
+     * Writes the pressed buttons and the cars they are assigned to to a checkpoint.
+     * @param out The checkpoint to write to.
+     * @throws IOException When the checkpoint cannot be written.
+     */
+    void writeState(CheckpointWriter out) throws IOException {
+        for (int i = 0; i < floorCount; i++) {
+            out.writeBoolean(up.get(i));
+            out.writeInt(assignedUp[i]);
+            out.writeBoolean(down.get(i));
+            out.writeInt(assignedDown[i]);
+        }
+    }
+
+    /**
+     * Restores the state written by {@code writeState}, without asking the group to assign any calls.
+     * @param in The checkpoint to read from.
+     * @param carCount The number of cars the calls can be assigned to.
+     * @throws IOException When the checkpoint cannot be read.
+     */
+    void readState(CheckpointReader in, int carCount) throws IOException {
+        for (int i = 0; i < floorCount; i++) {
+            readCall(in, i, MoveDirection.Up, carCount);
+            readCall(in, i, MoveDirection.Down, carCount);
+        }
+    }
+
+    private void readCall(CheckpointReader in, int floorIndex, MoveDirection direction, int carCount) throws IOException {
+        var pressed = in.readBoolean();
+        var car = in.readInt();
+        if (car < -1 || car >= carCount || (car >= 0 && !pressed)) {
+            throw new IOException("Invalid car " + car + " assigned in checkpoint.");
+        }
+
+        unassign(floorIndex, direction);
+        callsOf(direction).set(floorIndex, pressed);
+        if (car >= 0) {
+            assign(floorIndex, direction, car);
+        }
+    }
+
+    private void unassign(int floorIndex, MoveDirection direction) {
+        var assignments = assignmentsOf(direction);
+        var car = assignments[floorIndex];
+        if (car >= 0) {
+            carCallsOf(car, direction).clear(floorIndex);
+            assignments[floorIndex] = -1;
+        }
+    }
+
+    private BitSet callsOf(MoveDirection direction) {
+        if (direction == MoveDirection.Up) {
+            return up;
+        } else if (direction == MoveDirection.Down) {
+            return down;
+        }
+
+        throw new IllegalArgumentException("direction");
+    }
+
+    private int[] assignmentsOf(MoveDirection direction) {
+        if (direction == MoveDirection.Up) {
+            return assignedUp;
+        } else if (direction == MoveDirection.Down) {
+            return assignedDown;
+        }
+
+        throw new IllegalArgumentException("direction");
+    }
+
+    private BitSet carCallsOf(int car, MoveDirection direction) {
+        var carCalls = direction == MoveDirection.Up ? carCallsUp : carCallsDown;
+        while (carCalls.size() <= car) {
+            carCalls.add(new BitSet(floorCount));
+        }
+        return carCalls.get(car);
+    }
+}
@@ -1,6 +1,6 @@
 package main.java.elsim.models;
 
-import main.java.elsim.config.ConfigManager;
+import main.java.elsim.simulation.SimulationContext;
 
 /**
  * An Item is a object that can be transported by a Passenger of an elevator.
@@ -10,14 +10,8 @@ import main.java.elsim.config.ConfigManager;
  * @author ptomalak
  */
 public class Item extends Load {
-    // minimal and maximal Mass of Items
-    static int MIN_MASS     = ConfigManager.getInstance().getPropAsInt("Item.minMass");
-    static int MAX_MASS     = ConfigManager.getInstance().getPropAsInt("Item.maxMass");
     // Always round to 2 decimal places
     static int DECIMALS     = 2;
-    // minimal and maximal required Area for Items
-    static double MIN_AREA  = ConfigManager.getInstance().getPropAsDouble("Item.minArea");
-    static double MAX_AREA  = ConfigManager.getInstance().getPropAsDouble("Item.maxArea");
 
     /**
      * Manual constructor for Item Objects
@@ -29,11 +23,21 @@ public class Item extends Load {
         this.spaceRequired = spaceRequired;
     }
     /**
-     * Constructor for Item Objects with randomized mass and required space.
+     * Constructor for Item Objects with randomized mass and required space, using the global config.
      */
     public Item (){
-        this.mass = RNG.getInstance().getRandomInteger(MIN_MASS,MAX_MASS);
-        this.spaceRequired = RNG.getInstance().getRandomDouble(MIN_AREA,MAX_AREA,DECIMALS);
+        this(SimulationContext.getDefault());
+    }
+    /**
+     * Constructor for Item Objects with randomized mass and required space.
+     * The ranges are those of the config of the given simulation context (Item.minMass, Item.maxMass, Item.minArea, Item.maxArea).
+     * @param context Context of the simulation whose config and random number generator are used
+     */
+    public Item (SimulationContext context){
+        var archetypes = context.getConfig().getPassengerArchetypes();
+        var rng = context.getRng();
+        this.mass = archetypes.sampleItemMass(rng);
+        this.spaceRequired = archetypes.sampleItemSpaceRequired(rng);
     }
 
 
@@ -12,6 +12,25 @@ public abstract class Load {
     int mass;
     double spaceRequired;
 
+    /**
+     * Convert a mass to the fixed-point unit that capacities are accounted in
+     * @param mass mass in kg
+     * @return mass in g
+     */
+    static int toGrams(int mass) {
+        return Math.multiplyExact(mass, 1000);
+    }
+
+    /**
+     * Convert an area to the fixed-point unit that capacities are accounted in.
+     * Areas are drawn with 2 decimals, so this is exact for them
+     * @param area area in m²
+     * @return area in cm², rounded to the nearest
+     */
+    static int toSquareCentimeters(double area) {
+        return Math.toIntExact(Math.round(area * 10000));
+    }
+
     /**
      * Get the mass of the object
      * @return mass in kg
@@ -0,0 +1,99 @@
+package main.java.elsim.models;
+
+/**
+ * Shortest-travel-first dispatching: a car always moves to the nearest floor with a hall call assigned to it
+ * or a destination of its passengers, no matter in which direction it has been travelling.
+ * It travels less than collective control, but calls at the ends of a busy building may have to wait long.
+ * A hall call is assigned to the car that is nearest to it right now.
+ * @see CollectiveDispatchStrategy
+ * @author jbook
+ */
+public class NearestStopDispatchStrategy implements DispatchStrategy {
+
+    /**
+     * {@inheritDoc}
+     * Ties go to the car created first.
+     */
+    @Override
+    public int assignCall(ElevatorGroup group, int floorIndex, MoveDirection direction) {
+        var shafts = group.getShafts();
+        long call = group.getFloorPosition(floorIndex);
+        int best = -1;
+        long bestDistance = Long.MAX_VALUE;
+        for (int i = 0; i < shafts.size(); i++) {
+            var distance = Math.abs(group.getFloorPosition(shafts.get(i).getCurrentCarFloor().getIndex()) - call);
+            if (distance < bestDistance) {
+                best = i;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * {@inheritDoc}
+     * When the next floor is a hall call, the shaft takes the direction of the call, so that its passengers board.
+     * When it is a destination, the shaft takes the direction towards it.
+     * Between two floors at the same distance, the one in the shaft's direction is taken.
+     */
+    @Override
+    public int nextFloor(ElevatorShaft shaft) {
+        var group = shaft.getGroup();
+        var hallCalls = shaft.getHallCalls();
+        var elevatorCar = shaft.getElevatorCar();
+        int car = shaft.getIndex();
+        int current = shaft.getCurrentCarFloor().getIndex();
+
+        int callUpAbove = hallCalls.nextAbove(car, current, MoveDirection.Up);
+        int callDownAbove = hallCalls.nextAbove(car, current, MoveDirection.Down);
+        int above = nearestAbove(nearestAbove(callUpAbove, callDownAbove), elevatorCar.nextDestinationAbove(current));
+
+        int callUpBelow = hallCalls.nextBelow(car, current, MoveDirection.Up);
+        int callDownBelow = hallCalls.nextBelow(car, current, MoveDirection.Down);
+        int below = Math.max(Math.max(callUpBelow, callDownBelow), elevatorCar.nextDestinationBelow(current));
+
+        if (above < 0 && below < 0) {
+            return -1;
+        }
+
+        boolean goUp;
+        if (above < 0 || below < 0) {
+            goUp = above >= 0;
+        } else {
+            long position = group.getFloorPosition(current);
+            long distanceAbove = group.getFloorPosition(above) - position;
+            long distanceBelow = position - group.getFloorPosition(below);
+            goUp = distanceAbove < distanceBelow || (distanceAbove == distanceBelow && shaft.getDir() != MoveDirection.Down);
+        }
+
+        if (goUp) {
+            shaft.setDir(directionAt(above, callUpAbove, callDownAbove, MoveDirection.Up));
+            return above;
+        }
+        shaft.setDir(directionAt(below, callDownBelow, callUpBelow, MoveDirection.Down));
+        return below;
+    }
+
+    /**
+     * The lower of two floor indices above the car, ignoring -1.
+     */
+    private static int nearestAbove(int a, int b) {
+        if (a < 0) {
+            return b;
+        } else if (b < 0) {
+            return a;
+        }
+        return Math.min(a, b);
+    }
+
+    /**
+     * The direction to take to a floor: the travel direction if passengers wait there to go that way or nobody waits there,
+     * otherwise the opposite direction.
+     */
+    private static MoveDirection directionAt(int floor, int callWithTravel, int callAgainstTravel, MoveDirection travel) {
+        if (floor == callWithTravel || floor != callAgainstTravel) {
+            return travel;
+        }
+        return travel == MoveDirection.Up ? MoveDirection.Down : MoveDirection.Up;
+    }
+}
@@ -1,71 +1,124 @@
 package main.java.elsim.models;
-import main.java.elsim.config.ConfigManager;
+import main.java.elsim.simulation.SimEventHandle;
+import main.java.elsim.simulation.SimulationContext;
 
-import java.time.Duration;
 import java.util.ArrayList;
-import java.util.logging.Logger;
 
 /**
  * Class for passengers that use elevators.
  * The ranges of these properties can be configured for each individual passenger type.
+ * The properties themselves are kept in the {@code PassengerStore} of the simulation, a passenger object is only a view of its id there.
+ * Two views of the same passenger are equal.
+ * @see PassengerArchetypes
+ * @see PassengerStore
  * @see Load
- * @see Duration
  * @author jdunker
  */
 public class Passenger extends Load {
-    private static final Logger LOGGER = Logger.getLogger(Passenger.class.getName());
-    private Duration timeChange;
-    private Duration timePatience;
-    private ArrayList<Item> items;
-    private Floor floorStartingPoint;
-    private Floor floorDestination;
+    private final PassengerStore store;
+    private final int id;
 
     /**
-     * Constructor for Passenger objects
+     * Constructor for Passenger objects using the global config and random number generator
      * @param floorStartingPoint Starting floor of passenger
      * @param floorDestination Destination floor of passenger
      */
     public Passenger(Floor floorStartingPoint, Floor floorDestination) {
-        this.floorStartingPoint = floorStartingPoint;
-        this.floorDestination = floorDestination;
-        this.items = new ArrayList<>();
-
-        String conf = "Passenger.people." + String.valueOf(RNG.getInstance().getRandomInteger(0, ConfigManager.getInstance().getPropAsInt("Passenger.people.length") - 1));
-        String[] vars = ConfigManager.getInstance().getProp(conf).split(";");
-        if (vars.length < 4) {
-            LOGGER.severe("[Passenger] Passenger config contains to few fields to generate a Passenger. Please review your config file. To generate a default config, run this executable with the argument default.config");
-        }
-        String[] varsMin = new String[vars.length];
-        String[] varsMax = new String[vars.length];
-        for (int i = 0; i < vars.length; i++) {
-            if (vars[i].contains("..")) {
-                varsMin[i] = vars[i].split("\\.\\.")[0];
-                varsMax[i] = vars[i].split("\\.\\.")[1];
-            } else {
-                varsMin[i] = vars[i];
-                varsMax[i] = vars[i];
-            }
-        }
-        this.mass = RNG.getInstance().getRandomInteger(Integer.parseInt(varsMin[0]), Integer.parseInt(varsMax[0]));
-        this.spaceRequired = RNG.getInstance().getRandomDouble(Double.parseDouble(varsMin[1]), Double.parseDouble(varsMax[1]),2);
-        this.timeChange = Duration.ofMillis((long) RNG.getInstance().getRandomInteger(Integer.parseInt(varsMin[2]), Integer.parseInt(varsMax[2])));
-        this.timePatience = Duration.ofMillis((long) RNG.getInstance().getRandomInteger(Integer.parseInt(varsMin[3]), Integer.parseInt(varsMax[3])));
-        // this.items
-        if (vars.length < 5) {
-            LOGGER.warning("[Passenger] Passenger config contains to few fields. Not generating any items. Please review your config file. To generate a default config, run this executable with the argument default.config");
-            return;
-        }
-        for (int i = 0; i < RNG.getInstance().getRandomInteger(Integer.parseInt(varsMin[4]), Integer.parseInt(varsMax[4])); i++){
-            this.items.add(new Item());
-        }
+        this(SimulationContext.getDefault(), floorStartingPoint, floorDestination);
+    }
+
+    /**
+     * Constructor for Passenger objects. The passenger's type is picked at random from the passenger types of the context,
+     * using the random stream of the passengers of the starting floor
+     * @param context Context of the simulation whose config is used
+     * @param floorStartingPoint Starting floor of passenger
+     * @param floorDestination Destination floor of passenger
+     */
+    public Passenger(SimulationContext context, Floor floorStartingPoint, Floor floorDestination) {
+        this(context, floorStartingPoint.getPassengerRng(), floorStartingPoint, floorDestination);
     }
 
     /**
-     * Get a passenger's list of items
+     * Constructor for Passenger objects. The passenger's type is picked at random from the passenger types of the context
+     * and the passenger is added to the passenger store of the context
+     * @param context Context of the simulation whose config is used
+     * @param rng Random number generator to draw the passenger's properties from
+     * @param floorStartingPoint Starting floor of passenger
+     * @param floorDestination Destination floor of passenger
+     */
+    public Passenger(SimulationContext context, RNG rng, Floor floorStartingPoint, Floor floorDestination) {
+        this(context.getPassengers(),
+                context.getPassengers().add(context.getConfig().getPassengerArchetypes(), rng, floorStartingPoint, floorDestination));
+    }
+
+    /**
+     * Creates a view of a passenger of a store
+     * @param store The store of the passenger
+     * @param id The id of the passenger in the store
+     */
+    Passenger(PassengerStore store, int id) {
+        this.store = store;
+        this.id = id;
+    }
+
+    /**
+     * Get the store that holds the properties of the passenger
+     * @return PassengerStore object
+     */
+    public PassengerStore getStore() {
+        return store;
+    }
+
+    /**
+     * Get the id of the passenger in their store
+     * @return id
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Get the mass of the passenger without their items
+     * @return mass in kg
+     */
+    @Override
+    public int getMass() {
+        return store.getMass(id);
+    }
+
+    /**
+     * Get the area required by the passenger without their items
+     * @return required space in m²
+     */
+    @Override
+    public double getSpaceRequired() {
+        return store.getSpaceRequired(id);
+    }
+
+    /**
+     * Get the mass of the passenger together with their items, summed up once when the passenger is created
+     * @see PassengerStore#getFootprintMass(int)
+     * @return mass in kg
+     */
+    public int getTotalMass() {
+        return store.getTotalMass(id);
+    }
+
+    /**
+     * Get the area required by the passenger together with their items, summed up once when the passenger is created
+     * @see PassengerStore#getFootprintArea(int)
+     * @return required space in m²
+     */
+    public double getTotalSpaceRequired() {
+        return store.getTotalSpaceRequired(id);
+    }
+
+    /**
+     * Get a passenger's list of items. Creates new items on every call, changing them does not change the passenger
      * @return ArrayList of items
      */
     public ArrayList<Item> getItems(){
-        return this.items;
+        return store.getItems(id);
     }
 
     /**
@@ -73,7 +126,7 @@ public class Passenger extends Load {
      * @return Floor object
      */
     public Floor getFloorStartingPoint() {
-        return floorStartingPoint;
+        return store.getFloorStartingPoint(id);
     }
 
     /**
@@ -81,38 +134,99 @@ public class Passenger extends Load {
      * @return Floor object
      */
     public Floor getFloorDestination() {
-        return floorDestination;
+        return store.getFloorDestination(id);
     }
 
     /**
      * Get time required to get in or out of the elevator
-     * @return Duration object
+     * @return Milliseconds
      */
-    public Duration getTimeChange() {
-        return timeChange;
+    public int getTimeChange() {
+        return store.getTimeChange(id);
     }
 
     /**
      * Set time required to get in or out of the elevator
-     * @param timeChange Duration object
+     * @param timeChange Milliseconds
      */
-    public void setTimeChange(Duration timeChange) {
-        this.timeChange = timeChange;
+    public void setTimeChange(int timeChange) {
+        store.setTimeChange(id, timeChange);
     }
 
     /**
      * Get patience of passenger
-     * @return time
+     * @return Milliseconds
      */
-    public Duration getTimePatience() {
-        return timePatience;
+    public int getTimePatience() {
+        return store.getTimePatience(id);
     }
 
     /**
      * Set patience of passenger
-     * @param timePatience time
+     * @param timePatience Milliseconds
+     */
+    public void setTimePatience(int timePatience) {
+        store.setTimePatience(id, timePatience);
+    }
+
+    /**
+     * Set the event that makes this passenger leave their floor once their patience runs out
+     * @param patienceTimeout Handle of the scheduled event
+     */
+    public void setPatienceTimeout(SimEventHandle patienceTimeout) {
+        store.setPatienceTimeout(id, patienceTimeout);
+    }
+
+    /**
+     * Cancel the event that makes this passenger leave their floor, e.g. because they have entered the elevator car
+     */
+    public void cancelPatienceTimeout() {
+        store.cancelPatienceTimeout(id);
+    }
+
+    /**
+     * Get the simulation time at which the passenger has arrived at their starting floor
+     * @return Milliseconds since the simulation start
+     */
+    public long getArrivalTime() {
+        return store.getArrivalTime(id);
+    }
+
+    /**
+     * Set the simulation time at which the passenger has arrived at their starting floor
+     * @param arrivalTime Milliseconds since the simulation start
+     */
+    public void setArrivalTime(long arrivalTime) {
+        store.setArrivalTime(id, arrivalTime);
+    }
+
+    /**
+     * Get the simulation time at which the passenger has entered the elevator car
+     * @return Milliseconds since the simulation start
      */
-    public void setTimePatience(Duration timePatience) {
-        this.timePatience = timePatience;
+    public long getBoardingTime() {
+        return store.getBoardingTime(id);
+    }
+
+    /**
+     * Set the simulation time at which the passenger has entered the elevator car
+     * @param boardingTime Milliseconds since the simulation start
+     */
+    public void setBoardingTime(long boardingTime) {
+        store.setBoardingTime(id, boardingTime);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Passenger)) {
+            return false;
+        }
+        var other = (Passenger) o;
+        return store == other.store && id == other.id;
+    }
+
+    @Override
+    public int hashCode() {
+        return id;
     }
 }
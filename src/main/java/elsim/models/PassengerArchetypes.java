@@ -0,0 +1,296 @@
+package main.java.elsim.models;
+
+import main.java.elsim.config.ConfigManager;
+
+import java.util.logging.Logger;
+
+/**
+ * The passenger types of a config, compiled once from the {@code Passenger.people.*} and {@code Item.*} entries.
+ *
+ * Every field of a passenger type is a range written as {@code min..max}, or a single value for a fixed number.
+ * Passengers sample directly from the parsed ranges instead of reading the config again for each passenger.
+ * A malformed entry is reported with its key and field as soon as the config is compiled.
+ * @see Passenger
+ * @see Item
+ * @author jdunker
+ */
+public final class PassengerArchetypes {
+    private static final Logger LOGGER = Logger.getLogger(PassengerArchetypes.class.getName());
+    private static final String[] FIELD_NAMES = {"mass", "spaceRequired", "timeChange", "timePatience", "number of items"};
+    private final Archetype[] archetypes;
+    private final int itemMinMass;
+    private final int itemMaxMass;
+    private final double itemMinArea;
+    private final double itemMaxArea;
+
+    private PassengerArchetypes(Archetype[] archetypes, int itemMinMass, int itemMaxMass, double itemMinArea, double itemMaxArea) {
+        this.archetypes = archetypes;
+        this.itemMinMass = itemMinMass;
+        this.itemMaxMass = itemMaxMass;
+        this.itemMinArea = itemMinArea;
+        this.itemMaxArea = itemMaxArea;
+    }
+
+    /**
+     * Compiles the passenger types and item ranges of a config.
+     * @param config Config with the entries {@code Passenger.people.length}, {@code Passenger.people.0...}
+     *               and {@code Item.minMass}, {@code Item.maxMass}, {@code Item.minArea}, {@code Item.maxArea}
+     * @return The compiled passenger types
+     * @throws IllegalArgumentException if an entry is missing or malformed, naming the entry and the field
+     */
+    public static PassengerArchetypes fromConfig(ConfigManager config) {
+        var length = parseInt("Passenger.people.length", config.getProp("Passenger.people.length"));
+        if (length < 1) {
+            throw new IllegalArgumentException("Passenger.people.length has to be at least 1, but is " + length + ".");
+        }
+
+        var archetypes = new Archetype[length];
+        for (int i = 0; i < length; i++) {
+            var key = "Passenger.people." + i;
+            archetypes[i] = Archetype.parse(key, config.getProp(key));
+        }
+
+        int itemMinMass = parseInt("Item.minMass", config.getProp("Item.minMass"));
+        int itemMaxMass = parseInt("Item.maxMass", config.getProp("Item.maxMass"));
+        double itemMinArea = parseDouble("Item.minArea", config.getProp("Item.minArea"));
+        double itemMaxArea = parseDouble("Item.maxArea", config.getProp("Item.maxArea"));
+        checkRange("Item.minMass..Item.maxMass", itemMinMass, itemMaxMass);
+        checkRange("Item.minArea..Item.maxArea", itemMinArea, itemMaxArea);
+        return new PassengerArchetypes(archetypes, itemMinMass, itemMaxMass, itemMinArea, itemMaxArea);
+    }
+
+    /**
+     * Gets the number of passenger types.
+     * @return Value of {@code Passenger.people.length}
+     */
+    public int size() {
+        return archetypes.length;
+    }
+
+    /**
+     * Gets a passenger type.
+     * @param index Index of the type, as in {@code Passenger.people.<index>}
+     * @return The passenger type
+     */
+    public Archetype get(int index) {
+        return archetypes[index];
+    }
+
+    /**
+     * Picks a passenger type uniformly at random.
+     * @param rng Random number generator of the simulation
+     * @return The passenger type
+     */
+    public Archetype pick(RNG rng) {
+        return archetypes[rng.getRandomInteger(0, archetypes.length - 1)];
+    }
+
+    /**
+     * Creates an item with random mass and required space within the ranges of {@code Item.*}.
+     * @param rng Random number generator of the simulation
+     * @return The new item
+     */
+    public Item createItem(RNG rng) {
+        var mass = sampleItemMass(rng);
+        return new Item(mass, sampleItemSpaceRequired(rng));
+    }
+
+    /**
+     * Draws the mass of an item within {@code Item.minMass..Item.maxMass}.
+     * @param rng Random number generator of the simulation
+     * @return mass in kg
+     */
+    public int sampleItemMass(RNG rng) {
+        return rng.getRandomInteger(itemMinMass, itemMaxMass);
+    }
+
+    /**
+     * Draws the area required by an item within {@code Item.minArea..Item.maxArea}.
+     * @param rng Random number generator of the simulation
+     * @return required space in m², rounded to 2 decimals
+     */
+    public double sampleItemSpaceRequired(RNG rng) {
+        return rng.getRandomDouble(itemMinArea, itemMaxArea, Item.DECIMALS);
+    }
+
+    private static int parseInt(String what, String value) {
+        if (value == null) {
+            throw new IllegalArgumentException(what + " is missing in the config.");
+        }
+
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(what + " has to be an integer, but is '" + value + "'.", e);
+        }
+    }
+
+    private static double parseDouble(String what, String value) {
+        if (value == null) {
+            throw new IllegalArgumentException(what + " is missing in the config.");
+        }
+
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(what + " has to be a number, but is '" + value + "'.", e);
+        }
+    }
+
+    private static void checkRange(String what, int min, int max) {
+        if (min > max) {
+            throw new IllegalArgumentException(what + " is an empty range: " + min + " is greater than " + max + ".");
+        }
+    }
+
+    private static void checkRange(String what, double min, double max) {
+        if (min > max) {
+            throw new IllegalArgumentException(what + " is an empty range: " + min + " is greater than " + max + ".");
+        }
+    }
+
+    /**
+     * One passenger type: the ranges of mass, required space, time to change and patience, and the number of items.
+     * The bounds of every range are inclusive.
+     */
+    public static final class Archetype {
+        private final int minMass;
+        private final int maxMass;
+        private final double minSpaceRequired;
+        private final double maxSpaceRequired;
+        private final int minTimeChange;
+        private final int maxTimeChange;
+        private final int minTimePatience;
+        private final int maxTimePatience;
+        private final boolean hasItems;
+        private final int minItems;
+        private final int maxItems;
+
+        private Archetype(int[] mass, double[] spaceRequired, int[] timeChange, int[] timePatience, int[] items) {
+            this.minMass = mass[0];
+            this.maxMass = mass[1];
+            this.minSpaceRequired = spaceRequired[0];
+            this.maxSpaceRequired = spaceRequired[1];
+            this.minTimeChange = timeChange[0];
+            this.maxTimeChange = timeChange[1];
+            this.minTimePatience = timePatience[0];
+            this.maxTimePatience = timePatience[1];
+            this.hasItems = items != null;
+            this.minItems = hasItems ? items[0] : 0;
+            this.maxItems = hasItems ? items[1] : 0;
+        }
+
+        /**
+         * Parses one {@code Passenger.people.<index>} entry.
+         * @param key Key of the entry, used in error messages
+         * @param value Value of the entry, e.g. {@code 50..70;0.20..0.25;500..1500;40000..80000;1..3}
+         * @return The passenger type
+         * @throws IllegalArgumentException if the entry is missing, has fewer than four fields, or a field is no valid range
+         */
+        static Archetype parse(String key, String value) {
+            if (value == null) {
+                throw new IllegalArgumentException(key + " is missing in the config.");
+            }
+
+            var fields = value.split(";");
+            if (fields.length < 4) {
+                throw new IllegalArgumentException(key + " has " + fields.length + " fields, but needs at least 4: "
+                        + "mass;spaceRequired;timeChange;timePatience[;number of items]. "
+                        + "To generate a default config, run this executable with the argument default.config");
+            }
+
+            if (fields.length < 5) {
+                LOGGER.warning(key + " contains no number of items. Passengers of this type carry no items.");
+            }
+
+            return new Archetype(
+                    intRange(key, fields, 0),
+                    doubleRange(key, fields, 1),
+                    intRange(key, fields, 2),
+                    intRange(key, fields, 3),
+                    fields.length < 5 ? null : intRange(key, fields, 4));
+        }
+
+        private static String[] bounds(String key, String[] fields, int field) {
+            var bounds = fields[field].split("\\.\\.", -1);
+            if (bounds.length > 2) {
+                throw new IllegalArgumentException(fieldName(key, field) + " has to be a value or a range min..max, but is '" + fields[field] + "'.");
+            }
+            return new String[] {bounds[0], bounds[bounds.length - 1]};
+        }
+
+        private static int[] intRange(String key, String[] fields, int field) {
+            var bounds = bounds(key, fields, field);
+            var what = fieldName(key, field);
+            var range = new int[] {parseInt(what, bounds[0]), parseInt(what, bounds[1])};
+            checkRange(what, range[0], range[1]);
+            return range;
+        }
+
+        private static double[] doubleRange(String key, String[] fields, int field) {
+            var bounds = bounds(key, fields, field);
+            var what = fieldName(key, field);
+            var range = new double[] {parseDouble(what, bounds[0]), parseDouble(what, bounds[1])};
+            checkRange(what, range[0], range[1]);
+            return range;
+        }
+
+        private static String fieldName(String key, int field) {
+            return key + " field '" + FIELD_NAMES[field] + "'";
+        }
+
+        /**
+         * Draws the mass of a passenger.
+         * @param rng Random number generator of the simulation
+         * @return mass in kg
+         */
+        public int sampleMass(RNG rng) {
+            return rng.getRandomInteger(minMass, maxMass);
+        }
+
+        /**
+         * Draws the area required by a passenger.
+         * @param rng Random number generator of the simulation
+         * @return required space in m², rounded to 2 decimals
+         */
+        public double sampleSpaceRequired(RNG rng) {
+            return rng.getRandomDouble(minSpaceRequired, maxSpaceRequired, 2);
+        }
+
+        /**
+         * Draws the time a passenger needs to get in or out of the elevator.
+         * @param rng Random number generator of the simulation
+         * @return time in ms
+         */
+        public int sampleTimeChange(RNG rng) {
+            return rng.getRandomInteger(minTimeChange, maxTimeChange);
+        }
+
+        /**
+         * Draws the patience of a passenger.
+         * @param rng Random number generator of the simulation
+         * @return time in ms
+         */
+        public int sampleTimePatience(RNG rng) {
+            return rng.getRandomInteger(minTimePatience, maxTimePatience);
+        }
+
+        /**
+         * Draws a bound of the number of items of a passenger.
+         * Passengers draw it anew before each further item, as they have always done.
+         * @param rng Random number generator of the simulation
+         * @return number of items
+         */
+        public int sampleItemCount(RNG rng) {
+            return rng.getRandomInteger(minItems, maxItems);
+        }
+
+        /**
+         * Whether passengers of this type carry items, i.e. whether the entry has a fifth field.
+         * @return false if passengers of this type never carry items
+         */
+        public boolean hasItems() {
+            return hasItems;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package main.java.elsim.models;
+
+import main.java.elsim.simulation.CheckpointReader;
+import main.java.elsim.simulation.CheckpointWriter;
+import main.java.elsim.simulation.Simulation;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Generates the arrivals of passengers at one floor one at a time, so that only the next arrival of each floor is scheduled.
+ *
+ * The arrival times are distributed like the sorted arrival times of {@code Floor.loadPassengers}: each of the floor's passengers
+ * arrives at a uniformly random second of the simulation window. They are drawn in ascending order as order statistics,
+ * where the next of k remaining arrivals after time t is {@code t + (T - t) * (1 - U^(1/k))} for a uniform {@code U}.
+ * Each arrival event schedules the next one when it is processed.
+ * When the simulation replays a trace, the next passenger is taken from the recorded arrivals instead.
+ * @see Floor#startPassengerArrivals(Simulation, ElevatorGroup)
+ * @author jbook
+ */
+public class PassengerArrivalGenerator {
+    private final Floor floor;
+    private final ElevatorGroup group;
+    private final int floorIndex;
+    private long lastSecond;
+    private int remaining;
+    private double lastArrival;
+
+    /**
+     * Creates a generator for the arrivals at one floor.
+     * @param sim The simulation whose window the arrivals are distributed over.
+     * @param floor The floor the passengers arrive at.
+     * @param group The elevator group the passengers want to use.
+     * @param passengerAmount The number of passengers arriving during the simulation.
+     */
+    public PassengerArrivalGenerator(Simulation sim, Floor floor, ElevatorGroup group, int passengerAmount) {
+        if (passengerAmount < 0) {
+            throw new IllegalArgumentException("passengerAmount must not be negative.");
+        }
+
+        this.floor = floor;
+        this.group = group;
+        this.floorIndex = floor.getIndex();
+        this.lastSecond = Duration.between(sim.getStart(), sim.getEnd()).toSeconds();
+        this.remaining = passengerAmount;
+        this.lastArrival = 0;
+    }
+
+    /**
+     * Gets the number of passengers that have not been scheduled yet.
+     * @return The number of remaining arrivals.
+     */
+    public int getRemaining() {
+        return remaining;
+    }
+
+    /**
+     * Writes the position of this generator within the simulation window to a checkpoint.
+     * @param out The checkpoint to write to.
+     * @throws IOException When the checkpoint cannot be written.
+     */
+    public void writeState(CheckpointWriter out) throws IOException {
+        out.writeLong(lastSecond);
+        out.writeInt(remaining);
+        out.writeDouble(lastArrival);
+    }
+
+    /**
+     * Restores the state written by {@code writeState}, including the window of the simulation the checkpoint has been written of.
+     * @param in The checkpoint to read from.
+     * @throws IOException When the checkpoint cannot be read.
+     */
+    public void readState(CheckpointReader in) throws IOException {
+        this.lastSecond = in.readLong();
+        this.remaining = in.readCount(Integer.MAX_VALUE);
+        this.lastArrival = in.readDouble();
+    }
+
+    /**
+     * Creates the next passenger and schedules their arrival. Does nothing when all passengers have been scheduled.
+     * Must be called at a simulation time that is not after the previous arrival.
+     * @param sim The simulation to schedule the arrival in.
+     */
+    public void scheduleNext(Simulation sim) {
+        if (remaining == 0) {
+            return;
+        }
+
+        if (sim.isReplaying()) {
+            remaining--;
+            sim.replayArrival(floor, group, this);
+            return;
+        }
+
+        var context = sim.getContext();
+        var rng = floor.getArrivalRng();
+
+        // seconds are drawn continuously from [0, lastSecond + 1) and truncated, like a uniform integer from 0..lastSecond
+        var horizon = lastSecond + 1.0;
+        var u = rng.getRandomUnitExclusiveZero();
+        lastArrival += (horizon - lastArrival) * (1 - Math.pow(u, 1.0 / remaining));
+        remaining--;
+        var arrivalSecond = Math.min((long) lastArrival, lastSecond);
+
+        var allFloors = group.getFloors();
+        var targetFloorIndex = rng.getRandomIntegerExcept(0, allFloors.size() - 1, floorIndex);
+        var p = context.getPassengers().add(context.getConfig().getPassengerArchetypes(), floor.getPassengerRng(), floor, allFloors.get(targetFloorIndex));
+
+        var offset = arrivalSecond * 1000L - sim.getEventManager().getCurrentTime();
+        sim.scheduleArrival(offset, p, floor, group, this);
+    }
+}
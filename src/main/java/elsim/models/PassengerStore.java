@@ -0,0 +1,862 @@
+package main.java.elsim.models;
+
+import main.java.elsim.simulation.CheckpointReader;
+import main.java.elsim.simulation.CheckpointWriter;
+import main.java.elsim.simulation.SimEventHandle;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * The passengers of one simulation, kept as one primitive column per property and identified by their index in the columns.
+ *
+ * A million passengers are a few dozen arrays instead of millions of objects, so creating them does not keep the garbage collector
+ * busy and going through them does not chase pointers. Floors, cars and events only pass the ids around.
+ * A {@code Passenger} is a view of one id that is created when a passenger is handed out through the public API.
+ * The floors of the passengers are registered once and stored by their index in this store.
+ * The waiting queues of the floors and the destination buckets of the cars are linked through the ids of their passengers,
+ * and since a passenger is in at most one of them at a time, they share the same link columns.
+ *
+ * The store is not thread-safe. A batch from {@code createBatch} may be filled on another thread though,
+ * as long as no floor is registered meanwhile, and is then appended in one piece.
+ *
+ * Passengers who have left the simulation, delivered or out of patience, are given back with {@code release}. Their id and the slots
+ * of their items are reused for the next passengers, so the store grows with the largest number of passengers at a time
+ * and not with the number of passengers ever created. A view of a released passenger must not be used anymore.
+ *
+ * A checkpoint only contains the passengers that are still live, i.e. waiting, riding or referenced by a pending event,
+ * and the released ids in the order they are going to be reused. The others keep their ids when the store is restored,
+ * but lose their properties.
+ * @see Passenger
+ * @author jbook
+ */
+public final class PassengerStore {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int NONE = -1;
+
+    private final ArrayList<Floor> floors;          // registered floors, shared with batches
+    private final ArrayList<Queue> queues;
+    private int size;
+    private int itemCount;                          // item slots in use or free
+    private int[] freeIds;                          // released ids, the last one is reused first
+    private int freeCount;
+    private int[][] freeItemBlocks;                 // released item slots, by the number of items of the passenger
+    private int[] freeItemBlockCounts;
+    private int[] sampledItemMass;                  // items of the passenger being created
+    private double[] sampledItemSpaceRequired;
+
+    private int[] floorStartingPoint;               // index into floors
+    private int[] floorDestination;
+    private int[] mass;                             // kg
+    private double[] spaceRequired;                 // m²
+    private int[] footprintMass;                    // g, with items
+    private int[] footprintArea;                    // cm², with items
+    private int[] timeChange;                       // ms
+    private int[] timePatience;                     // ms
+    private long[] arrivalTime;                     // ms since the simulation start
+    private long[] boardingTime;
+    private SimEventHandle[] patienceTimeout;
+    private int[] firstItem;                        // items of a passenger are stored consecutively
+    private int[] itemCounts;
+    private int[] itemMass;                         // indexed by item
+    private double[] itemSpaceRequired;
+
+    // position in a queue, maintained by the queue
+    private long[] waitingSequence;                 // order of arrival at the starting floor
+    private int[] queue;                            // id of the queue, NONE while in none
+    private int[] previous;
+    private int[] next;
+
+    /**
+     * Creates an empty store.
+     */
+    public PassengerStore() {
+        this(new ArrayList<>());
+    }
+
+    private PassengerStore(ArrayList<Floor> floors) {
+        this.floors = floors;
+        this.queues = new ArrayList<>();
+        this.floorStartingPoint = new int[INITIAL_CAPACITY];
+        this.floorDestination = new int[INITIAL_CAPACITY];
+        this.mass = new int[INITIAL_CAPACITY];
+        this.spaceRequired = new double[INITIAL_CAPACITY];
+        this.footprintMass = new int[INITIAL_CAPACITY];
+        this.footprintArea = new int[INITIAL_CAPACITY];
+        this.timeChange = new int[INITIAL_CAPACITY];
+        this.timePatience = new int[INITIAL_CAPACITY];
+        this.arrivalTime = new long[INITIAL_CAPACITY];
+        this.boardingTime = new long[INITIAL_CAPACITY];
+        this.patienceTimeout = new SimEventHandle[INITIAL_CAPACITY];
+        this.firstItem = new int[INITIAL_CAPACITY];
+        this.itemCounts = new int[INITIAL_CAPACITY];
+        this.itemMass = new int[INITIAL_CAPACITY];
+        this.itemSpaceRequired = new double[INITIAL_CAPACITY];
+        this.waitingSequence = new long[INITIAL_CAPACITY];
+        this.queue = new int[INITIAL_CAPACITY];
+        this.previous = new int[INITIAL_CAPACITY];
+        this.next = new int[INITIAL_CAPACITY];
+        this.freeIds = new int[INITIAL_CAPACITY];
+        this.freeItemBlocks = new int[0][];
+        this.freeItemBlockCounts = new int[0];
+        this.sampledItemMass = new int[INITIAL_CAPACITY];
+        this.sampledItemSpaceRequired = new double[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Creates a passenger of a type picked at random and draws their properties in the same order as always:
+     * type, mass, area, change time, patience and then each item's mass and area.
+     * The footprint of the passenger together with their items is summed up right away in grams and cm².
+     * The id of a released passenger is reused if there is one.
+     * @param archetypes The passenger types of the simulation.
+     * @param rng Random number generator to draw the passenger's properties from
+     * @param floorStartingPoint Starting floor of passenger, registered in this store
+     * @param floorDestination Destination floor of passenger, registered in this store
+     * @return The id of the new passenger.
+     */
+    public int add(PassengerArchetypes archetypes, RNG rng, Floor floorStartingPoint, Floor floorDestination) {
+        var id = newId(floorStartingPoint, floorDestination);
+
+        var archetype = archetypes.pick(rng);
+        var passengerMass = archetype.sampleMass(rng);
+        var passengerSpace = archetype.sampleSpaceRequired(rng);
+        this.mass[id] = passengerMass;
+        this.spaceRequired[id] = passengerSpace;
+        var grams = Load.toGrams(passengerMass);
+        var squareCentimeters = Load.toSquareCentimeters(passengerSpace);
+        this.timeChange[id] = archetype.sampleTimeChange(rng);
+        this.timePatience[id] = archetype.sampleTimePatience(rng);
+        var items = 0;
+        if (archetype.hasItems()) {
+            // the number of items is only known once they have been drawn, so they are drawn before their slots are taken
+            for (int i = 0; i < archetype.sampleItemCount(rng); i++) {
+                if (items == sampledItemMass.length) {
+                    sampledItemMass = Arrays.copyOf(sampledItemMass, 2 * items);
+                    sampledItemSpaceRequired = Arrays.copyOf(sampledItemSpaceRequired, 2 * items);
+                }
+                sampledItemMass[items] = archetypes.sampleItemMass(rng);
+                sampledItemSpaceRequired[items] = archetypes.sampleItemSpaceRequired(rng);
+                grams += Load.toGrams(sampledItemMass[items]);
+                squareCentimeters += Load.toSquareCentimeters(sampledItemSpaceRequired[items]);
+                items++;
+            }
+        }
+
+        var first = takeItemBlock(items);
+        System.arraycopy(sampledItemMass, 0, itemMass, first, items);
+        System.arraycopy(sampledItemSpaceRequired, 0, itemSpaceRequired, first, items);
+        this.firstItem[id] = first;
+        this.itemCounts[id] = items;
+        this.footprintMass[id] = grams;
+        this.footprintArea[id] = squareCentimeters;
+        return id;
+    }
+
+    /**
+     * Creates a passenger with the properties recorded in an event trace, instead of drawing them.
+     * Only the footprint is recorded, so the passenger carries no items and their own mass and area are the footprint.
+     * The id of a released passenger is reused if there is one, like {@code add} does.
+     * @param floorStartingPoint Starting floor of passenger, registered in this store
+     * @param floorDestination Destination floor of passenger, registered in this store
+     * @param footprintMass The mass of the passenger together with their items in g.
+     * @param footprintArea The area required by the passenger together with their items in cm².
+     * @param timeChange The time the passenger needs to enter or leave a car in ms.
+     * @param timePatience The time the passenger waits for a car in ms.
+     * @return The id of the new passenger.
+     */
+    public int add(Floor floorStartingPoint, Floor floorDestination, int footprintMass, int footprintArea, int timeChange, int timePatience) {
+        var id = newId(floorStartingPoint, floorDestination);
+
+        this.mass[id] = footprintMass / 1000;
+        this.spaceRequired[id] = footprintArea / 10000.0;
+        this.timeChange[id] = timeChange;
+        this.timePatience[id] = timePatience;
+        this.firstItem[id] = takeItemBlock(0);
+        this.itemCounts[id] = 0;
+        this.footprintMass[id] = footprintMass;
+        this.footprintArea[id] = footprintArea;
+        return id;
+    }
+
+    /**
+     * Takes the id of a new passenger, reusing a released one if there is one, and resets everything but their properties.
+     */
+    private int newId(Floor floorStartingPoint, Floor floorDestination) {
+        var start = indexOf(floorStartingPoint, "floorStartingPoint");
+        var destination = indexOf(floorDestination, "floorDestination");
+        int id;
+        if (freeCount > 0) {
+            id = freeIds[--freeCount];
+        } else {
+            if (size == mass.length) {
+                growPassengers(2 * size);
+            }
+            id = size++;
+        }
+
+        this.floorStartingPoint[id] = start;
+        this.floorDestination[id] = destination;
+        this.queue[id] = NONE;
+        this.previous[id] = NONE;
+        this.next[id] = NONE;
+        this.arrivalTime[id] = 0;
+        this.boardingTime[id] = 0;
+        this.patienceTimeout[id] = null;
+        this.waitingSequence[id] = 0;
+        return id;
+    }
+
+    /**
+     * Creates an empty batch that shares the registered floors with this store, to be appended with {@code addAll}.
+     * @return The empty batch.
+     */
+    PassengerStore createBatch() {
+        return new PassengerStore(floors);
+    }
+
+    /**
+     * Appends all passengers of a batch, keeping their order. Their ids in this store are consecutive, released ids are not reused.
+     * The passengers must not be waiting or riding yet.
+     * @param batch A batch created by {@code createBatch} of this store.
+     * @return The id of the first passenger of the batch in this store.
+     */
+    int addAll(PassengerStore batch) {
+        if (batch.floors != floors) {
+            throw new IllegalArgumentException("batch");
+        }
+
+        var first = size;
+        var count = batch.size;
+        if (size + count > mass.length) {
+            growPassengers(Math.max(2 * mass.length, size + count));
+        }
+        if (itemCount + batch.itemCount > itemMass.length) {
+            growItems(Math.max(2 * itemMass.length, itemCount + batch.itemCount));
+        }
+
+        System.arraycopy(batch.floorStartingPoint, 0, floorStartingPoint, first, count);
+        System.arraycopy(batch.floorDestination, 0, floorDestination, first, count);
+        System.arraycopy(batch.mass, 0, mass, first, count);
+        System.arraycopy(batch.spaceRequired, 0, spaceRequired, first, count);
+        System.arraycopy(batch.footprintMass, 0, footprintMass, first, count);
+        System.arraycopy(batch.footprintArea, 0, footprintArea, first, count);
+        System.arraycopy(batch.timeChange, 0, timeChange, first, count);
+        System.arraycopy(batch.timePatience, 0, timePatience, first, count);
+        System.arraycopy(batch.arrivalTime, 0, arrivalTime, first, count);
+        System.arraycopy(batch.boardingTime, 0, boardingTime, first, count);
+        System.arraycopy(batch.itemMass, 0, itemMass, itemCount, batch.itemCount);
+        System.arraycopy(batch.itemSpaceRequired, 0, itemSpaceRequired, itemCount, batch.itemCount);
+        for (int i = 0; i < count; i++) {
+            firstItem[first + i] = itemCount + batch.firstItem[i];
+        }
+        System.arraycopy(batch.itemCounts, 0, itemCounts, first, count);
+        Arrays.fill(patienceTimeout, first, first + count, null);
+        Arrays.fill(waitingSequence, first, first + count, 0);
+        Arrays.fill(queue, first, first + count, NONE);
+        Arrays.fill(previous, first, first + count, NONE);
+        Arrays.fill(next, first, first + count, NONE);
+
+        size += count;
+        itemCount += batch.itemCount;
+        return first;
+    }
+
+    /**
+     * Registers a floor, so that passengers can start at or go to it. Only to be used by the {@code Floor} while it is created.
+     * @param floor The new floor.
+     * @return The index of the floor in this store.
+     */
+    int registerFloor(Floor floor) {
+        floors.add(floor);
+        return floors.size() - 1;
+    }
+
+    /**
+     * Gets the number of ids, all ids of passengers are less than it.
+     * It is the largest number of passengers there have been at a time, including those that have been released since.
+     * @return The number of ids in use or released.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of released ids that have not been reused yet.
+     * @return The number of free ids, the number of passengers is {@code size() - getFreeCount()}.
+     */
+    public int getFreeCount() {
+        return freeCount;
+    }
+
+    /**
+     * Gives back the id and the item slots of a passenger who has left the simulation, to be reused for a new passenger.
+     * The passenger must not be waiting or riding, and no pending event may refer to them.
+     * @param passenger The id of the passenger.
+     * @throws IllegalStateException When the passenger is still waiting or riding, or has been released already.
+     */
+    public void release(int passenger) {
+        checkId(passenger);
+        if (queue[passenger] != NONE) {
+            throw new IllegalStateException("passenger is still waiting or riding.");
+        }
+        if (floorStartingPoint[passenger] == NONE) {
+            throw new IllegalStateException("passenger has been released already.");
+        }
+
+        releaseItemBlock(firstItem[passenger], itemCounts[passenger]);
+        floorStartingPoint[passenger] = NONE;
+        floorDestination[passenger] = NONE;
+        patienceTimeout[passenger] = null;
+        itemCounts[passenger] = 0;
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, 2 * freeCount);
+        }
+        freeIds[freeCount++] = passenger;
+    }
+
+    /**
+     * Gets a view of a passenger.
+     * @param passenger The id of the passenger.
+     * @return A new view.
+     */
+    public Passenger get(int passenger) {
+        checkId(passenger);
+        return new Passenger(this, passenger);
+    }
+
+    /**
+     * Get starting floor
+     * @param passenger The id of the passenger.
+     * @return Floor object
+     */
+    public Floor getFloorStartingPoint(int passenger) {
+        return floors.get(floorStartingPoint[passenger]);
+    }
+
+    /**
+     * Get destination floor
+     * @param passenger The id of the passenger.
+     * @return Floor object
+     */
+    public Floor getFloorDestination(int passenger) {
+        return floors.get(floorDestination[passenger]);
+    }
+
+    /**
+     * Get the mass of the passenger alone
+     * @param passenger The id of the passenger.
+     * @return mass in kg
+     */
+    public int getMass(int passenger) {
+        return mass[passenger];
+    }
+
+    /**
+     * Get the area required by the passenger alone
+     * @param passenger The id of the passenger.
+     * @return required space in m²
+     */
+    public double getSpaceRequired(int passenger) {
+        return spaceRequired[passenger];
+    }
+
+    /**
+     * Get the mass of the passenger together with their items
+     * @param passenger The id of the passenger.
+     * @return mass in kg
+     */
+    public int getTotalMass(int passenger) {
+        return footprintMass[passenger] / 1000;
+    }
+
+    /**
+     * Get the area required by the passenger together with their items
+     * @param passenger The id of the passenger.
+     * @return required space in m²
+     */
+    public double getTotalSpaceRequired(int passenger) {
+        return footprintArea[passenger] / 10000.0;
+    }
+
+    /**
+     * Get the mass of the passenger together with their items in the fixed-point unit of the car's capacity
+     * @param passenger The id of the passenger.
+     * @return mass in g
+     */
+    public int getFootprintMass(int passenger) {
+        return footprintMass[passenger];
+    }
+
+    /**
+     * Get the area required by the passenger together with their items in the fixed-point unit of the car's capacity
+     * @param passenger The id of the passenger.
+     * @return required space in cm²
+     */
+    public int getFootprintArea(int passenger) {
+        return footprintArea[passenger];
+    }
+
+    /**
+     * Get the number of items the passenger carries
+     * @param passenger The id of the passenger.
+     * @return Number of items
+     */
+    public int getItemCount(int passenger) {
+        return itemCounts[passenger];
+    }
+
+    /**
+     * Get the mass of one item of a passenger
+     * @param passenger The id of the passenger.
+     * @param item The index of the item, less than {@code getItemCount}.
+     * @return mass in kg
+     */
+    public int getItemMass(int passenger, int item) {
+        return itemMass[firstItem[passenger] + item];
+    }
+
+    /**
+     * Get the area required by one item of a passenger
+     * @param passenger The id of the passenger.
+     * @param item The index of the item, less than {@code getItemCount}.
+     * @return required space in m²
+     */
+    public double getItemSpaceRequired(int passenger, int item) {
+        return itemSpaceRequired[firstItem[passenger] + item];
+    }
+
+    /**
+     * Get copies of the items of a passenger
+     * @param passenger The id of the passenger.
+     * @return New list of new items
+     */
+    public ArrayList<Item> getItems(int passenger) {
+        var count = getItemCount(passenger);
+        var items = new ArrayList<Item>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(new Item(getItemMass(passenger, i), getItemSpaceRequired(passenger, i)));
+        }
+        return items;
+    }
+
+    /**
+     * Get time required to get in or out of the elevator
+     * @param passenger The id of the passenger.
+     * @return Milliseconds
+     */
+    public int getTimeChange(int passenger) {
+        return timeChange[passenger];
+    }
+
+    /**
+     * Set time required to get in or out of the elevator
+     * @param passenger The id of the passenger.
+     * @param timeChange Milliseconds
+     */
+    public void setTimeChange(int passenger, int timeChange) {
+        this.timeChange[passenger] = timeChange;
+    }
+
+    /**
+     * Get patience of passenger
+     * @param passenger The id of the passenger.
+     * @return Milliseconds
+     */
+    public int getTimePatience(int passenger) {
+        return timePatience[passenger];
+    }
+
+    /**
+     * Set patience of passenger
+     * @param passenger The id of the passenger.
+     * @param timePatience Milliseconds
+     */
+    public void setTimePatience(int passenger, int timePatience) {
+        this.timePatience[passenger] = timePatience;
+    }
+
+    /**
+     * Get the simulation time at which the passenger has arrived at their starting floor
+     * @param passenger The id of the passenger.
+     * @return Milliseconds since the simulation start
+     */
+    public long getArrivalTime(int passenger) {
+        return arrivalTime[passenger];
+    }
+
+    /**
+     * Set the simulation time at which the passenger has arrived at their starting floor
+     * @param passenger The id of the passenger.
+     * @param arrivalTime Milliseconds since the simulation start
+     */
+    public void setArrivalTime(int passenger, long arrivalTime) {
+        this.arrivalTime[passenger] = arrivalTime;
+    }
+
+    /**
+     * Get the simulation time at which the passenger has entered the elevator car
+     * @param passenger The id of the passenger.
+     * @return Milliseconds since the simulation start
+     */
+    public long getBoardingTime(int passenger) {
+        return boardingTime[passenger];
+    }
+
+    /**
+     * Set the simulation time at which the passenger has entered the elevator car
+     * @param passenger The id of the passenger.
+     * @param boardingTime Milliseconds since the simulation start
+     */
+    public void setBoardingTime(int passenger, long boardingTime) {
+        this.boardingTime[passenger] = boardingTime;
+    }
+
+    /**
+     * Set the event that makes the passenger leave their floor once their patience runs out
+     * @param passenger The id of the passenger.
+     * @param patienceTimeout Handle of the scheduled event
+     */
+    public void setPatienceTimeout(int passenger, SimEventHandle patienceTimeout) {
+        this.patienceTimeout[passenger] = patienceTimeout;
+    }
+
+    /**
+     * Cancel the event that makes the passenger leave their floor, e.g. because they have entered the elevator car
+     * @param passenger The id of the passenger.
+     */
+    public void cancelPatienceTimeout(int passenger) {
+        var timeout = this.patienceTimeout[passenger];
+        if (timeout != null) {
+            timeout.cancel();
+            this.patienceTimeout[passenger] = null;
+        }
+    }
+
+    long getWaitingSequence(int passenger) {
+        return waitingSequence[passenger];
+    }
+
+    void setWaitingSequence(int passenger, long sequence) {
+        waitingSequence[passenger] = sequence;
+    }
+
+    /**
+     * Writes the live passengers to a checkpoint: everyone in a queue, i.e. waiting at a floor or riding in a car,
+     * and the given passengers, followed by the released ids. Takes time proportional to the number of live passengers.
+     * The links of the queues are not written, the owners of the queues write their passengers in order.
+     * @param out The checkpoint to write to.
+     * @param referenced The ids of the passengers that pending events refer to.
+     * @throws IOException When the checkpoint cannot be written.
+     */
+    public void writeState(CheckpointWriter out, BitSet referenced) throws IOException {
+        var live = (BitSet) referenced.clone();
+        for (var q : queues) {
+            for (int p = q.first(); p >= 0; p = q.next(p)) {
+                live.set(p);
+            }
+        }
+
+        out.writeInt(floors.size());
+        out.writeInt(size);
+        out.writeInt(live.cardinality());
+        for (int p = live.nextSetBit(0); p >= 0; p = live.nextSetBit(p + 1)) {
+            out.writeInt(p);
+            out.writeInt(floorStartingPoint[p]);
+            out.writeInt(floorDestination[p]);
+            out.writeInt(mass[p]);
+            out.writeDouble(spaceRequired[p]);
+            out.writeInt(footprintMass[p]);
+            out.writeInt(footprintArea[p]);
+            out.writeInt(timeChange[p]);
+            out.writeInt(timePatience[p]);
+            out.writeLong(arrivalTime[p]);
+            out.writeLong(boardingTime[p]);
+            out.writeLong(waitingSequence[p]);
+            var items = getItemCount(p);
+            out.writeInt(items);
+            for (int i = 0; i < items; i++) {
+                out.writeInt(getItemMass(p, i));
+                out.writeDouble(getItemSpaceRequired(p, i));
+            }
+        }
+
+        out.writeInt(freeCount);
+        for (int i = 0; i < freeCount; i++) {
+            out.writeInt(freeIds[i]);
+        }
+    }
+
+    /**
+     * Restores the passengers of a checkpoint written by {@code writeState} into this empty store.
+     * The passengers are not in any queue yet, the owners of the queues add them again.
+     * @param in The checkpoint to read from.
+     * @throws IOException When the checkpoint cannot be read or has been written with other floors.
+     */
+    public void readState(CheckpointReader in) throws IOException {
+        if (size != 0) {
+            throw new IllegalStateException("passengers have already been created.");
+        }
+
+        var floorCount = in.readInt();
+        if (floorCount != floors.size()) {
+            throw new IOException("Checkpoint has " + floorCount + " floors, the simulation has " + floors.size() + ".");
+        }
+
+        var count = in.readCount(Integer.MAX_VALUE - 8);
+        if (count > mass.length) {
+            growPassengers(count);
+        }
+        Arrays.fill(queue, 0, count, NONE);
+        Arrays.fill(previous, 0, count, NONE);
+        Arrays.fill(next, 0, count, NONE);
+        Arrays.fill(itemCounts, 0, count, 0);
+        Arrays.fill(patienceTimeout, 0, count, null);
+        Arrays.fill(floorStartingPoint, 0, count, NONE);
+        Arrays.fill(floorDestination, 0, count, NONE);
+
+        var live = in.readCount(count);
+        var nextId = 0;
+        for (int k = 0; k < live; k++) {
+            var p = in.readInt();
+            if (p < nextId || p >= count) {
+                throw new IOException("Invalid passenger id " + p + " in checkpoint.");
+            }
+
+            floorStartingPoint[p] = in.readCount(floorCount - 1);
+            floorDestination[p] = in.readCount(floorCount - 1);
+            mass[p] = in.readInt();
+            spaceRequired[p] = in.readDouble();
+            footprintMass[p] = in.readInt();
+            footprintArea[p] = in.readInt();
+            timeChange[p] = in.readInt();
+            timePatience[p] = in.readInt();
+            arrivalTime[p] = in.readLong();
+            boardingTime[p] = in.readLong();
+            waitingSequence[p] = in.readLong();
+            firstItem[p] = itemCount;
+            var items = in.readCount(Integer.MAX_VALUE - 8 - itemCount);
+            itemCounts[p] = items;
+            if (itemCount + items > itemMass.length) {
+                growItems(Math.max(2 * itemMass.length, itemCount + items));
+            }
+            for (int i = 0; i < items; i++) {
+                itemMass[itemCount] = in.readInt();
+                itemSpaceRequired[itemCount] = in.readDouble();
+                itemCount++;
+            }
+            nextId = p + 1;
+        }
+        size = count;
+
+        // the passengers who are neither live nor released keep no properties and cannot be used anymore
+        freeCount = in.readCount(count - live);
+        if (freeCount > freeIds.length) {
+            freeIds = new int[freeCount];
+        }
+        for (int i = 0; i < freeCount; i++) {
+            var p = readId(in);
+            if (floorStartingPoint[p] != NONE) {
+                throw new IOException("Invalid passenger id " + p + " in checkpoint.");
+            }
+            freeIds[i] = p;
+        }
+    }
+
+    /**
+     * Reads the id of a passenger of this store from a checkpoint.
+     * @param in The checkpoint to read from.
+     * @return The id.
+     * @throws IOException When the checkpoint cannot be read or the id does not exist.
+     */
+    int readId(CheckpointReader in) throws IOException {
+        var passenger = in.readInt();
+        if (passenger < 0 || passenger >= size) {
+            throw new IOException("Invalid passenger id " + passenger + " in checkpoint.");
+        }
+        return passenger;
+    }
+
+    /**
+     * Gets the index of a registered floor.
+     * @param floor The floor.
+     * @param name The name of the parameter, for the exception.
+     * @return The index of the floor in this store.
+     */
+    private int indexOf(Floor floor, String name) {
+        var index = floor.getPassengerStoreIndex();
+        if (index < 0 || index >= floors.size() || floors.get(index) != floor) {
+            throw new IllegalArgumentException(name);
+        }
+        return index;
+    }
+
+    /**
+     * Gets whether a passenger is in one of the queues of this store, i.e. waiting at a floor or inside a car.
+     * @param passenger The id of the passenger.
+     * @return true if the passenger is in a queue
+     */
+    boolean isQueued(int passenger) {
+        checkId(passenger);
+        return queue[passenger] != NONE;
+    }
+
+    private void checkId(int passenger) {
+        if (passenger < 0 || passenger >= size) {
+            throw new IllegalArgumentException("passenger");
+        }
+    }
+
+    private void growPassengers(int capacity) {
+        floorStartingPoint = Arrays.copyOf(floorStartingPoint, capacity);
+        floorDestination = Arrays.copyOf(floorDestination, capacity);
+        mass = Arrays.copyOf(mass, capacity);
+        spaceRequired = Arrays.copyOf(spaceRequired, capacity);
+        footprintMass = Arrays.copyOf(footprintMass, capacity);
+        footprintArea = Arrays.copyOf(footprintArea, capacity);
+        timeChange = Arrays.copyOf(timeChange, capacity);
+        timePatience = Arrays.copyOf(timePatience, capacity);
+        arrivalTime = Arrays.copyOf(arrivalTime, capacity);
+        boardingTime = Arrays.copyOf(boardingTime, capacity);
+        patienceTimeout = Arrays.copyOf(patienceTimeout, capacity);
+        firstItem = Arrays.copyOf(firstItem, capacity);
+        itemCounts = Arrays.copyOf(itemCounts, capacity);
+        waitingSequence = Arrays.copyOf(waitingSequence, capacity);
+        queue = Arrays.copyOf(queue, capacity);
+        previous = Arrays.copyOf(previous, capacity);
+        next = Arrays.copyOf(next, capacity);
+    }
+
+    /**
+     * Takes consecutive item slots for a passenger, released ones of the same number if there are any.
+     * @param items The number of items.
+     * @return The first slot.
+     */
+    private int takeItemBlock(int items) {
+        if (items < freeItemBlockCounts.length && freeItemBlockCounts[items] > 0) {
+            return freeItemBlocks[items][--freeItemBlockCounts[items]];
+        }
+
+        if (itemCount + items > itemMass.length) {
+            growItems(Math.max(2 * itemMass.length, itemCount + items));
+        }
+        var first = itemCount;
+        itemCount += items;
+        return first;
+    }
+
+    private void releaseItemBlock(int first, int items) {
+        if (items == 0) {
+            return;
+        }
+
+        if (items >= freeItemBlockCounts.length) {
+            freeItemBlocks = Arrays.copyOf(freeItemBlocks, items + 1);
+            freeItemBlockCounts = Arrays.copyOf(freeItemBlockCounts, items + 1);
+        }
+        var blocks = freeItemBlocks[items];
+        if (blocks == null) {
+            blocks = new int[INITIAL_CAPACITY];
+        } else if (freeItemBlockCounts[items] == blocks.length) {
+            blocks = Arrays.copyOf(blocks, 2 * blocks.length);
+        }
+        freeItemBlocks[items] = blocks;
+        blocks[freeItemBlockCounts[items]++] = first;
+    }
+
+    private void growItems(int capacity) {
+        itemMass = Arrays.copyOf(itemMass, capacity);
+        itemSpaceRequired = Arrays.copyOf(itemSpaceRequired, capacity);
+    }
+
+    /**
+     * Creates an empty queue of passengers of this store.
+     * @return The new queue.
+     */
+    Queue createQueue() {
+        var queue = new Queue(queues.size());
+        queues.add(queue);
+        return queue;
+    }
+
+    /**
+     * A queue of passengers in the order they have been added, doubly linked through the ids of the passengers.
+     * A passenger can be in at most one queue at a time.
+     */
+    final class Queue {
+        private final int id;
+        private int first = NONE;
+        private int last = NONE;
+        private int size;
+
+        private Queue(int id) {
+            this.id = id;
+        }
+
+        void add(int passenger) {
+            if (queue[passenger] != NONE) {
+                throw new IllegalArgumentException("passenger is already waiting or riding.");
+            }
+
+            queue[passenger] = id;
+            previous[passenger] = last;
+            next[passenger] = NONE;
+            if (last == NONE) {
+                first = passenger;
+            } else {
+                next[last] = passenger;
+            }
+            last = passenger;
+            size++;
+        }
+
+        boolean remove(int passenger) {
+            if (queue[passenger] != id) {
+                return false;
+            }
+
+            var before = previous[passenger];
+            var after = next[passenger];
+            if (before == NONE) {
+                first = after;
+            } else {
+                next[before] = after;
+            }
+            if (after == NONE) {
+                last = before;
+            } else {
+                previous[after] = before;
+            }
+
+            queue[passenger] = NONE;
+            previous[passenger] = NONE;
+            next[passenger] = NONE;
+            size--;
+            return true;
+        }
+
+        /**
+         * @return The id of the first passenger, or -1 if the queue is empty.
+         */
+        int first() {
+            return first;
+        }
+
+        /**
+         * @param passenger The id of a passenger in this queue.
+         * @return The id of the passenger after them, or -1 if they are the last one.
+         */
+        int next(int passenger) {
+            return next[passenger];
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+}
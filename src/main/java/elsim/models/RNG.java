@@ -2,17 +2,36 @@ package main.java.elsim.models;
 
 import main.java.elsim.config.ConfigManager;
 
-import java.util.Random;
-
 /**
  * A simple random number generator, to provide randomized values for different purposes throughout the simulation
+ *
+ * The generator is a SplitMix64 stream (Steele, Lea, Flood 2014): a 64 bit state advanced by an odd constant and mixed on output.
+ * Independent streams are derived with {@code stream} for a purpose and an index (e.g. the arrivals of one floor),
+ * which only depends on the seed and the two parameters, not on how many numbers have been drawn anywhere else.
+ * So every stream reproduces exactly from the seed, no matter in which order or on which thread the streams are used.
+ * {@code split} derives a new stream from the current position instead, like {@code SplittableRandom.split}.
+ * An instance is not thread-safe; use one stream per thread.
  * @author ptomalak, fwagner
  */
 public class RNG {
-		
-	private int seed;
-	private Random randomGenerator;
-	
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+	private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+	/**
+	 * The purposes independent streams are derived for.
+	 */
+	public enum Stream {
+		/** Amount, destinations and arrival times of the passengers of one floor, indexed by floor number. */
+		ARRIVALS,
+		/** Properties and items of the passengers of one floor, indexed by floor number. */
+		PASSENGERS
+	}
+
+	private final int seed;
+	private final long origin;			// state of the stream before the first draw, streams are derived from it
+	private final long gamma;			// odd increment of the state
+	private long state;
+
 	/**
 	 * InstanceHolder of RNG Class (Singleton Usage)
 	 */
@@ -24,12 +43,26 @@ public class RNG {
 	 * Private Constructor (only to be used by Singleton)
 	 */
 	private RNG() {
-		this.seed = ConfigManager.getInstance().getPropAsInt("RNG.seed", 0);
-		this.randomGenerator = new Random(seed);
+		this(ConfigManager.getInstance().getPropAsInt("RNG.seed", 0));
+	}
+
+	/**
+	 * Constructor for a generator that is independent of the singleton, e.g. for one of several simulations
+	 * @param seed Seed to be used for the generator
+	 */
+	public RNG(int seed) {
+		this(seed, mix64(seed), GOLDEN_GAMMA);
+	}
+
+	private RNG(int seed, long origin, long gamma) {
+		this.seed = seed;
+		this.origin = origin;
+		this.gamma = gamma;
+		this.state = origin;
 	}
 	
 	/**
-	 * Static method to return the defined RNG instance
+	 * Static method to return the defined RNG instance seeded from the global config
 	 * @return RNG Instance of RNG class which was created
 	 */
 	public static RNG getInstance() {
@@ -43,6 +76,43 @@ public class RNG {
 	public int getSeed() {
 		return seed;
 	}
+
+	/**
+	 * Derives the independent stream of a purpose and index. Only depends on the seed of this generator
+	 * (or the stream it has been derived from) and the parameters, not on the numbers drawn so far.
+	 * @param purpose What the stream is used for
+	 * @param index Index within the purpose, e.g. the floor number
+	 * @return A new generator, starting at the beginning of the stream
+	 */
+	public RNG stream(Stream purpose, long index) {
+		var key = mix64(origin + (purpose.ordinal() + 1) * GOLDEN_GAMMA) ^ mix64(index * GOLDEN_GAMMA + gamma);
+		return new RNG(seed, mix64(key), mixGamma(key + GOLDEN_GAMMA));
+	}
+
+	/**
+	 * Derives a new, independent stream from the current position of this one, and advances this one.
+	 * @return A new generator
+	 */
+	public RNG split() {
+		var nextOrigin = nextLong();
+		return new RNG(seed, nextOrigin, mixGamma(nextLong()));
+	}
+
+	/**
+	 * Gets the position of this stream, e.g. to save the state of a simulation.
+	 * @return The internal state
+	 */
+	public long getState() {
+		return state;
+	}
+
+	/**
+	 * Sets the position of this stream to a value of {@code getState} of the same stream.
+	 * @param state The internal state
+	 */
+	public void setState(long state) {
+		this.state = state;
+	}
 	
     /**
      * Generates a random integer value between given boundaries
@@ -51,7 +121,7 @@ public class RNG {
      * @return A random integer
      */
     public int getRandomInteger(int min, int max) {
-    	return this.randomGenerator.nextInt((max-min) + 1) + min;
+    	return nextInt((max-min) + 1) + min;
     }
 
 	/**
@@ -66,6 +136,14 @@ public class RNG {
     	return random < except ? random : random + 1;
     }
 
+    /**
+     * Generates a random double value in the interval (0, 1], which can be used as the argument of a logarithm or root
+     * @return A random double greater than 0 and smaller than or equal to 1
+     */
+    public double getRandomUnitExclusiveZero() {
+        return 1.0 - nextDouble();
+    }
+
     /**
      * Generates a random double value between given boundaries and rounds it to a given number of decimals
      * @param min The minimal possible outcome of the randomization
@@ -75,7 +153,58 @@ public class RNG {
      */
     public double getRandomDouble(double min, double max, int decimals) {
         double randomNumber;
-        randomNumber = min + (max - min) * this.randomGenerator.nextDouble();
+        randomNumber = min + (max - min) * nextDouble();
         return (double)Math.round(randomNumber * Math.pow(10,decimals)) / Math.pow(10,decimals);
     }
+
+	private long nextLong() {
+		state += gamma;
+		return mix64(state);
+	}
+
+	/**
+	 * A uniform double in [0, 1) from the upper 53 bits.
+	 */
+	private double nextDouble() {
+		return (nextLong() >>> 11) * DOUBLE_UNIT;
+	}
+
+	/**
+	 * A uniform int in [0, bound), rejecting the values that would make the result biased.
+	 */
+	private int nextInt(int bound) {
+		if (bound <= 0) {
+			throw new IllegalArgumentException("bound must be positive");
+		}
+
+		int r = (int) (nextLong() >>> 32);
+		int m = bound - 1;
+		if ((bound & m) == 0) {
+			return (int) ((bound * (long) (r >>> 1)) >> 31);
+		}
+
+		for (int u = r >>> 1; u + m - (r = u % bound) < 0; u = (int) (nextLong() >>> 33)) {
+		}
+		return r;
+	}
+
+	/**
+	 * The 64 bit finalizer of MurmurHash3 in the variant 13 of Stafford, as used by SplitMix64.
+	 */
+	private static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Turns a value into an odd increment with enough bit transitions, like {@code SplittableRandom} does.
+	 */
+	private static long mixGamma(long z) {
+		z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+		z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+		z = (z ^ (z >>> 33)) | 1L;
+		var transitions = Long.bitCount(z ^ (z >>> 1));
+		return transitions < 24 ? z ^ 0xAAAAAAAAAAAAAAAAL : z;
+	}
 }
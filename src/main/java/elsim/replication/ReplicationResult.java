@@ -0,0 +1,78 @@
+package main.java.elsim.replication;
+
+import main.java.elsim.simulation.Simulation;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The outcome of one replication: the seed it was run with and the values of all metrics collected at its end.
+ * Metrics are kept in a fixed order so that results can be merged deterministically.
+ * @see ReplicationRunner
+ */
+public class ReplicationResult {
+	private final int index;
+	private final int seed;
+	private final Map<String, Double> metrics;
+
+	/**
+	 * Creates a result from explicit metric values.
+	 * @param index The index of the replication.
+	 * @param seed The seed the replication was run with.
+	 * @param metrics The metric values by name, in the order they should be reported.
+	 */
+	public ReplicationResult(int index, int seed, Map<String, Double> metrics) {
+		this.index = index;
+		this.seed = seed;
+		this.metrics = Collections.unmodifiableMap(new LinkedHashMap<>(metrics));
+	}
+
+	/**
+	 * Collects the metrics of a finished simulation.
+	 * @param index The index of the replication.
+	 * @param seed The seed the replication was run with.
+	 * @param simulation The simulation after {@code execute} has returned.
+	 * @return The result of the replication.
+	 */
+	public static ReplicationResult of(int index, int seed, Simulation simulation) {
+		var metrics = new LinkedHashMap<String, Double>();
+		metrics.put("executedEvents", (double) simulation.getExecutedEventCount());
+		metrics.put("cancelledEvents", (double) simulation.getEventManager().getCancelledEventCount());
+		metrics.put("deliveredPassengers", (double) simulation.getDeliveredPassengerCount());
+		metrics.put("abandonedPassengers", (double) simulation.getAbandonedPassengerCount());
+
+		var statistics = simulation.getStatistics();
+		if (statistics != null) {
+			// in seconds, like the summary file
+			metrics.put("meanWaitTime", statistics.getWaitTimes().getMean() / 1000);
+			metrics.put("p90WaitTime", statistics.getWaitTimes().getValueAtPercentile(90) / 1000.0);
+			metrics.put("meanRideTime", statistics.getRideTimes().getMean() / 1000);
+		}
+		return new ReplicationResult(index, seed, metrics);
+	}
+
+	/**
+	 * Gets the index of the replication.
+	 * @return The index, starting at 0.
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	/**
+	 * Gets the seed the replication was run with.
+	 * @return The seed.
+	 */
+	public int getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Gets the metric values by name.
+	 * @return An unmodifiable map in reporting order.
+	 */
+	public Map<String, Double> getMetrics() {
+		return metrics;
+	}
+}
@@ -0,0 +1,160 @@
+package main.java.elsim.replication;
+
+import main.java.elsim.config.SimulationConfig;
+import main.java.elsim.models.ElevatorGroup;
+import main.java.elsim.simulation.SimEventManager;
+import main.java.elsim.simulation.Simulation;
+import main.java.elsim.simulation.SimulationAlreadyInitializedException;
+import main.java.elsim.simulation.SimulationAlreadyRunningException;
+import main.java.elsim.simulation.SimulationContext;
+import main.java.elsim.simulation.SimulationNotInitializedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+/**
+ * Runs several independent replications of the same configuration in parallel and aggregates their results.
+ *
+ * Every replication gets its own {@code SimulationContext}, sharing the parsed config, and a seed derived from
+ * the master seed {@code RNG.seed} and its index only. Replications are distributed over a fixed thread pool and their results
+ * are merged in index order, so the results are bit-identical regardless of the number of threads.
+ *
+ * Config keys:
+ * {@code ReplicationRunner.replications} number of replications,
+ * {@code ReplicationRunner.threads} number of threads (0 uses all available processors),
+ * {@code ReplicationRunner.confidenceLevel} confidence level of the reported intervals.
+ * @see ReplicationResult
+ * @see ReplicationSummary
+ */
+public class ReplicationRunner {
+	private static final Logger LOGGER = Logger.getLogger(ReplicationRunner.class.getName());
+
+	private final SimulationConfig baseConfig;
+	private final int replications;
+	private final int threads;
+
+	/**
+	 * Creates a runner.
+	 * @param baseConfig The config every replication is based on. Only the seed is changed per replication.
+	 * @param replications The number of replications to run.
+	 * @param threads The number of threads to use. 0 uses all available processors.
+	 */
+	public ReplicationRunner(SimulationConfig baseConfig, int replications, int threads) {
+		if (baseConfig == null) {
+			throw new IllegalArgumentException("baseConfig");
+		}
+
+		if (replications < 1) {
+			throw new IllegalArgumentException("replications has to be at least 1.");
+		}
+
+		if (threads < 0) {
+			throw new IllegalArgumentException("threads must not be negative.");
+		}
+
+		this.baseConfig = baseConfig;
+		this.replications = replications;
+		this.threads = threads == 0 ? Runtime.getRuntime().availableProcessors() : threads;
+	}
+
+	/**
+	 * Creates a runner with the number of replications and threads read from the given config.
+	 * @param config The config every replication is based on.
+	 * @return A new runner.
+	 */
+	public static ReplicationRunner fromConfig(SimulationConfig config) {
+		return new ReplicationRunner(config, config.getReplications(), config.getReplicationThreads());
+	}
+
+	/**
+	 * Derives the seed of one replication from the master seed. The result only depends on the two parameters.
+	 * @param masterSeed The seed configured in {@code RNG.seed}.
+	 * @param index The index of the replication.
+	 * @return The seed of the replication.
+	 */
+	public static int deriveSeed(int masterSeed, int index) {
+		// SplitMix64 finalizer over the master seed advanced by index + 1 steps
+		long z = masterSeed + (index + 1L) * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		z = z ^ (z >>> 31);
+		return (int) (z ^ (z >>> 32));
+	}
+
+	/**
+	 * Runs all replications and waits for them to finish.
+	 * @return The results, ordered by replication index.
+	 * @throws InterruptedException When the calling thread is interrupted while waiting.
+	 * @throws ExecutionException When a replication fails.
+	 */
+	public List<ReplicationResult> run() throws InterruptedException, ExecutionException {
+		var masterSeed = baseConfig.getSeed();
+		var tasks = new ArrayList<Callable<ReplicationResult>>(replications);
+		for (int i = 0; i < replications; i++) {
+			var index = i;
+			var seed = deriveSeed(masterSeed, index);
+			tasks.add(() -> runReplication(index, seed));
+		}
+
+		LOGGER.info(String.format("Running %d replications on %d threads...", replications, threads));
+
+		var executor = Executors.newFixedThreadPool(Math.min(threads, replications));
+		try {
+			var results = new ArrayList<ReplicationResult>(replications);
+			for (var future : executor.invokeAll(tasks)) {
+				results.add(future.get());
+			}
+
+			LOGGER.info(String.format("Running %d replications on %d threads... Done.", replications, threads));
+			return results;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Aggregates all metrics over the replication results.
+	 * @param results The results, ordered by replication index.
+	 * @param confidenceLevel The confidence level of the intervals, e.g. 0.95.
+	 * @return One summary per metric, in the order of the metrics of the first result.
+	 */
+	public static List<ReplicationSummary> summarize(List<ReplicationResult> results, double confidenceLevel) {
+		var summaries = new ArrayList<ReplicationSummary>();
+		if (results.isEmpty()) {
+			return summaries;
+		}
+
+		for (var metric : results.get(0).getMetrics().keySet()) {
+			summaries.add(ReplicationSummary.of(metric, results, confidenceLevel));
+		}
+		return summaries;
+	}
+
+	/**
+	 * Builds and runs one independent simulation.
+	 */
+	private ReplicationResult runReplication(int index, int seed) throws
+			SimulationAlreadyInitializedException,
+			SimulationAlreadyRunningException,
+			SimulationNotInitializedException {
+
+		var config = baseConfig.withSeed(seed);
+		var context = new SimulationContext(config);
+		var timeStart = config.getStart();
+		var timeEnd = config.getEnd();
+
+		var elevatorGroup = ElevatorGroup.fromConfig(context);
+		var eventManager = new SimEventManager(context, timeStart);
+
+		var simulation = new Simulation(context, elevatorGroup, eventManager, timeStart, timeEnd);
+		simulation.initialize();
+		simulation.execute();
+
+		LOGGER.fine(String.format("Replication %d with seed %d has finished.", index, seed));
+		return ReplicationResult.of(index, seed, simulation);
+	}
+}
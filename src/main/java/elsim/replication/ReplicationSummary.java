@@ -0,0 +1,117 @@
+package main.java.elsim.replication;
+
+import java.util.List;
+
+/**
+ * The aggregate of one metric over all replications: mean, sample standard deviation and a Student-t confidence interval for the mean.
+ * @see ReplicationRunner
+ */
+public class ReplicationSummary {
+	private final String metric;
+	private final int count;
+	private final double mean;
+	private final double standardDeviation;
+	private final double confidenceLevel;
+	private final double halfWidth;
+
+	private ReplicationSummary(String metric, int count, double mean, double standardDeviation, double confidenceLevel, double halfWidth) {
+		this.metric = metric;
+		this.count = count;
+		this.mean = mean;
+		this.standardDeviation = standardDeviation;
+		this.confidenceLevel = confidenceLevel;
+		this.halfWidth = halfWidth;
+	}
+
+	/**
+	 * Aggregates one metric over all replication results.
+	 * The results are summed up in the order given, so the same results always yield the same summary.
+	 * @param metric The name of the metric.
+	 * @param results The replication results, ordered by their index.
+	 * @param confidenceLevel The confidence level of the interval, e.g. 0.95.
+	 * @return The summary of the metric.
+	 */
+	public static ReplicationSummary of(String metric, List<ReplicationResult> results, double confidenceLevel) {
+		if (confidenceLevel <= 0 || confidenceLevel >= 1) {
+			throw new IllegalArgumentException("confidenceLevel has to be between 0 and 1.");
+		}
+
+		var count = results.size();
+		double sum = 0;
+		for (var result : results) {
+			sum += result.getMetrics().get(metric);
+		}
+		var mean = count > 0 ? sum / count : Double.NaN;
+
+		if (count < 2) {
+			return new ReplicationSummary(metric, count, mean, Double.NaN, confidenceLevel, Double.NaN);
+		}
+
+		double squares = 0;
+		for (var result : results) {
+			var deviation = result.getMetrics().get(metric) - mean;
+			squares += deviation * deviation;
+		}
+
+		var standardDeviation = Math.sqrt(squares / (count - 1));
+		var t = StudentTDistribution.quantile(0.5 + confidenceLevel / 2, count - 1);
+		return new ReplicationSummary(metric, count, mean, standardDeviation, confidenceLevel, t * standardDeviation / Math.sqrt(count));
+	}
+
+	/**
+	 * Gets the name of the metric.
+	 * @return The metric name.
+	 */
+	public String getMetric() {
+		return metric;
+	}
+
+	/**
+	 * Gets the number of replications.
+	 * @return The number of samples.
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Gets the mean over all replications.
+	 * @return The sample mean.
+	 */
+	public double getMean() {
+		return mean;
+	}
+
+	/**
+	 * Gets the sample standard deviation. {@code NaN} for fewer than two replications.
+	 * @return The sample standard deviation.
+	 */
+	public double getStandardDeviation() {
+		return standardDeviation;
+	}
+
+	/**
+	 * Gets the confidence level of the interval.
+	 * @return The confidence level, e.g. 0.95.
+	 */
+	public double getConfidenceLevel() {
+		return confidenceLevel;
+	}
+
+	/**
+	 * Gets the half width of the confidence interval. {@code NaN} for fewer than two replications.
+	 * @return The half width, so that the interval is {@code mean +/- halfWidth}.
+	 */
+	public double getHalfWidth() {
+		return halfWidth;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return String.format("%s: %.4f +/- %.4f (%.0f%% CI, sd %.4f, n %d)",
+				metric, mean, halfWidth, confidenceLevel * 100, standardDeviation, count);
+	}
+}
@@ -0,0 +1,136 @@
+package main.java.elsim.replication;
+
+/**
+ * The quantile function of Student's t-distribution, needed for confidence intervals over a small number of replications.
+ * The distribution function is evaluated through the regularized incomplete beta function and inverted by bisection.
+ */
+final class StudentTDistribution {
+	private static final int MAX_ITERATIONS = 200;
+	private static final double EPSILON = 1e-14;
+
+	private StudentTDistribution() {
+	}
+
+	/**
+	 * Gets the quantile of Student's t-distribution.
+	 * @param p The probability, between 0 and 1.
+	 * @param degreesOfFreedom The degrees of freedom, at least 1.
+	 * @return The value {@code t} with {@code P(T <= t) = p}.
+	 */
+	static double quantile(double p, int degreesOfFreedom) {
+		if (p <= 0 || p >= 1) {
+			throw new IllegalArgumentException("p has to be between 0 and 1.");
+		}
+
+		if (degreesOfFreedom < 1) {
+			throw new IllegalArgumentException("degreesOfFreedom has to be at least 1.");
+		}
+
+		if (p < 0.5) {
+			return -quantile(1 - p, degreesOfFreedom);
+		}
+
+		double low = 0;
+		double high = 1;
+		while (cdf(high, degreesOfFreedom) < p) {
+			low = high;
+			high *= 2;
+		}
+
+		for (int i = 0; i < MAX_ITERATIONS && high - low > EPSILON * high; i++) {
+			var middle = (low + high) / 2;
+			if (cdf(middle, degreesOfFreedom) < p) {
+				low = middle;
+			} else {
+				high = middle;
+			}
+		}
+
+		return (low + high) / 2;
+	}
+
+	/**
+	 * Gets the distribution function of Student's t-distribution for non-negative {@code t}.
+	 */
+	private static double cdf(double t, int degreesOfFreedom) {
+		double v = degreesOfFreedom;
+		return 1 - 0.5 * regularizedIncompleteBeta(v / (v + t * t), v / 2, 0.5);
+	}
+
+	/**
+	 * Gets the regularized incomplete beta function I_x(a, b), using its continued fraction representation.
+	 */
+	private static double regularizedIncompleteBeta(double x, double a, double b) {
+		if (x <= 0) {
+			return 0;
+		}
+
+		if (x >= 1) {
+			return 1;
+		}
+
+		var front = Math.exp(logGamma(a + b) - logGamma(a) - logGamma(b) + a * Math.log(x) + b * Math.log(1 - x));
+		if (x < (a + 1) / (a + b + 2)) {
+			return front * betaContinuedFraction(x, a, b) / a;
+		}
+
+		return 1 - front * betaContinuedFraction(1 - x, b, a) / b;
+	}
+
+	/**
+	 * Evaluates the continued fraction of the incomplete beta function with the modified Lentz method.
+	 */
+	private static double betaContinuedFraction(double x, double a, double b) {
+		final double tiny = 1e-300;
+
+		var c = 1.0;
+		var d = 1 - (a + b) * x / (a + 1);
+		d = 1 / (Math.abs(d) < tiny ? tiny : d);
+		var result = d;
+
+		for (int m = 1; m <= MAX_ITERATIONS; m++) {
+			var m2 = 2 * m;
+
+			var numerator = m * (b - m) * x / ((a + m2 - 1) * (a + m2));
+			d = 1 + numerator * d;
+			d = 1 / (Math.abs(d) < tiny ? tiny : d);
+			c = 1 + numerator / c;
+			c = Math.abs(c) < tiny ? tiny : c;
+			result *= d * c;
+
+			numerator = -(a + m) * (a + b + m) * x / ((a + m2) * (a + m2 + 1));
+			d = 1 + numerator * d;
+			d = 1 / (Math.abs(d) < tiny ? tiny : d);
+			c = 1 + numerator / c;
+			c = Math.abs(c) < tiny ? tiny : c;
+			var delta = d * c;
+			result *= delta;
+
+			if (Math.abs(delta - 1) < EPSILON) {
+				break;
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Gets the natural logarithm of the gamma function, using the Lanczos approximation.
+	 */
+	private static double logGamma(double x) {
+		final double[] coefficients = {
+				76.18009172947146, -86.50532032941677, 24.01409824083091,
+				-1.231739572450155, 0.1208650973866179e-2, -0.5395239384953e-5
+		};
+
+		var y = x;
+		var tmp = x + 5.5;
+		tmp -= (x + 0.5) * Math.log(tmp);
+		var series = 1.000000000190015;
+		for (var coefficient : coefficients) {
+			series += coefficient / ++y;
+		}
+
+		return -tmp + Math.log(2.5066282746310005 * series / x);
+	}
+}
@@ -0,0 +1,420 @@
+package main.java.elsim.simulation;
+
+import main.java.elsim.simulation.events.AbstractSimEvent;
+
+import java.util.function.Consumer;
+
+/**
+ * A calendar queue (R. Brown, 1988) of simulation events keyed on a primitive {@code long} simulation time and the event id.
+ *
+ * Events are hashed into buckets ("days") of a fixed width by their time. Each bucket is a list sorted by time and id.
+ * Events sharing a timestamp form a group within their bucket, ordered by id. Since ids increase, a new event usually
+ * belongs at the end of its group, which is reached directly, so many simultaneous events do not make insertion linear.
+ * Dequeuing walks the buckets of the current "year" in order, so both operations are O(1) on average
+ * as long as the bucket width matches the event density. The number of buckets and their width are re-computed
+ * whenever the queue grows or shrinks by a factor of two.
+ * The resulting order is identical to the one of {@code TreeSetSimEventQueue}.
+ * Removed entries are kept in a free list and reused, so a queue of stable size does not allocate.
+ * @see TreeSetSimEventQueue
+ */
+public class CalendarSimEventQueue implements SimEventQueue {
+	private static final int MIN_BUCKETS = 16;
+	private static final int WIDTH_SAMPLE_SIZE = 25;
+
+	private Entry[] buckets;
+	private int mask;
+	private long bucketWidth;
+	private int size;
+
+	private int currentBucket;
+	private long currentBucketTop;
+
+	private Entry freeEntries;
+
+	/**
+	 * Creates an empty queue.
+	 */
+	public CalendarSimEventQueue() {
+		this.bucketWidth = 1;
+		this.buckets = new Entry[MIN_BUCKETS];
+		this.mask = MIN_BUCKETS - 1;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void add(AbstractSimEvent event, long time) {
+		var entry = freeEntries;
+		if (entry == null) {
+			entry = new Entry();
+		} else {
+			freeEntries = entry.next;
+		}
+
+		entry.event = event;
+		entry.time = time;
+		entry.id = event.getId();
+
+		insert(entry);
+		size++;
+
+		if (size > 2 * buckets.length) {
+			resize(2 * buckets.length);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public AbstractSimEvent poll() {
+		if (size == 0) {
+			return null;
+		}
+
+		var entry = removeFirst();
+		var event = entry.event;
+		free(entry);
+		size--;
+
+		if (size < buckets.length / 2 && buckets.length > MIN_BUCKETS) {
+			resize(buckets.length / 2);
+		}
+
+		return event;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public AbstractSimEvent peek() {
+		if (size == 0) {
+			return null;
+		}
+
+		return buckets[locateFirst()].event;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int removeCancelled() {
+		int removed = 0;
+		for (int i = 0; i < buckets.length; i++) {
+			Entry previousGroup = null;
+			var group = buckets[i];
+			while (group != null) {
+				var nextGroup = group.next;
+
+				// rebuild the group from its entries that have not been cancelled
+				Entry first = null;
+				Entry last = null;
+				var entry = group;
+				while (entry != null) {
+					var nextSame = entry.sameNext;
+					if (entry.event.isCancelled()) {
+						entry.event.setPending(false);
+						free(entry);
+						removed++;
+					} else {
+						entry.sameNext = null;
+						if (first == null) {
+							first = entry;
+						} else {
+							last.sameNext = entry;
+						}
+						last = entry;
+					}
+					entry = nextSame;
+				}
+
+				if (first != null) {
+					first.groupTail = last;
+					if (previousGroup == null) {
+						buckets[i] = first;
+					} else {
+						previousGroup.next = first;
+					}
+					previousGroup = first;
+				}
+				group = nextGroup;
+			}
+
+			if (previousGroup == null) {
+				buckets[i] = null;
+			} else {
+				previousGroup.next = null;
+			}
+		}
+
+		size -= removed;
+		return removed;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void forEach(Consumer<? super AbstractSimEvent> action) {
+		for (var group : buckets) {
+			for (; group != null; group = group.next) {
+				for (var entry = group; entry != null; entry = entry.sameNext) {
+					action.accept(entry.event);
+				}
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Inserts an entry into its bucket, keeping the bucket sorted. Does not touch {@code size}.
+	 * @param entry The entry to insert.
+	 */
+	private void insert(Entry entry) {
+		entry.next = null;
+		entry.sameNext = null;
+		entry.groupTail = entry;
+
+		var window = Math.floorDiv(entry.time, bucketWidth);
+
+		if (size == 0 || entry.time < currentBucketTop - bucketWidth) {
+			// the new entry lies before the current position of the calendar, so start over from there
+			currentBucket = (int) (window & mask);
+			currentBucketTop = (window + 1) * bucketWidth;
+		}
+
+		var index = (int) (window & mask);
+		Entry previous = null;
+		var group = buckets[index];
+		while (group != null && group.time < entry.time) {
+			previous = group;
+			group = group.next;
+		}
+
+		if (group == null || group.time != entry.time) {
+			// first entry of its timestamp
+			entry.next = group;
+			link(index, previous, entry);
+			return;
+		}
+
+		var tail = group.groupTail;
+		if (entry.id > tail.id) {
+			tail.sameNext = entry;
+			group.groupTail = entry;
+			return;
+		}
+
+		if (entry.id < group.id) {
+			// new head of the group
+			entry.next = group.next;
+			entry.sameNext = group;
+			entry.groupTail = tail;
+			group.next = null;
+			group.groupTail = null;
+			link(index, previous, entry);
+			return;
+		}
+
+		var before = group;
+		while (before.sameNext.id < entry.id) {
+			before = before.sameNext;
+		}
+		entry.sameNext = before.sameNext;
+		entry.groupTail = null;
+		before.sameNext = entry;
+	}
+
+	/**
+	 * Links the head of a group into a bucket.
+	 * @param index The index of the bucket.
+	 * @param previous The head of the preceding group, or {@code null} if the group is the first of the bucket.
+	 * @param group The head of the group to link.
+	 */
+	private void link(int index, Entry previous, Entry group) {
+		if (previous == null) {
+			buckets[index] = group;
+		} else {
+			previous.next = group;
+		}
+	}
+
+	/**
+	 * Puts an unlinked entry into the free list.
+	 * @param entry The entry to reuse later.
+	 */
+	private void free(Entry entry) {
+		entry.event = null;
+		entry.sameNext = null;
+		entry.groupTail = null;
+		entry.next = freeEntries;
+		freeEntries = entry;
+	}
+
+	/**
+	 * Moves the calendar to the bucket containing the first entry. The queue must not be empty.
+	 * @return The index of the bucket whose head is the first entry.
+	 */
+	private int locateFirst() {
+		for (int i = 0; i < buckets.length; i++) {
+			var head = buckets[currentBucket];
+			if (head != null && head.time < currentBucketTop) {
+				return currentBucket;
+			}
+
+			currentBucket = (currentBucket + 1) & mask;
+			currentBucketTop += bucketWidth;
+		}
+
+		// a whole year without an entry: search the minimum directly and jump there
+		int first = -1;
+		for (int i = 0; i < buckets.length; i++) {
+			if (buckets[i] != null && (first < 0 || buckets[i].isBefore(buckets[first]))) {
+				first = i;
+			}
+		}
+
+		currentBucket = first;
+		currentBucketTop = (Math.floorDiv(buckets[first].time, bucketWidth) + 1) * bucketWidth;
+		return first;
+	}
+
+	/**
+	 * Unlinks the first entry. The queue must not be empty. Does not touch {@code size}.
+	 * @return The removed entry.
+	 */
+	private Entry removeFirst() {
+		var index = locateFirst();
+		var entry = buckets[index];
+		var nextSame = entry.sameNext;
+		if (nextSame == null) {
+			buckets[index] = entry.next;
+		} else {
+			nextSame.next = entry.next;
+			nextSame.groupTail = entry.groupTail;
+			buckets[index] = nextSame;
+		}
+
+		entry.next = null;
+		entry.sameNext = null;
+		entry.groupTail = null;
+		return entry;
+	}
+
+	/**
+	 * Rebuilds the calendar with a new number of buckets and a bucket width estimated from the first queued entries.
+	 * @param bucketCount The new number of buckets, a power of two.
+	 */
+	private void resize(int bucketCount) {
+		// sample the first entries to estimate the average separation of events.
+		// Entries sharing a timestamp are no separation, so keep sampling until there are enough distinct timestamps.
+		var total = size;
+		Entry sample = null;
+		int separations = 0;
+		while (size > 0 && separations < WIDTH_SAMPLE_SIZE) {
+			var entry = removeFirst();
+			size--;
+			if (sample != null && entry.time > sample.time) {
+				separations++;
+			}
+
+			// the sample is linked in reverse order, so that re-inserting it only prepends to buckets
+			entry.next = sample;
+			sample = entry;
+		}
+
+		var oldBuckets = this.buckets;
+		this.bucketWidth = estimateWidth(sample);
+		this.buckets = new Entry[bucketCount];
+		this.mask = bucketCount - 1;
+
+		size = 0;
+		var entry = sample;
+		while (entry != null) {
+			var next = entry.next;
+			insert(entry);
+			size++;
+			entry = next;
+		}
+
+		for (var head : oldBuckets) {
+			var group = head;
+			while (group != null) {
+				var nextGroup = group.next;
+				entry = group;
+				while (entry != null) {
+					var nextSame = entry.sameNext;
+					insert(entry);
+					size++;
+					entry = nextSame;
+				}
+				group = nextGroup;
+			}
+		}
+
+		assert size == total;
+	}
+
+	/**
+	 * Estimates a bucket width of three times the average separation of the sampled entries, ignoring outliers.
+	 * Entries sharing a timestamp do not count as a separation.
+	 * @param sample Entries linked in reverse queue order.
+	 * @return The new bucket width, at least 1.
+	 */
+	private long estimateWidth(Entry sample) {
+		long sum = 0;
+		int count = 0;
+		for (var entry = sample; entry != null && entry.next != null; entry = entry.next) {
+			var separation = entry.time - entry.next.time;
+			if (separation > 0) {
+				sum += separation;
+				count++;
+			}
+		}
+
+		if (count == 0) {
+			return bucketWidth;
+		}
+
+		var average = sum / count;
+		sum = 0;
+		count = 0;
+		for (var entry = sample; entry != null && entry.next != null; entry = entry.next) {
+			var separation = entry.time - entry.next.time;
+			if (separation > 0 && separation <= 2 * average) {
+				sum += separation;
+				count++;
+			}
+		}
+
+		var width = count > 0 ? 3 * sum / count : 3 * average;
+		return Math.max(width, 1);
+	}
+
+	/**
+	 * A queued event together with its primitive sort key.
+	 * Only the head of a group of entries sharing a timestamp is linked into the bucket.
+	 */
+	private static final class Entry {
+		private AbstractSimEvent event;
+		private long time;
+		private long id;
+		private Entry next;			// head of the next group in the bucket, only set for group heads
+		private Entry sameNext;		// next entry of the same group
+		private Entry groupTail;	// last entry of the group, only set for group heads
+
+		private boolean isBefore(Entry other) {
+			return time < other.time || (time == other.time && id < other.id);
+		}
+	}
+}
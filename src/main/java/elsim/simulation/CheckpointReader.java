@@ -0,0 +1,118 @@
+package main.java.elsim.simulation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads the primitive values of a simulation checkpoint from a channel through a fixed buffer,
+ * in the order they have been written by a {@code CheckpointWriter}.
+ * The channel is not closed by the reader.
+ * @see CheckpointWriter
+ * @see SimulationCheckpoint
+ */
+public final class CheckpointReader {
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final ReadableByteChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+	/**
+	 * Creates a reader.
+	 * @param channel The channel to read from.
+	 */
+	public CheckpointReader(ReadableByteChannel channel) {
+		if (channel == null) {
+			throw new IllegalArgumentException("channel");
+		}
+
+		this.channel = channel;
+		this.buffer.limit(0);
+	}
+
+	/**
+	 * Reads the next value, which has to have been written with {@code CheckpointWriter.writeBoolean}.
+	 * @return The value.
+	 * @throws IOException When the checkpoint ends before the value.
+	 */
+	public boolean readBoolean() throws IOException {
+		ensureAvailable(1);
+		return buffer.get() != 0;
+	}
+
+	/**
+	 * Reads the next value, which has to have been written with {@code CheckpointWriter.writeInt}.
+	 * @return The value.
+	 * @throws IOException When the checkpoint ends before the value.
+	 */
+	public int readInt() throws IOException {
+		ensureAvailable(Integer.BYTES);
+		return buffer.getInt();
+	}
+
+	/**
+	 * Reads the next value, which has to have been written with {@code CheckpointWriter.writeLong}.
+	 * @return The value.
+	 * @throws IOException When the checkpoint ends before the value.
+	 */
+	public long readLong() throws IOException {
+		ensureAvailable(Long.BYTES);
+		return buffer.getLong();
+	}
+
+	/**
+	 * Reads the next value, which has to have been written with {@code CheckpointWriter.writeDouble}.
+	 * @return The value.
+	 * @throws IOException When the checkpoint ends before the value.
+	 */
+	public double readDouble() throws IOException {
+		ensureAvailable(Double.BYTES);
+		return buffer.getDouble();
+	}
+
+	/**
+	 * Reads a count, e.g. of the elements that follow, and checks it.
+	 * @param max The largest valid count.
+	 * @return The count.
+	 * @throws IOException When the count is negative or greater than {@code max}, i.e. the checkpoint is corrupt.
+	 */
+	public int readCount(int max) throws IOException {
+		var count = readInt();
+		if (count < 0 || count > max) {
+			throw new IOException("Invalid count " + count + " in checkpoint, expected at most " + max + ".");
+		}
+		return count;
+	}
+
+	/**
+	 * Gets whether all values have been read.
+	 * @return {@code true} if the channel has no more data.
+	 * @throws IOException When the channel cannot be read.
+	 */
+	public boolean isAtEnd() throws IOException {
+		return !buffer.hasRemaining() && !fill();
+	}
+
+	private void ensureAvailable(int bytes) throws IOException {
+		while (buffer.remaining() < bytes) {
+			if (!fill()) {
+				throw new IOException("Checkpoint is truncated.");
+			}
+		}
+	}
+
+	/**
+	 * Reads more data from the channel, keeping the values that have not been read yet.
+	 * @return {@code false} if the channel has no more data.
+	 */
+	private boolean fill() throws IOException {
+		buffer.compact();
+		int read;
+		try {
+			read = channel.read(buffer);
+		} finally {
+			buffer.flip();
+		}
+		return read > 0;
+	}
+}
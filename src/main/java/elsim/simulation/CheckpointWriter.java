@@ -0,0 +1,89 @@
+package main.java.elsim.simulation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writes the primitive values of a simulation checkpoint to a channel through a fixed buffer.
+ * Values are written in big-endian order, without any padding or type information.
+ * The channel is not closed by the writer.
+ * @see CheckpointReader
+ * @see SimulationCheckpoint
+ */
+public final class CheckpointWriter {
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final WritableByteChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+	/**
+	 * Creates a writer.
+	 * @param channel The channel to write to.
+	 */
+	public CheckpointWriter(WritableByteChannel channel) {
+		if (channel == null) {
+			throw new IllegalArgumentException("channel");
+		}
+
+		this.channel = channel;
+	}
+
+	/**
+	 * Writes a value, flushing the buffer first if it is full.
+	 * @param value The value.
+	 * @throws IOException When the channel cannot be written.
+	 */
+	public void writeBoolean(boolean value) throws IOException {
+		ensureRemaining(1);
+		buffer.put(value ? (byte) 1 : (byte) 0);
+	}
+
+	/**
+	 * Writes a value, flushing the buffer first if it is full.
+	 * @param value The value.
+	 * @throws IOException When the channel cannot be written.
+	 */
+	public void writeInt(int value) throws IOException {
+		ensureRemaining(Integer.BYTES);
+		buffer.putInt(value);
+	}
+
+	/**
+	 * Writes a value, flushing the buffer first if it is full.
+	 * @param value The value.
+	 * @throws IOException When the channel cannot be written.
+	 */
+	public void writeLong(long value) throws IOException {
+		ensureRemaining(Long.BYTES);
+		buffer.putLong(value);
+	}
+
+	/**
+	 * Writes a value, flushing the buffer first if it is full.
+	 * @param value The value.
+	 * @throws IOException When the channel cannot be written.
+	 */
+	public void writeDouble(double value) throws IOException {
+		ensureRemaining(Double.BYTES);
+		buffer.putDouble(value);
+	}
+
+	/**
+	 * Writes all buffered values to the channel.
+	 * @throws IOException When the channel cannot be written.
+	 */
+	public void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	private void ensureRemaining(int bytes) throws IOException {
+		if (buffer.remaining() < bytes) {
+			flush();
+		}
+	}
+}
@@ -0,0 +1,353 @@
+package main.java.elsim.simulation;
+
+import main.java.elsim.simulation.events.SimEventType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a trace written by an {@code EventTraceWriter}. The whole trace is mapped into memory,
+ * so any record can be read directly by its index, the number of events processed before it.
+ *
+ * The arrivals of the passengers are mapped as well and read by their index, the number of arrivals scheduled before.
+ *
+ * Two traces are compared with {@code findDivergence}, which compares the mapped records in bulk without decoding them,
+ * a simulation is checked against a trace while it runs with {@code Simulation.setExpectedTrace},
+ * and a simulation replays a trace, taking its passengers from the recorded arrivals, with {@code Simulation.setReplayTrace}.
+ * @see EventTraceWriter
+ */
+public final class EventTraceReader implements Closeable {
+	private static final SimEventType[] TYPES = SimEventType.values();
+
+	private final FileChannel channel;
+	private final MappedByteBuffer[] regions;
+	private final MappedByteBuffer[] arrivalRegions;
+	private final int seed;
+	private final long size;
+	private final long arrivalCount;
+
+	/**
+	 * Opens and maps a trace.
+	 * @param file The trace file.
+	 * @throws IOException When the file cannot be read, is not a trace or has not been completed.
+	 */
+	public EventTraceReader(Path file) throws IOException {
+		this.channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			var header = ByteBuffer.allocate(EventTraceWriter.HEADER_SIZE);
+			while (header.hasRemaining()) {
+				if (channel.read(header) < 0) {
+					throw new IOException("Not a trace of simulation events.");
+				}
+			}
+			header.flip();
+
+			if (header.getInt() != EventTraceWriter.MAGIC) {
+				throw new IOException("Not a trace of simulation events.");
+			}
+
+			var version = header.getInt();
+			if (version != EventTraceWriter.VERSION) {
+				throw new IOException("Unsupported trace version " + version + ".");
+			}
+
+			this.seed = header.getInt();
+			header.getInt();
+			this.size = header.getLong();
+			this.arrivalCount = header.getLong();
+			if (size < 0 || arrivalCount < 0) {
+				throw new IOException("Trace is incomplete, it has not been closed.");
+			}
+
+			var length = size * EventTraceWriter.RECORD_SIZE;
+			var arrivalLength = arrivalCount * EventTraceWriter.ARRIVAL_SIZE;
+			if (channel.size() < EventTraceWriter.HEADER_SIZE + length + arrivalLength) {
+				throw new IOException("Trace is truncated.");
+			}
+
+			this.regions = map(EventTraceWriter.HEADER_SIZE, length, EventTraceWriter.REGION_SIZE);
+			this.arrivalRegions = map(EventTraceWriter.HEADER_SIZE + length, arrivalLength, EventTraceWriter.ARRIVAL_REGION_SIZE);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Gets the seed of the simulation that has been recorded.
+	 * @return The seed.
+	 */
+	public int getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Gets the number of recorded events.
+	 * @return The number of records.
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Gets the number of recorded arrivals.
+	 * @return The number of arrival records.
+	 */
+	public long getArrivalCount() {
+		return arrivalCount;
+	}
+
+	/**
+	 * Gets the time of a recorded event.
+	 * @param index The index of the record.
+	 * @return Milliseconds since the simulation start.
+	 */
+	public long getTime(long index) {
+		return regionOf(index).getLong(offsetOf(index));
+	}
+
+	/**
+	 * Gets the type of a recorded event.
+	 * @param index The index of the record.
+	 * @return The type, or {@code null} if the record does not hold a known type.
+	 */
+	public SimEventType getType(long index) {
+		var ordinal = regionOf(index).getInt(offsetOf(index) + 8);
+		return ordinal >= 0 && ordinal < TYPES.length ? TYPES[ordinal] : null;
+	}
+
+	/**
+	 * Gets the shaft a recorded event is about.
+	 * @param index The index of the record.
+	 * @return The index of the shaft in its group, or -1.
+	 */
+	public int getShaftIndex(long index) {
+		return regionOf(index).getInt(offsetOf(index) + 12);
+	}
+
+	/**
+	 * Gets the floor a recorded event is about.
+	 * @param index The index of the record.
+	 * @return The index of the floor in its group, or -1.
+	 */
+	public int getFloorIndex(long index) {
+		return regionOf(index).getInt(offsetOf(index) + 16);
+	}
+
+	/**
+	 * Gets the passenger a recorded event is about.
+	 * @param index The index of the record.
+	 * @return The id of the passenger in their store, or -1.
+	 */
+	public int getPassenger(long index) {
+		return regionOf(index).getInt(offsetOf(index) + 20);
+	}
+
+	/**
+	 * Gets the time at which a recorded passenger arrives.
+	 * @param index The index of the arrival record.
+	 * @return Milliseconds since the simulation start.
+	 */
+	public long getArrivalTime(long index) {
+		return arrivalRegionOf(index).getLong(arrivalOffsetOf(index));
+	}
+
+	/**
+	 * Gets the id a recorded passenger has had.
+	 * @param index The index of the arrival record.
+	 * @return The id of the passenger in their store.
+	 */
+	public int getArrivalPassenger(long index) {
+		return arrivalRegionOf(index).getInt(arrivalOffsetOf(index) + 8);
+	}
+
+	/**
+	 * Gets the floor a recorded passenger arrives at.
+	 * @param index The index of the arrival record.
+	 * @return The index of the floor in its group.
+	 */
+	public int getArrivalStartFloorIndex(long index) {
+		return arrivalRegionOf(index).getInt(arrivalOffsetOf(index) + 12);
+	}
+
+	/**
+	 * Gets the floor a recorded passenger wants to go to.
+	 * @param index The index of the arrival record.
+	 * @return The index of the floor in its group.
+	 */
+	public int getArrivalDestinationFloorIndex(long index) {
+		return arrivalRegionOf(index).getInt(arrivalOffsetOf(index) + 16);
+	}
+
+	/**
+	 * Gets the mass of a recorded passenger together with their items.
+	 * @param index The index of the arrival record.
+	 * @return mass in g
+	 */
+	public int getArrivalFootprintMass(long index) {
+		return arrivalRegionOf(index).getInt(arrivalOffsetOf(index) + 20);
+	}
+
+	/**
+	 * Gets the area required by a recorded passenger together with their items.
+	 * @param index The index of the arrival record.
+	 * @return required space in cm²
+	 */
+	public int getArrivalFootprintArea(long index) {
+		return arrivalRegionOf(index).getInt(arrivalOffsetOf(index) + 24);
+	}
+
+	/**
+	 * Gets the time a recorded passenger needs to enter or leave a car.
+	 * @param index The index of the arrival record.
+	 * @return time in ms
+	 */
+	public int getArrivalTimeChange(long index) {
+		return arrivalRegionOf(index).getInt(arrivalOffsetOf(index) + 28);
+	}
+
+	/**
+	 * Gets the time a recorded passenger waits for a car.
+	 * @param index The index of the arrival record.
+	 * @return time in ms
+	 */
+	public int getArrivalTimePatience(long index) {
+		return arrivalRegionOf(index).getInt(arrivalOffsetOf(index) + 32);
+	}
+
+	/**
+	 * Checks whether an event is the one that has been recorded at an index.
+	 * @param index The index of the record, may be beyond the end of the trace.
+	 * @param time Milliseconds since the simulation start.
+	 * @param type The type of the event.
+	 * @param shaftIndex The index of the shaft in its group, or -1.
+	 * @param floorIndex The index of the floor in its group, or -1.
+	 * @param passenger The id of the passenger in their store, or -1.
+	 * @return {@code true} if all of them are the recorded ones.
+	 */
+	public boolean matches(long index, long time, SimEventType type, int shaftIndex, int floorIndex, int passenger) {
+		if (index < 0 || index >= size) {
+			return false;
+		}
+
+		var region = regionOf(index);
+		var offset = offsetOf(index);
+		return region.getLong(offset) == time
+				&& region.getInt(offset + 8) == type.ordinal()
+				&& region.getInt(offset + 12) == shaftIndex
+				&& region.getInt(offset + 16) == floorIndex
+				&& region.getInt(offset + 20) == passenger;
+	}
+
+	/**
+	 * Describes a recorded event for humans.
+	 * @param index The index of the record, may be beyond the end of the trace.
+	 * @return The description, e.g. {@code #1234 at 567.890 s: CarMove, shaft 0, floor 3}.
+	 */
+	public String describe(long index) {
+		if (index < 0 || index >= size) {
+			return "#" + index + ": end of trace";
+		}
+
+		return describe(index, getTime(index), getType(index), getShaftIndex(index), getFloorIndex(index), getPassenger(index));
+	}
+
+	/**
+	 * Describes a recorded arrival for humans.
+	 * @param index The index of the arrival record, may be beyond the end of the trace.
+	 * @return The description, e.g. {@code arrival #12 at 34.000 s: passenger 5, floor 2 to floor 7}.
+	 */
+	public String describeArrival(long index) {
+		if (index < 0 || index >= arrivalCount) {
+			return "arrival #" + index + ": end of trace";
+		}
+
+		return "arrival #" + index + " at " + String.format("%.3f s", getArrivalTime(index) / 1000.0)
+				+ ": passenger " + getArrivalPassenger(index)
+				+ ", floor " + getArrivalStartFloorIndex(index) + " to floor " + getArrivalDestinationFloorIndex(index);
+	}
+
+	/**
+	 * Finds the first event in which two traces differ, comparing the records in bulk.
+	 * @param first The first trace.
+	 * @param second The second trace.
+	 * @return The index of the first record that differs or that only one of the traces has, or -1 if the traces are identical.
+	 */
+	public static long findDivergence(EventTraceReader first, EventTraceReader second) {
+		var regionCount = Math.min(first.regions.length, second.regions.length);
+		for (int i = 0; i < regionCount; i++) {
+			var mismatch = first.regions[i].mismatch(second.regions[i]);
+			if (mismatch >= 0) {
+				return (long) i * EventTraceWriter.REGION_RECORDS + mismatch / EventTraceWriter.RECORD_SIZE;
+			}
+		}
+		return first.size == second.size ? -1 : Math.min(first.size, second.size);
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * Maps a section of the trace in regions of the given size, the last one holding the rest.
+	 */
+	private MappedByteBuffer[] map(long position, long length, long regionSize) throws IOException {
+		var regionCount = (int) ((length + regionSize - 1) / regionSize);
+		var mapped = new MappedByteBuffer[regionCount];
+		for (int i = 0; i < regionCount; i++) {
+			var offset = i * regionSize;
+			mapped[i] = channel.map(FileChannel.MapMode.READ_ONLY, position + offset, Math.min(regionSize, length - offset));
+		}
+		return mapped;
+	}
+
+	private MappedByteBuffer arrivalRegionOf(long index) {
+		if (index < 0 || index >= arrivalCount) {
+			throw new IndexOutOfBoundsException("index");
+		}
+		return arrivalRegions[(int) (index / EventTraceWriter.REGION_RECORDS)];
+	}
+
+	private static int arrivalOffsetOf(long index) {
+		return (int) (index % EventTraceWriter.REGION_RECORDS) * EventTraceWriter.ARRIVAL_SIZE;
+	}
+
+	private MappedByteBuffer regionOf(long index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("index");
+		}
+		return regions[(int) (index / EventTraceWriter.REGION_RECORDS)];
+	}
+
+	private static int offsetOf(long index) {
+		return (int) (index % EventTraceWriter.REGION_RECORDS) * EventTraceWriter.RECORD_SIZE;
+	}
+
+	/**
+	 * Describes an event for humans, in the same form as a recorded one.
+	 * @param index The number of events processed before it.
+	 * @param time Milliseconds since the simulation start.
+	 * @param type The type of the event, or {@code null} if it is unknown.
+	 * @param shaftIndex The index of the shaft in its group, or -1.
+	 * @param floorIndex The index of the floor in its group, or -1.
+	 * @param passenger The id of the passenger in their store, or -1.
+	 * @return The description.
+	 */
+	public static String describe(long index, long time, SimEventType type, int shaftIndex, int floorIndex, int passenger) {
+		return "#" + index + " at " + String.format("%.3f s", time / 1000.0) + ": "
+				+ (type != null ? type.toString() : "unknown type")
+				+ describeIndex(", shaft ", shaftIndex)
+				+ describeIndex(", floor ", floorIndex)
+				+ describeIndex(", passenger ", passenger);
+	}
+
+	private static String describeIndex(String label, int value) {
+		return value >= 0 ? label + value : "";
+	}
+}
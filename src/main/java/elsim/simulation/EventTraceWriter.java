@@ -0,0 +1,178 @@
+package main.java.elsim.simulation;
+
+import main.java.elsim.simulation.events.SimEventType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Records every event processed by a simulation to a binary trace file, which is mapped into memory region by region.
+ *
+ * A trace starts with a header of the magic number, the format version, the seed of the simulation, the number of events
+ * and the number of arrivals, followed by one record of 24 bytes per event: its time, type, shaft, floor and passenger,
+ * -1 for those it is not about. For the events of a car, the floor is the one the car is at.
+ * The events are followed by one record of 36 bytes per arrival of a new passenger, everything a replay needs instead of
+ * drawing them: the time of the arrival, the id of the passenger, their starting and destination floor, their footprint
+ * in g and cm², and their change and patience time in ms. Arrivals are buffered in a temporary file next to the trace
+ * until {@code close} appends them.
+ * Records are written in big-endian order in the order the events are processed and the arrivals are scheduled.
+ * The numbers of events and arrivals are only written by {@code close}, a trace without them is incomplete and cannot be read.
+ * @see EventTraceReader
+ * @see Simulation#setEventTrace(EventTraceWriter)
+ */
+public final class EventTraceWriter implements Closeable {
+	static final int MAGIC = 0x454C5354;		// "ELST"
+	static final int VERSION = 2;
+	static final int HEADER_SIZE = 32;
+	static final int COUNT_POSITION = 16;
+	static final int ARRIVAL_COUNT_POSITION = 24;
+	static final int RECORD_SIZE = 24;
+	static final int ARRIVAL_SIZE = 36;
+	static final int REGION_RECORDS = 1 << 20;
+	static final long REGION_SIZE = (long) REGION_RECORDS * RECORD_SIZE;
+	static final long ARRIVAL_REGION_SIZE = (long) REGION_RECORDS * ARRIVAL_SIZE;
+
+	private final FileChannel channel;
+	private final FileChannel arrivalChannel;
+	private final CheckpointWriter arrivals;
+	private MappedByteBuffer region;
+	private long regionPosition;
+	private long count;
+	private long arrivalCount;
+
+	/**
+	 * Creates a writer, replacing an existing file.
+	 * @param file The trace file.
+	 * @param seed The seed of the simulation whose events are recorded, to tell traces apart.
+	 * @throws IOException When the file or its temporary file of arrivals cannot be created.
+	 */
+	public EventTraceWriter(Path file, int seed) throws IOException {
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			this.arrivalChannel = FileChannel.open(file.resolveSibling(file.getFileName() + ".arrivals.tmp"),
+					StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.DELETE_ON_CLOSE);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+		this.arrivals = new CheckpointWriter(arrivalChannel);
+
+		var header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(MAGIC).putInt(VERSION).putInt(seed).putInt(0).putLong(-1).putLong(-1);
+		header.flip();
+		while (header.hasRemaining()) {
+			channel.write(header);
+		}
+
+		this.regionPosition = HEADER_SIZE;
+		this.region = channel.map(FileChannel.MapMode.READ_WRITE, regionPosition, REGION_SIZE);
+	}
+
+	/**
+	 * Appends the record of an event, mapping the next region of the file first if the current one is full.
+	 * @param time Milliseconds since the simulation start.
+	 * @param type The type of the event.
+	 * @param shaftIndex The index of the shaft in its group, or -1.
+	 * @param floorIndex The index of the floor in its group, or -1.
+	 * @param passenger The id of the passenger in their store, or -1.
+	 * @throws IOException When the next region cannot be mapped.
+	 */
+	public void record(long time, SimEventType type, int shaftIndex, int floorIndex, int passenger) throws IOException {
+		if (!region.hasRemaining()) {
+			regionPosition += REGION_SIZE;
+			region = channel.map(FileChannel.MapMode.READ_WRITE, regionPosition, REGION_SIZE);
+		}
+
+		region.putLong(time);
+		region.putInt(type.ordinal());
+		region.putInt(shaftIndex);
+		region.putInt(floorIndex);
+		region.putInt(passenger);
+		count++;
+	}
+
+	/**
+	 * Appends the record of a new passenger whose arrival has been scheduled.
+	 * @param time Milliseconds since the simulation start at which the passenger arrives.
+	 * @param passenger The id of the passenger in their store.
+	 * @param startFloorIndex The index of the floor the passenger arrives at in its group.
+	 * @param destinationFloorIndex The index of the floor the passenger wants to go to in its group.
+	 * @param footprintMass The mass of the passenger together with their items in g.
+	 * @param footprintArea The area required by the passenger together with their items in cm².
+	 * @param timeChange The time the passenger needs to enter or leave a car in ms.
+	 * @param timePatience The time the passenger waits for a car in ms.
+	 * @throws IOException When the temporary file of arrivals cannot be written.
+	 */
+	public void recordArrival(long time, int passenger, int startFloorIndex, int destinationFloorIndex,
+			int footprintMass, int footprintArea, int timeChange, int timePatience) throws IOException {
+		arrivals.writeLong(time);
+		arrivals.writeInt(passenger);
+		arrivals.writeInt(startFloorIndex);
+		arrivals.writeInt(destinationFloorIndex);
+		arrivals.writeInt(footprintMass);
+		arrivals.writeInt(footprintArea);
+		arrivals.writeInt(timeChange);
+		arrivals.writeInt(timePatience);
+		arrivalCount++;
+	}
+
+	/**
+	 * Gets the number of events recorded so far.
+	 * @return The number of records.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Gets the number of arrivals recorded so far.
+	 * @return The number of arrival records.
+	 */
+	public long getArrivalCount() {
+		return arrivalCount;
+	}
+
+	/**
+	 * Completes the trace by appending the arrivals to the events, writing the numbers of both
+	 * and cutting off the unused rest of the last region. The temporary file of arrivals is deleted.
+	 * @throws IOException When the trace cannot be completed.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (!channel.isOpen()) {
+			return;
+		}
+
+		try (arrivalChannel) {
+			region.force();
+
+			var arrivalPosition = HEADER_SIZE + count * RECORD_SIZE;
+			var arrivalLength = arrivalCount * ARRIVAL_SIZE;
+			arrivals.flush();
+			for (long copied = 0; copied < arrivalLength; ) {
+				copied += arrivalChannel.transferTo(copied, arrivalLength - copied, channel.position(arrivalPosition + copied));
+			}
+
+			var countBuffer = ByteBuffer.allocate(2 * Long.BYTES).putLong(0, count).putLong(Long.BYTES, arrivalCount);
+			while (countBuffer.hasRemaining()) {
+				channel.write(countBuffer, COUNT_POSITION + countBuffer.position());
+			}
+
+			try {
+				channel.truncate(arrivalPosition + arrivalLength);
+			} catch (IOException e) {
+				// some platforms cannot truncate a file that is still mapped, the header tells the readers where the trace ends
+			}
+			channel.force(true);
+		} finally {
+			channel.close();
+		}
+	}
+}
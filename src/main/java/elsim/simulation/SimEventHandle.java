@@ -0,0 +1,21 @@
+package main.java.elsim.simulation;
+
+/**
+ * A handle to a scheduled simulation event, as returned by {@code Simulation.addSimEventMillis}.
+ * It allows cancelling the event before it is processed.
+ * @see Simulation#addSimEventMillis(long, main.java.elsim.simulation.events.AbstractSimEvent)
+ */
+public interface SimEventHandle {
+	/**
+	 * Cancels the event so it will not be processed.
+	 * Cancelled events stay in the event queue as tombstones and are discarded when they are reached.
+	 * @return {@code true} if the event was pending and has been cancelled, {@code false} if it had already been processed or cancelled.
+	 */
+	boolean cancel();
+
+	/**
+	 * Gets whether the event has been cancelled.
+	 * @return {@code true} if {@code cancel} has been called successfully.
+	 */
+	boolean isCancelled();
+}
@@ -2,27 +2,95 @@ package main.java.elsim.simulation;
 
 import main.java.elsim.simulation.events.AbstractSimEvent;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
-import java.util.NavigableSet;
-import java.util.TreeSet;
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * A class managing simulation events.
+ *
+ * The pending events are kept in a {@code SimEventQueue}. Which implementation is used can be configured with
+ * the config key {@code SimEventManager.queue}: {@code calendar} (default) or {@code treeset} (reference implementation).
+ * Both yield the identical event order.
+ *
+ * Events can be cancelled through their {@code SimEventHandle}. Cancelled events are left in the queue as tombstones
+ * and skipped by {@code getNextEvent}. Once tombstones make up the majority of the queue, they are purged in one pass.
+ *
+ * Events are retrieved one instant at a time: {@code advanceToNextInstant} moves all events sharing the next timestamp
+ * out of the queue into a FIFO lane in id order and updates the clock once, {@code pollCurrentInstant} hands them out.
+ * Events added for the current instant while it is being processed are appended to the lane without touching the queue.
+ * Since event ids are increasing, this yields the same order as retrieving every event from the queue.
  * @author jbook
  */
 public class SimEventManager {
 	private static final Logger LOGGER = Logger.getLogger(SimEventManager.class.getName());
+	private static final int MIN_TOMBSTONES_TO_PURGE = 64;
 
-	private final NavigableSet<AbstractSimEvent> events;
-	private LocalDateTime lastEventTimestamp;
+	private final SimEventQueue events;
+	private final ArrayDeque<AbstractSimEvent> currentInstant = new ArrayDeque<>();
+	private final LocalDateTime simulationStart;
+	private long lastEventTime;
+	private boolean instantOpen;
+
+	private long queueInsertCount;
+	private long queueRemoveCount;
+	private long sameInstantInsertCount;
+	private long instantCount;
+
+	private int pendingTombstones;
+	private long cancelledEventCount;
+	private SimEventPool eventPool;
+
+	/**
+	 * Creates a new EventManager instance using the event queue implementation selected in the global config.
+	 * @param simulationStart The point at which the simulation starts.
+	 */
+	public SimEventManager(LocalDateTime simulationStart) {
+		this(SimulationContext.getDefault(), simulationStart);
+	}
 
 	/**
-	 * Creates a new EventManager instance.
+	 * Creates a new EventManager instance using the event queue implementation selected in the config of a simulation.
+	 * @param context The context of the simulation this instance belongs to.
+	 * @param simulationStart The point at which the simulation starts.
 	 */
-	public SimEventManager(LocalDateTime simulationStart){
-		events = new TreeSet<>(new SimEventTimestampComparator());
-		this.lastEventTimestamp = simulationStart;
+	public SimEventManager(SimulationContext context, LocalDateTime simulationStart) {
+		this(simulationStart, createQueue(context.getConfig().getEventQueue()));
+	}
+
+	/**
+	 * Creates a new EventManager instance using the given event queue.
+	 * @param simulationStart The point at which the simulation starts.
+	 * @param queue The empty event queue to use.
+	 */
+	public SimEventManager(LocalDateTime simulationStart, SimEventQueue queue) {
+		if (queue == null) {
+			throw new IllegalArgumentException("queue");
+		}
+
+		this.events = queue;
+		this.simulationStart = simulationStart;
+		this.lastEventTime = 0;
+	}
+
+	/**
+	 * Creates an event queue by its config name.
+	 * @param name Either {@code calendar} or {@code treeset}. Unknown names fall back to {@code calendar}.
+	 * @return A new, empty event queue.
+	 */
+	public static SimEventQueue createQueue(String name) {
+		switch (name.toLowerCase()) {
+			case "treeset":
+				return new TreeSetSimEventQueue();
+			case "calendar":
+				return new CalendarSimEventQueue();
+			default:
+				LOGGER.warning("Invalid event queue '" + name + "' supplied in config. Using calendar queue instead.");
+				return new CalendarSimEventQueue();
+		}
 	}
 
 	/**
@@ -30,11 +98,20 @@ public class SimEventManager {
 	 * @param newEvent The new {@code SimEvent} to add.
 	 */
 	public void addEvent(AbstractSimEvent newEvent) throws EventWithoutTimestampException {
-		if (newEvent.getTimestamp() == null) {
+		if (!newEvent.hasTime()) {
 			throw new EventWithoutTimestampException();
 		}
 
-		if (events.add(newEvent)) {
+		if (instantOpen && newEvent.getTime() == lastEventTime) {
+			// the queue holds no more events of the current instant, so the new event is the last one of it
+			currentInstant.addLast(newEvent);
+			sameInstantInsertCount++;
+		} else {
+			events.add(newEvent, newEvent.getTime());
+			queueInsertCount++;
+		}
+		newEvent.setPending(true);
+		if (LOGGER.isLoggable(Level.FINEST)) {
 			LOGGER.finest("An event has been added to the event queue: " + newEvent.getClass().getName());
 		}
 	}
@@ -44,18 +121,211 @@ public class SimEventManager {
 	 * @return The first event in the internal collection of events, based on its timestamp.
 	 */
 	public AbstractSimEvent getNextEvent() {
-		var nextEvent = events.pollFirst();
+		var nextEvent = pollCurrentInstant();
+		while (nextEvent == null && advanceToNextInstant()) {
+			nextEvent = pollCurrentInstant();
+		}
+		return nextEvent;
+	}
+
+	/**
+	 * Moves all events of the next instant from the queue into the current instant and sets the clock to it.
+	 * Does nothing while events of the current instant are left.
+	 * @return {@code false} if there are no more events.
+	 */
+	public boolean advanceToNextInstant() {
+		if (!currentInstant.isEmpty()) {
+			return true;
+		}
+
+		var first = events.poll();
+		if (first == null) {
+			return false;
+		}
+
+		queueRemoveCount++;
+		lastEventTime = first.getTime();
+		instantOpen = true;
+		instantCount++;
+		currentInstant.addLast(first);
+
+		var next = events.peek();
+		while (next != null && next.getTime() == lastEventTime) {
+			events.poll();
+			queueRemoveCount++;
+			currentInstant.addLast(next);
+			next = events.peek();
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the next event of the current instant, including events that have been added for it while it is processed.
+	 * Cancelled events are skipped and returned to the event pool, if there is one.
+	 * @return The next event in id order, or {@code null} when the current instant has been processed completely.
+	 */
+	public AbstractSimEvent pollCurrentInstant() {
+		var nextEvent = currentInstant.pollFirst();
+		while (nextEvent != null && nextEvent.isCancelled()) {
+			nextEvent.setPending(false);
+			pendingTombstones--;
+			if (eventPool != null) {
+				eventPool.release(nextEvent);
+			}
+			nextEvent = currentInstant.pollFirst();
+		}
+
 		if (nextEvent != null) {
-			lastEventTimestamp = nextEvent.getTimestamp();
+			nextEvent.setPending(false);
 		}
 		return nextEvent;
 	}
 
+	/**
+	 * Sets the pool that cancelled events are returned to once they have been skipped.
+	 * Tombstones that are purged from the queue in bulk are left to the garbage collector.
+	 * @param eventPool The event pool of the simulation.
+	 */
+	void setEventPool(SimEventPool eventPool) {
+		this.eventPool = eventPool;
+	}
+
+	/**
+	 * Notifies this instance that one of its pending events has been cancelled.
+	 * Only to be used by {@code AbstractSimEvent.cancel}.
+	 */
+	public void eventCancelled() {
+		cancelledEventCount++;
+		pendingTombstones++;
+
+		if (pendingTombstones >= MIN_TOMBSTONES_TO_PURGE && 2 * pendingTombstones > events.size() + currentInstant.size()) {
+			var removed = events.removeCancelled();
+			pendingTombstones -= removed;
+			if (LOGGER.isLoggable(Level.FINEST)) {
+				LOGGER.finest("Purged " + removed + " cancelled events from the event queue.");
+			}
+		}
+	}
+
+	/**
+	 * Performs an action for every event that is waiting to be processed, in no particular order. Cancelled events are skipped.
+	 * @param action The action to perform, which must not add or retrieve events.
+	 */
+	void forEachPending(Consumer<? super AbstractSimEvent> action) {
+		Consumer<AbstractSimEvent> pending = event -> {
+			if (!event.isCancelled()) {
+				action.accept(event);
+			}
+		};
+		currentInstant.forEach(pending);
+		events.forEach(pending);
+	}
+
+	/**
+	 * Adds an event that has been restored from a checkpoint to the event queue, without counting it as an insertion.
+	 * @param event The restored event, with the time and id it has been written with.
+	 */
+	void restoreEvent(AbstractSimEvent event) {
+		events.add(event, event.getTime());
+		event.setPending(true);
+	}
+
+	/**
+	 * Writes the clock and the counters of this instance to a checkpoint. The pending events are written by the simulation.
+	 * @param out The checkpoint to write to.
+	 * @throws IOException When the checkpoint cannot be written.
+	 */
+	void writeState(CheckpointWriter out) throws IOException {
+		out.writeLong(lastEventTime);
+		out.writeLong(queueInsertCount);
+		out.writeLong(queueRemoveCount);
+		out.writeLong(sameInstantInsertCount);
+		out.writeLong(instantCount);
+		out.writeLong(cancelledEventCount);
+	}
+
+	/**
+	 * Restores the clock and the counters written by {@code writeState}. The current instant is closed,
+	 * so that events restored for the time of the clock are retrieved from the queue like any later ones.
+	 * @param in The checkpoint to read from.
+	 * @throws IOException When the checkpoint cannot be read.
+	 */
+	void readState(CheckpointReader in) throws IOException {
+		if (!currentInstant.isEmpty() || events.size() > 0) {
+			throw new IllegalStateException("events have already been added.");
+		}
+
+		lastEventTime = in.readLong();
+		queueInsertCount = in.readLong();
+		queueRemoveCount = in.readLong();
+		sameInstantInsertCount = in.readLong();
+		instantCount = in.readLong();
+		cancelledEventCount = in.readLong();
+		instantOpen = false;
+		pendingTombstones = 0;
+	}
+
+	/**
+	 * Gets the number of events that have been cancelled before being processed.
+	 * @return The number of cancelled events.
+	 */
+	public long getCancelledEventCount() {
+		return cancelledEventCount;
+	}
+
+	/**
+	 * Gets the number of events in the event queue, excluding cancelled events.
+	 * @return The number of events waiting to be processed.
+	 */
+	public int getPendingEventCount() {
+		return events.size() + currentInstant.size() - pendingTombstones;
+	}
+
+	/**
+	 * Gets the number of events that have been inserted into the event queue.
+	 * @return The number of queue insertions.
+	 */
+	public long getQueueInsertCount() {
+		return queueInsertCount;
+	}
+
+	/**
+	 * Gets the number of events that have been removed from the head of the event queue, including cancelled events.
+	 * @return The number of queue removals.
+	 */
+	public long getQueueRemoveCount() {
+		return queueRemoveCount;
+	}
+
+	/**
+	 * Gets the number of events that have been added for the current instant and thus bypassed the event queue.
+	 * @return The number of same-instant insertions.
+	 */
+	public long getSameInstantInsertCount() {
+		return sameInstantInsertCount;
+	}
+
+	/**
+	 * Gets the number of distinct instants the clock has been advanced to.
+	 * @return The number of instants.
+	 */
+	public long getInstantCount() {
+		return instantCount;
+	}
+
 	/**
 	 * Gets the timestamp of the last event that was retrieved from this instance.
-	 * @return A {@code LocalDateTime} instance of the last retrieved event.
+	 * @return A new {@code LocalDateTime} instance of the last retrieved event.
 	 */
 	public LocalDateTime getCurrentTimestamp() {
-		return lastEventTimestamp;
+		return simulationStart.plusNanos(lastEventTime * 1_000_000L);
+	}
+
+	/**
+	 * Gets the simulation time of the last event that was retrieved from this instance.
+	 * @return Milliseconds since the simulation start.
+	 */
+	public long getCurrentTime() {
+		return lastEventTime;
 	}
 }
@@ -0,0 +1,72 @@
+package main.java.elsim.simulation;
+
+import main.java.elsim.simulation.events.AbstractSimEvent;
+import main.java.elsim.simulation.events.SimEventType;
+
+import java.util.ArrayDeque;
+
+/**
+ * Per-type free lists of processed events that can be reused, so that the steady-state event loop does not allocate event objects.
+ * Each simulation owns one pool. Events are taken with {@code acquire} by the static {@code obtain} methods of the event classes
+ * and returned by the simulation loop after they have been processed.
+ * @see SimEventType#isPooled()
+ */
+public class SimEventPool {
+	private final ArrayDeque<AbstractSimEvent>[] freeEvents;
+	private long reusedCount;
+	private long releasedCount;
+
+	/**
+	 * Creates an empty pool.
+	 */
+	@SuppressWarnings("unchecked")
+	public SimEventPool() {
+		var types = SimEventType.values();
+		this.freeEvents = (ArrayDeque<AbstractSimEvent>[]) new ArrayDeque<?>[types.length];
+		for (int i = 0; i < types.length; i++) {
+			this.freeEvents[i] = new ArrayDeque<>();
+		}
+	}
+
+	/**
+	 * Takes a free event of the given type from the pool.
+	 * The caller has to reinitialize the event before scheduling it.
+	 * @param type The type of event.
+	 * @return A processed event of the given type, or {@code null} if there is none.
+	 */
+	public AbstractSimEvent acquire(SimEventType type) {
+		var event = freeEvents[type.ordinal()].pollLast();
+		if (event != null) {
+			reusedCount++;
+		}
+		return event;
+	}
+
+	/**
+	 * Returns a processed event to the pool. Events of types that are not pooled are ignored.
+	 * @param event The event that has been processed.
+	 */
+	public void release(AbstractSimEvent event) {
+		var type = event.getType();
+		if (type.isPooled()) {
+			freeEvents[type.ordinal()].addLast(event);
+			releasedCount++;
+		}
+	}
+
+	/**
+	 * Gets how many events have been taken from the pool instead of being allocated.
+	 * @return The number of reused events.
+	 */
+	public long getReusedCount() {
+		return reusedCount;
+	}
+
+	/**
+	 * Gets how many events have been returned to the pool.
+	 * @return The number of released events.
+	 */
+	public long getReleasedCount() {
+		return releasedCount;
+	}
+}
@@ -0,0 +1,53 @@
+package main.java.elsim.simulation;
+
+import main.java.elsim.simulation.events.AbstractSimEvent;
+
+import java.util.function.Consumer;
+
+/**
+ * A priority queue of pending simulation events used by the {@code SimEventManager}.
+ *
+ * Implementations must order events by their simulation time first and by their id second,
+ * exactly like {@code SimEventTimestampComparator} does, so that every implementation yields the same event order.
+ * @see SimEventManager
+ * @see SimEventTimestampComparator
+ */
+public interface SimEventQueue {
+	/**
+	 * Adds an event to this queue.
+	 * @param event The event to add.
+	 * @param time The simulation time of the event, as a primitive offset from the simulation start.
+	 */
+	void add(AbstractSimEvent event, long time);
+
+	/**
+	 * Gets and removes the first event of this queue.
+	 * @return The first event, or {@code null} if this queue is empty.
+	 */
+	AbstractSimEvent poll();
+
+	/**
+	 * Gets the first event of this queue without removing it.
+	 * @return The first event, or {@code null} if this queue is empty.
+	 */
+	AbstractSimEvent peek();
+
+	/**
+	 * Removes all cancelled events from this queue.
+	 * @return The number of removed events.
+	 */
+	int removeCancelled();
+
+	/**
+	 * Performs an action for every event of this queue, including cancelled events, in no particular order.
+	 * The queue must not be changed by the action.
+	 * @param action The action to perform.
+	 */
+	void forEach(Consumer<? super AbstractSimEvent> action);
+
+	/**
+	 * Gets the number of events in this queue.
+	 * @return The number of queued events.
+	 */
+	int size();
+}
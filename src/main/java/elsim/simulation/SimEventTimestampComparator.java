@@ -14,7 +14,7 @@ public class SimEventTimestampComparator implements Comparator<AbstractSimEvent>
 	 */
 	@Override
 	public int compare(AbstractSimEvent o1, AbstractSimEvent o2) {
-		var cprTimestamp = o1.getTimestamp().compareTo(o2.getTimestamp());
+		var cprTimestamp = Long.compare(o1.getTime(), o2.getTime());
 		if (cprTimestamp != 0) {
 			return cprTimestamp;
 		}
@@ -1,22 +1,52 @@
 package main.java.elsim.simulation;
 
+import main.java.elsim.models.ElevatorGroup;
 import main.java.elsim.models.ElevatorShaft;
+import main.java.elsim.models.Floor;
+import main.java.elsim.models.PassengerArrivalGenerator;
 import main.java.elsim.simulation.events.AbstractSimEvent;
 import main.java.elsim.simulation.events.DoorOpenSimEvent;
-import main.java.elsim.simulation.events.PassengerLeavesFloorSimEvent;
-
-import java.time.Duration;
+import main.java.elsim.simulation.events.PassengerArrivesAtFloorEvent;
+import main.java.elsim.statistics.TripStatistics;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 /**
  * Contains all information needed to run a simulation and handles the basic simulation logic.
  *
- * The methods {@code initialize} and {@code run} are the public interfaces for simulation.
- * All needed information should be supplied as parameters for the {@code initialize} method call.
+ * A simulation is created with its own {@code SimulationContext}, models and event manager, prepared with {@code initialize()}
+ * and then started with {@code execute()}. Simulations created this way are independent of each other
+ * and can run concurrently in one JVM, one simulation per thread.
+ *
+ * The static methods {@code initialize} and {@code run} are kept as a compatibility layer around a single global instance:
+ * All needed information should be supplied as parameters for the static {@code initialize} method call.
  * Then, {@code run} can be called to start the simulation.
  * To configure logging output, the static logging interfaces should be used.
  *
+ * Internally, points in time are primitive simulation times in milliseconds since the simulation start.
+ * Events of pooled types are recycled through a {@code SimEventPool} after being processed,
+ * so the event loop itself does not allocate in steady state.
+ * Events are processed one instant at a time, see {@code SimEventManager.advanceToNextInstant}.
+ *
+ * The complete state of a simulation can be written to a checkpoint with {@code writeCheckpoint}, also periodically while it runs,
+ * and a new simulation of the same config continues from it with {@code resume} instead of {@code initialize}.
+ * The resumed simulation processes the same events in the same order as the original one.
+ *
+ * Every event processed by {@code execute} and every new passenger can be recorded to a trace with {@code setEventTrace},
+ * and a later run can be checked against such a trace with {@code setExpectedTrace}, which stops it before the first event
+ * that differs from the recorded one. With {@code setReplayTrace}, the run is checked the same way, but takes its passengers
+ * from the trace instead of drawing them, so the models are driven by the recorded arrivals.
+ *
  * @author jbook
  */
 public class Simulation {
@@ -24,13 +54,31 @@ public class Simulation {
 
 	private static Simulation instance;
 
+	private final SimulationContext context;
+
 	private final LocalDateTime simulationStart;
 	private final LocalDateTime simulationEnd;
 
-	private final ElevatorShaft elevatorShaft;
+	private final ElevatorGroup elevatorGroup;
 	private final SimEventManager eventManager;
+	private final SimEventPool eventPool = new SimEventPool();
+	private final TripStatistics statistics;
 
+	private boolean simulationIsInitialized = false;
 	private boolean simulationIsRunning = false;
+	private boolean carsAreStarted = false;
+	private Path checkpointFile;
+	private long checkpointInterval;
+	private EventTraceWriter eventTrace;
+	private EventTraceReader expectedTrace;
+	private long expectedTraceIndex;
+	private long traceDivergence = -1;
+	private boolean replaying;
+	private long replayedArrivalCount;
+	private long executedEventCount;
+	private long deliveredPassengerCount;
+	private long abandonedPassengerCount;
+	private long eventIdCounter;
 
 	/**
 	 * Gets the singleton {@code Simulation} instance if it exists, and throws a {@code SimulationNotInitializedException} when it doesn't.
@@ -47,6 +95,7 @@ public class Simulation {
 
 	/**
 	 * Initializes the static {@code Simulation} instance with all information necessary for running the simulation.
+	 * The instance uses the default {@code SimulationContext}.
 	 * @param shaft The elevator shaft to simulate.
 	 * @param eventManager The event manager to use for simulation events.
 	 * @param start The point at which the simulation starts.
@@ -58,30 +107,58 @@ public class Simulation {
 			throw new SimulationAlreadyInitializedException();
 		}
 
-		instance = new Simulation(shaft, eventManager, start, end);
+		instance = new Simulation(SimulationContext.getDefault(), shaft, eventManager, start, end);
+		instance.initialize();
+	}
 
-		for (var f : instance.elevatorShaft.getFloors()) {
-			try {
-				f.loadPassengers(instance, instance.elevatorShaft);
-			}
-			catch (SimulationNotInitializedException ignored) {} // literally impossible
-		}
+	/**
+	 * Start the static simulation instance.
+	 * @throws SimulationAlreadyRunningException Thrown when this method has been called before.
+	 * @throws SimulationNotInitializedException Thrown when {@code initialize} has not been called before calling this method.
+	 */
+	public static void run() throws SimulationAlreadyRunningException, SimulationNotInitializedException {
+		getInstance().execute();
+	}
 
-		LOGGER.info("Simulation has been initialized.");
+	/**
+	 * Creates a simulation that is independent of the static instance.
+	 * @param context The context holding config and random number generator of this simulation.
+	 * @param shaft The elevator shaft to simulate. Has to be created with the same context.
+	 * @param eventManager The event manager to use for simulation events. Has to be created with the same context.
+	 * @param simStart The point at which the simulation starts.
+	 * @param simEnd The point at which the simulation ends, even when there are still events after this point in time.
+	 */
+	public Simulation(SimulationContext context, ElevatorShaft shaft, SimEventManager eventManager, LocalDateTime simStart, LocalDateTime simEnd) {
+		this(context, groupOf(shaft), eventManager, simStart, simEnd);
 	}
 
-	private Simulation(ElevatorShaft shaft, SimEventManager eventManager, LocalDateTime simStart, LocalDateTime simEnd) {
-		if (shaft == null) {
-			throw new IllegalArgumentException("shaft");
+	/**
+	 * Creates a simulation of a group of elevator shafts that is independent of the static instance.
+	 * @param context The context holding config and random number generator of this simulation.
+	 * @param group The elevator group to simulate. Has to be created with the same context.
+	 * @param eventManager The event manager to use for simulation events. Has to be created with the same context.
+	 * @param simStart The point at which the simulation starts.
+	 * @param simEnd The point at which the simulation ends, even when there are still events after this point in time.
+	 */
+	public Simulation(SimulationContext context, ElevatorGroup group, SimEventManager eventManager, LocalDateTime simStart, LocalDateTime simEnd) {
+		if (context == null) {
+			throw new IllegalArgumentException("context");
+		}
+
+		this.context = context;
+
+		if (group == null || group.getShafts().isEmpty()) {
+			throw new IllegalArgumentException("group");
 		}
 
-		this.elevatorShaft = shaft;
+		this.elevatorGroup = group;
 
 		if (eventManager == null) {
 			throw new IllegalArgumentException("eventManager");
 		}
 
 		this.eventManager = eventManager;
+		eventManager.setEventPool(this.eventPool);
 
 		if (simStart == null) {
 			throw new IllegalArgumentException("simStart");
@@ -94,79 +171,551 @@ public class Simulation {
 		}
 
 		this.simulationEnd = simEnd;
+
+		if (context.getConfig().isStatisticsEnabled()) {
+			this.statistics = new TripStatistics(group.getFloors(), context.getPassengers(), eventManager);
+		} else {
+			this.statistics = null;
+		}
+		for (var shaft : group.getShafts()) {
+			shaft.getElevatorCar().setStatistics(this.statistics);
+		}
+	}
+
+	private static ElevatorGroup groupOf(ElevatorShaft shaft) {
+		if (shaft == null) {
+			throw new IllegalArgumentException("shaft");
+		}
+
+		return shaft.getGroup();
+	}
+
+	/**
+	 * Prepares this simulation by scheduling the passengers' arrivals.
+	 * With the config key {@code Floor.arrivals} set to {@code preload} (default), all passengers of the whole simulation are created up front.
+	 * With {@code streaming}, each floor only schedules its next arrival, which keeps memory independent of the simulated period.
+	 * @throws SimulationAlreadyInitializedException When this method is called more than once.
+	 */
+	public void initialize() throws SimulationAlreadyInitializedException {
+		if (simulationIsInitialized) {
+			throw new SimulationAlreadyInitializedException();
+		}
+
+		simulationIsInitialized = true;
+
+		var streaming = context.getConfig().isStreamingArrivals();
+
+		var floors = elevatorGroup.getFloors();
+		if (streaming) {
+			for (var f : floors) {
+				f.startPassengerArrivals(this, elevatorGroup);
+			}
+		} else if (replaying) {
+			for (var f : floors) {
+				f.replayArrivals(this, elevatorGroup);
+			}
+		} else {
+			// every floor draws from its own random streams, so creating the passengers in parallel gives the same result.
+			// The arrivals are scheduled one floor after another, which keeps the event ids independent of the threads.
+			var arrivals = floors.parallelStream()
+					.map(f -> f.createArrivals(this, elevatorGroup))
+					.collect(Collectors.toList());
+			for (int i = 0; i < floors.size(); i++) {
+				floors.get(i).scheduleArrivals(this, elevatorGroup, arrivals.get(i));
+			}
+		}
+
+		LOGGER.info("Simulation has been initialized.");
+	}
+
+	/**
+	 * Prepares this simulation by restoring the complete state of a checkpoint written by {@code writeCheckpoint}, instead of {@code initialize}.
+	 * The simulation has to be created from the config the checkpoint has been written with; floors, cars and seed are checked.
+	 * {@code execute} then continues exactly where the checkpoint has been written, up to the end of this simulation.
+	 * @param checkpoint The checkpoint file.
+	 * @throws IOException When the checkpoint cannot be read or does not match this simulation, which cannot be used anymore then.
+	 * @throws SimulationAlreadyInitializedException When this method or {@code initialize} has been called before.
+	 */
+	public void resume(Path checkpoint) throws IOException, SimulationAlreadyInitializedException {
+		if (simulationIsInitialized) {
+			throw new SimulationAlreadyInitializedException();
+		}
+
+		simulationIsInitialized = true;
+
+		try (var channel = FileChannel.open(checkpoint, StandardOpenOption.READ)) {
+			SimulationCheckpoint.read(this, new CheckpointReader(channel));
+		}
+
+		LOGGER.info(String.format("Simulation has been resumed from '%s' at %s.", checkpoint, eventManager.getCurrentTimestamp()));
+	}
+
+	/**
+	 * Writes the complete state of this simulation to a checkpoint, from which a new simulation can continue with {@code resume}.
+	 * Only to be called between two events, e.g. before or after {@code execute}. Writing takes time proportional to the live state:
+	 * pending events, waiting and riding passengers, floors and cars.
+	 * The checkpoint is written to a temporary file next to the given one, which is replaced once the checkpoint is complete,
+	 * so an existing checkpoint survives a failure or crash while writing.
+	 * @param file The checkpoint file.
+	 * @throws IOException When the checkpoint cannot be written.
+	 */
+	public void writeCheckpoint(Path file) throws IOException {
+		var temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+		try (var channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			SimulationCheckpoint.write(this, new CheckpointWriter(channel));
+			channel.force(true);
+		}
+		Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Makes {@code execute} write a checkpoint periodically, after all events of an instant have been processed.
+	 * @param file The checkpoint file, replaced by each new checkpoint, or {@code null} to write none.
+	 * @param intervalMillis The simulated time between two checkpoints in milliseconds.
+	 */
+	public void setCheckpointFile(Path file, long intervalMillis) {
+		if (file != null && intervalMillis <= 0) {
+			throw new IllegalArgumentException("intervalMillis");
+		}
+
+		this.checkpointFile = file;
+		this.checkpointInterval = intervalMillis;
+	}
+
+	/**
+	 * Makes {@code execute} record every event to a trace before it is processed, and this simulation record every new passenger
+	 * when their arrival is scheduled. To record the passengers created by {@code initialize}, it has to be called before.
+	 * The trace is not closed by this simulation.
+	 * @param trace The trace to record to, or {@code null} to record none.
+	 */
+	public void setEventTrace(EventTraceWriter trace) {
+		this.eventTrace = trace;
+	}
+
+	/**
+	 * Makes {@code execute} check every event against a trace before it is processed. The first event that differs from
+	 * the recorded one is not processed anymore and ends the run, so the models are left in the state right before it.
+	 * A run that ends before all recorded events have been processed differs as well.
+	 * The trace is not closed by this simulation.
+	 * @param trace The trace recorded by an earlier run, from the same start or checkpoint, or {@code null} to check none.
+	 */
+	public void setExpectedTrace(EventTraceReader trace) {
+		this.expectedTrace = trace;
+		this.expectedTraceIndex = 0;
+		this.traceDivergence = -1;
+		this.replaying = false;
+	}
+
+	/**
+	 * Makes this simulation replay a trace: every event is checked against it like with {@code setExpectedTrace}, and the passengers
+	 * are not drawn from the random number generator but created from the recorded arrivals, at the points the recording run has
+	 * created them, so they get the same ids and their arrivals the same events. Only the amount of passengers of each floor is
+	 * still drawn, so the simulation has to be created from the config and seed the trace has been recorded with.
+	 * A recorded passenger who does not fit the run, i.e. starts at another floor, gets another id or would have arrived already,
+	 * ends it before the next event.
+	 * Has to be called before {@code initialize} or {@code resume}. The trace is not closed by this simulation.
+	 * @param trace The trace recorded by an earlier run, from the same start or checkpoint.
+	 * @throws SimulationAlreadyInitializedException When {@code initialize} or {@code resume} has been called before.
+	 */
+	public void setReplayTrace(EventTraceReader trace) throws SimulationAlreadyInitializedException {
+		if (trace == null) {
+			throw new IllegalArgumentException("trace");
+		}
+		if (simulationIsInitialized) {
+			throw new SimulationAlreadyInitializedException();
+		}
+
+		setExpectedTrace(trace);
+		this.replaying = true;
+		this.replayedArrivalCount = 0;
+	}
+
+	/**
+	 * Checks whether the passengers of this simulation are created from a replayed trace instead of being drawn.
+	 * @return {@code true} if {@code setReplayTrace} has been called.
+	 */
+	public boolean isReplaying() {
+		return replaying;
+	}
+
+	/**
+	 * Schedules the arrival of a new passenger at their starting floor, and records the passenger to the event trace if there is one.
+	 * @param millisFromNow The offset in milliseconds after which the passenger arrives.
+	 * @param passenger The id of the passenger in the passenger store of this simulation.
+	 * @param floor The starting floor of the passenger.
+	 * @param group The elevator group the passenger wants to use.
+	 * @param generator The generator of the floor's arrivals that schedules the next one, or {@code null}.
+	 */
+	public void scheduleArrival(long millisFromNow, int passenger, Floor floor, ElevatorGroup group, PassengerArrivalGenerator generator) {
+		addSimEventMillis(millisFromNow, PassengerArrivesAtFloorEvent.obtain(this, passenger, floor, group, generator));
+
+		if (eventTrace != null) {
+			var passengers = context.getPassengers();
+			try {
+				eventTrace.recordArrival(eventManager.getCurrentTime() + millisFromNow, passenger, floor.getIndex(),
+						passengers.getFloorDestination(passenger).getIndex(), passengers.getFootprintMass(passenger),
+						passengers.getFootprintArea(passenger), passengers.getTimeChange(passenger), passengers.getTimePatience(passenger));
+			} catch (IOException e) {
+				// the simulation itself is not affected, it goes on without the rest of the trace
+				LOGGER.severe("Event trace could not be written: " + e);
+				eventTrace = null;
+			}
+		}
+	}
+
+	/**
+	 * Creates the next passenger recorded in the replayed trace instead of drawing them, and schedules their arrival at the recorded time.
+	 * Does nothing once the run has diverged from the trace.
+	 * @param floor The floor whose next passenger is created.
+	 * @param group The elevator group the passenger wants to use.
+	 * @param generator The generator of the floor's arrivals that schedules the next one, or {@code null}.
+	 * @see #setReplayTrace(EventTraceReader)
+	 */
+	public void replayArrival(Floor floor, ElevatorGroup group, PassengerArrivalGenerator generator) {
+		if (!replaying) {
+			throw new IllegalStateException("simulation does not replay a trace.");
+		}
+		if (traceDivergence >= 0) {
+			return;
+		}
+
+		var index = replayedArrivalCount++;
+		var now = eventManager.getCurrentTime();
+		if (index >= expectedTrace.getArrivalCount() || expectedTrace.getArrivalStartFloorIndex(index) != floor.getIndex()
+				|| expectedTrace.getArrivalTime(index) < now) {
+			reportArrivalDivergence(index, String.format("arrival #%d at %.3f s or later: floor %d", index, now / 1000.0, floor.getIndex()));
+			return;
+		}
+
+		var passengers = context.getPassengers();
+		var passenger = passengers.add(floor, group.getFloors().get(expectedTrace.getArrivalDestinationFloorIndex(index)),
+				expectedTrace.getArrivalFootprintMass(index), expectedTrace.getArrivalFootprintArea(index),
+				expectedTrace.getArrivalTimeChange(index), expectedTrace.getArrivalTimePatience(index));
+		if (passenger != expectedTrace.getArrivalPassenger(index)) {
+			passengers.release(passenger);
+			reportArrivalDivergence(index, String.format("arrival #%d: passenger %d", index, passenger));
+			return;
+		}
+
+		scheduleArrival(expectedTrace.getArrivalTime(index) - now, passenger, floor, group, generator);
+	}
+
+	/**
+	 * Gets where {@code execute} has differed from the expected trace.
+	 * @return The index of the first record that differs or before which a replayed arrival has not fit the run,
+	 * or -1 if the run has matched the trace or none has been set.
+	 */
+	public long getTraceDivergence() {
+		return traceDivergence;
+	}
+
+	/**
+	 * Writes the counters of this simulation, the id of its next event and whether its cars have been started to a checkpoint.
+	 * @param out The checkpoint to write to.
+	 * @throws IOException When the checkpoint cannot be written.
+	 */
+	void writeState(CheckpointWriter out) throws IOException {
+		out.writeLong(eventIdCounter);
+		out.writeLong(executedEventCount);
+		out.writeLong(deliveredPassengerCount);
+		out.writeLong(abandonedPassengerCount);
+		out.writeBoolean(carsAreStarted);
+	}
+
+	/**
+	 * Restores the state written by {@code writeState}, after all restored events have been created.
+	 * @param in The checkpoint to read from.
+	 * @throws IOException When the checkpoint cannot be read.
+	 */
+	void readState(CheckpointReader in) throws IOException {
+		eventIdCounter = in.readLong();
+		executedEventCount = in.readLong();
+		deliveredPassengerCount = in.readLong();
+		abandonedPassengerCount = in.readLong();
+		carsAreStarted = in.readBoolean();
 	}
 
 	/**
 	 * Add an event to the simulation's event queue.
 	 * @param secondsFromNow The offset in seconds after which to add the event.
 	 * @param simEvent The event to add.
+	 * @return A handle that can be used to cancel the event.
 	 */
-	public void addSimEvent(int secondsFromNow, AbstractSimEvent simEvent) {
-		addSimEvent(Duration.ofSeconds(secondsFromNow), simEvent);
+	public SimEventHandle addSimEvent(int secondsFromNow, AbstractSimEvent simEvent) {
+		return addSimEventMillis(secondsFromNow * 1000L, simEvent);
 	}
 
 	/**
 	 * Add an event to the simulation's event queue.
-	 * @param timeFromNow The offset after which to add the event.
+	 * @param millisFromNow The offset in milliseconds after which to add the event.
 	 * @param simEvent The event to add.
+	 * @return A handle that can be used to cancel the event.
 	 */
-	public void addSimEvent(Duration timeFromNow, AbstractSimEvent simEvent) {
-		var current = eventManager.getCurrentTimestamp();
-		simEvent.setTimestamp(current.plus(timeFromNow));
+	public SimEventHandle addSimEventMillis(long millisFromNow, AbstractSimEvent simEvent) {
+		simEvent.setTime(eventManager.getCurrentTime() + millisFromNow);
 		try {
 			eventManager.addEvent(simEvent);
 		}
 		catch (EventWithoutTimestampException e) {
 			// This should never happen.
 		}
+		return simEvent;
 	}
 
 	/**
-	 * Start the simulation.
+	 * Start this simulation and run it until its end.
 	 * @throws SimulationAlreadyRunningException Thrown when this method has been called before.
 	 * @throws SimulationNotInitializedException Thrown when {@code initialize} has not been called before calling this method.
 	 */
-	public static void run() throws SimulationAlreadyRunningException, SimulationNotInitializedException {
-		var sim = getInstance();
+	public void execute() throws SimulationAlreadyRunningException, SimulationNotInitializedException {
+		if (!simulationIsInitialized) {
+			throw new SimulationNotInitializedException();
+		}
 
-		if (sim.simulationIsRunning) {
+		if (simulationIsRunning) {
 			throw new SimulationAlreadyRunningException();
 		}
 
-		sim.simulationIsRunning = true;
+		simulationIsRunning = true;
 
 		LOGGER.info("");
 		LOGGER.info("*** SIMULATION STARTING ***");
 		LOGGER.info("");
 
-		var eventManager = sim.eventManager;
-
-		var car = sim.elevatorShaft.getElevatorCar();
-		var startEvent = new DoorOpenSimEvent(car);
-		startEvent.setTimestamp(sim.simulationStart);
-
-		try {
-			eventManager.addEvent(startEvent);
-		} catch (EventWithoutTimestampException withoutTimestampException) {
-			LOGGER.severe(withoutTimestampException.toString());
+		if (!carsAreStarted) {
+			carsAreStarted = true;
+			for (var shaft : elevatorGroup.getShafts()) {
+				var startEvent = DoorOpenSimEvent.obtain(this, shaft.getElevatorCar());
+				startEvent.setTime(0);
+
+				try {
+					eventManager.addEvent(startEvent);
+				} catch (EventWithoutTimestampException withoutTimestampException) {
+					LOGGER.severe(withoutTimestampException.toString());
+				}
+			}
 		}
 
-		var event = eventManager.getNextEvent();
-		while (event != null && event.getTimestamp().isBefore(sim.simulationEnd)) {
-			try {
-				LOGGER.finest("Executing event: " + event.getClass().getName());
-				event.processEvent();
+		var endTime = getEndTime();
+		var nextCheckpoint = checkpointFile != null ? eventManager.getCurrentTime() + checkpointInterval : Long.MAX_VALUE;
+		while (traceDivergence < 0 && eventManager.advanceToNextInstant() && eventManager.getCurrentTime() < endTime) {
+			var event = eventManager.pollCurrentInstant();
+			while (event != null) {
+				if ((expectedTrace != null || eventTrace != null) && !traceEvent(event)) {
+					break;
+				}
+
+				try {
+					if (LOGGER.isLoggable(Level.FINEST)) {
+						LOGGER.finest("Executing event: " + event.getClass().getName());
+					}
+					event.processEvent();
+					executedEventCount++;
+				}
+				catch (SimulationNotInitializedException exception) {
+					LOGGER.severe(exception.toString());
+				}
+
+				eventPool.release(event);
+				event = eventManager.pollCurrentInstant();
 			}
-			catch (SimulationNotInitializedException exception) {
-				LOGGER.severe(exception.toString());
+
+			if (traceDivergence < 0 && eventManager.getCurrentTime() >= nextCheckpoint) {
+				writePeriodicCheckpoint();
+				nextCheckpoint = eventManager.getCurrentTime() + checkpointInterval;
 			}
+		}
 
-			event = eventManager.getNextEvent();
+		if (expectedTrace != null && traceDivergence < 0 && expectedTraceIndex < expectedTrace.size()) {
+			reportTraceDivergence(expectedTraceIndex, "#" + expectedTraceIndex + ": end of simulation");
 		}
 
 		LOGGER.info("");
 		LOGGER.info("*** SIMULATION HAS ENDED ***");
 		LOGGER.info("");
+		LOGGER.info(String.format("%d events have been executed, %d events have been cancelled.",
+				executedEventCount, eventManager.getCancelledEventCount()));
+		LOGGER.fine(String.format("%d event objects have been reused from the event pool.", eventPool.getReusedCount()));
+		LOGGER.fine(String.format("%d instants, %d queue insertions, %d queue removals, %d same-instant insertions.",
+				eventManager.getInstantCount(), eventManager.getQueueInsertCount(),
+				eventManager.getQueueRemoveCount(), eventManager.getSameInstantInsertCount()));
+	}
+
+	/**
+	 * Checks an event against the expected trace and records it.
+	 * @return {@code false} if the event differs from the expected one and must not be processed.
+	 */
+	private boolean traceEvent(AbstractSimEvent event) {
+		var time = event.getTime();
+		var type = event.getType();
+		var shaftIndex = event.getShaftIndex();
+		var floorIndex = event.getFloorIndex();
+		var passenger = event.getPassenger();
+		if (floorIndex < 0 && shaftIndex >= 0) {
+			floorIndex = elevatorGroup.getShafts().get(shaftIndex).getCurrentCarFloor().getIndex();
+		}
+
+		if (expectedTrace != null) {
+			if (traceDivergence >= 0) {
+				// a replayed arrival has not fit the run
+				return false;
+			}
+
+			var index = expectedTraceIndex++;
+			if (!expectedTrace.matches(index, time, type, shaftIndex, floorIndex, passenger)) {
+				reportTraceDivergence(index, EventTraceReader.describe(index, time, type, shaftIndex, floorIndex, passenger));
+				return false;
+			}
+		}
+
+		if (eventTrace != null) {
+			try {
+				eventTrace.record(time, type, shaftIndex, floorIndex, passenger);
+			} catch (IOException e) {
+				// the simulation itself is not affected, it goes on without the rest of the trace
+				LOGGER.severe("Event trace could not be written: " + e);
+				eventTrace = null;
+			}
+		}
+		return true;
+	}
+
+	private void reportTraceDivergence(long index, String actual) {
+		traceDivergence = index;
+		LOGGER.severe(String.format("Simulation has diverged from the expected trace at event #%d.", index));
+		LOGGER.severe("Expected " + expectedTrace.describe(index));
+		LOGGER.severe("Actual   " + actual);
+	}
+
+	private void reportArrivalDivergence(long index, String actual) {
+		traceDivergence = expectedTraceIndex;
+		LOGGER.severe(String.format("Simulation has diverged from the recorded arrivals at arrival #%d, before event #%d.", index, expectedTraceIndex));
+		LOGGER.severe("Expected " + expectedTrace.describeArrival(index));
+		LOGGER.severe("Actual   " + actual);
+	}
+
+	private void writePeriodicCheckpoint() {
+		try {
+			writeCheckpoint(checkpointFile);
+			LOGGER.info(String.format("Checkpoint has been written to '%s' at %s.", checkpointFile, eventManager.getCurrentTimestamp()));
+		} catch (IOException e) {
+			// the simulation itself is not affected, it goes on without this checkpoint
+			LOGGER.severe("Checkpoint could not be written: " + e);
+		}
+	}
+
+	/**
+	 * Gets a new id for an event of this simulation. Ids are unique within one simulation and increase monotonically.
+	 * @return The next event id.
+	 */
+	public long nextEventId() {
+		return eventIdCounter++;
+	}
+
+	/**
+	 * Gets the pool of processed events that can be reused by this simulation.
+	 * @return The event pool.
+	 */
+	public SimEventPool getEventPool() {
+		return this.eventPool;
+	}
+
+	/**
+	 * Converts a simulation time into a timestamp. Creates a new instance on every call.
+	 * @param time Milliseconds since the simulation start.
+	 * @return The corresponding timestamp.
+	 */
+	public LocalDateTime getTimestamp(long time) {
+		return simulationStart.plusNanos(time * 1_000_000L);
+	}
+
+	/**
+	 * Converts a timestamp into a simulation time.
+	 * @param timestamp A timestamp, at millisecond precision.
+	 * @return Milliseconds since the simulation start.
+	 */
+	public long getSimTime(LocalDateTime timestamp) {
+		return ChronoUnit.MILLIS.between(simulationStart, timestamp);
+	}
+
+	/**
+	 * Gets the simulation time of the simulation end. Events at or after this time are not processed.
+	 * @return Milliseconds since the simulation start, rounded up.
+	 */
+	public long getEndTime() {
+		var nanos = ChronoUnit.NANOS.between(simulationStart, simulationEnd);
+		return Math.floorDiv(nanos + 999_999L, 1_000_000L);
+	}
+
+	/**
+	 * Gets the context holding config and random number generator of this simulation.
+	 * @return The context.
+	 */
+	public SimulationContext getContext() {
+		return this.context;
+	}
+
+	/**
+	 * Gets the event manager holding this simulation's event queue.
+	 * @return The event manager.
+	 */
+	public SimEventManager getEventManager() {
+		return this.eventManager;
+	}
+
+	/**
+	 * Gets the number of events that have been processed so far.
+	 * @return The number of executed events.
+	 */
+	public long getExecutedEventCount() {
+		return this.executedEventCount;
+	}
+
+	/**
+	 * Counts passengers that have reached their destination floor.
+	 * @param count The number of passengers that have exited the car.
+	 */
+	public void countDeliveredPassengers(int count) {
+		this.deliveredPassengerCount += count;
+	}
+
+	/**
+	 * Counts one passenger that has left their floor because their patience ran out.
+	 */
+	public void countAbandonedPassenger() {
+		this.abandonedPassengerCount++;
+	}
+
+	/**
+	 * Gets the number of passengers that have reached their destination floor so far.
+	 * @return The number of delivered passengers.
+	 */
+	public long getDeliveredPassengerCount() {
+		return this.deliveredPassengerCount;
+	}
+
+	/**
+	 * Gets the number of passengers that have left their floor without being transported so far.
+	 * @return The number of abandoned passengers.
+	 */
+	public long getAbandonedPassengerCount() {
+		return this.abandonedPassengerCount;
+	}
+
+	/**
+	 * Gets the elevator group of this simulation.
+	 * @return The simulated elevator group.
+	 */
+	public ElevatorGroup getElevatorGroup() {
+		return this.elevatorGroup;
+	}
+
+	/**
+	 * Gets the wait and ride times and per-floor counts recorded so far.
+	 * @return The trip statistics, or {@code null} if they are disabled with the config key {@code TripStatistics.enabled}.
+	 */
+	public TripStatistics getStatistics() {
+		return this.statistics;
 	}
 
 	/**
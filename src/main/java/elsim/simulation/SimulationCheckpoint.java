@@ -0,0 +1,212 @@
+package main.java.elsim.simulation;
+
+import main.java.elsim.models.PassengerArrivalGenerator;
+import main.java.elsim.simulation.events.AbstractSimEvent;
+import main.java.elsim.simulation.events.CarMoveSimEvent;
+import main.java.elsim.simulation.events.DoorCloseSimEvent;
+import main.java.elsim.simulation.events.DoorOpenSimEvent;
+import main.java.elsim.simulation.events.PassengerArrivesAtFloorEvent;
+import main.java.elsim.simulation.events.PassengerLeavesFloorSimEvent;
+import main.java.elsim.simulation.events.PassengersEnterCarSimEvent;
+import main.java.elsim.simulation.events.PassengersExitCarSimEvent;
+import main.java.elsim.simulation.events.SimEventType;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+
+/**
+ * The binary format of a checkpoint of the complete state of a simulation, from which it can be resumed bit-identically.
+ *
+ * A checkpoint holds the clock and counters, the position of every random stream, the live passengers,
+ * the floors with their waiting passengers and buttons, the hall calls, each car's floor, direction and passengers,
+ * the trip statistics and all pending events in the order they are going to be processed.
+ * Cancelled events and passengers that can no longer be referred to are left out, so the size of a checkpoint
+ * only depends on the live state of the simulation. Events are written as their type, id and time and the shaft, floor
+ * and passenger they are about, and recreated from those when the checkpoint is read.
+ *
+ * The config is not part of a checkpoint. A simulation is resumed from a checkpoint with the same floors and cars,
+ * which are checked, and the same seed and settings, which are not.
+ * @see Simulation#writeCheckpoint(java.nio.file.Path)
+ * @see Simulation#resume(java.nio.file.Path)
+ * @author jbook
+ */
+final class SimulationCheckpoint {
+	private static final int MAGIC = 0x454C5343;		// "ELSC"
+	private static final int VERSION = 3;
+
+	private SimulationCheckpoint() {
+	}
+
+	/**
+	 * Writes the state of a simulation that is between two events.
+	 * @param simulation The simulation.
+	 * @param out The checkpoint to write to.
+	 * @throws IOException When the checkpoint cannot be written.
+	 */
+	static void write(Simulation simulation, CheckpointWriter out) throws IOException {
+		var context = simulation.getContext();
+		var statistics = simulation.getStatistics();
+
+		var events = new ArrayList<AbstractSimEvent>();
+		var referenced = new BitSet();
+		simulation.getEventManager().forEachPending(event -> {
+			events.add(event);
+			if (event.getPassenger() >= 0) {
+				referenced.set(event.getPassenger());
+			}
+		});
+		events.sort(new SimEventTimestampComparator());
+
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(context.getConfig().getSeed());
+		out.writeBoolean(statistics != null);
+
+		simulation.getEventManager().writeState(out);
+		out.writeLong(context.getRng().getState());
+		context.getPassengers().writeState(out, referenced);
+		simulation.getElevatorGroup().writeState(out);
+		if (statistics != null) {
+			statistics.writeState(out);
+		}
+
+		out.writeInt(events.size());
+		for (var event : events) {
+			writeEvent(out, event);
+		}
+		simulation.writeState(out);
+		out.writeInt(MAGIC);
+		out.flush();
+	}
+
+	/**
+	 * Restores the state of a simulation that has been created, but neither initialized nor started.
+	 * @param simulation The simulation.
+	 * @param in The checkpoint to read from.
+	 * @throws IOException When the checkpoint cannot be read or does not match the simulation.
+	 */
+	static void read(Simulation simulation, CheckpointReader in) throws IOException {
+		var context = simulation.getContext();
+		var statistics = simulation.getStatistics();
+
+		if (in.readInt() != MAGIC) {
+			throw new IOException("Not a checkpoint of a simulation.");
+		}
+
+		var version = in.readInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported checkpoint version " + version + ".");
+		}
+
+		var seed = in.readInt();
+		if (seed != context.getConfig().getSeed()) {
+			throw new IOException("Checkpoint has been written with seed " + seed + ", the simulation has seed " + context.getConfig().getSeed() + ".");
+		}
+
+		var hasStatistics = in.readBoolean();
+		if (hasStatistics != (statistics != null)) {
+			throw new IOException("Checkpoint has been written with trip statistics " + (hasStatistics ? "enabled" : "disabled") + ", they have to be as well.");
+		}
+
+		simulation.getEventManager().readState(in);
+		context.getRng().setState(in.readLong());
+		context.getPassengers().readState(in);
+		simulation.getElevatorGroup().readState(in);
+		if (statistics != null) {
+			statistics.readState(in);
+		}
+
+		var eventCount = in.readCount(Integer.MAX_VALUE);
+		for (int i = 0; i < eventCount; i++) {
+			simulation.getEventManager().restoreEvent(readEvent(simulation, in));
+		}
+		simulation.readState(in);
+
+		if (in.readInt() != MAGIC || !in.isAtEnd()) {
+			throw new IOException("Checkpoint does not end where expected.");
+		}
+	}
+
+	private static void writeEvent(CheckpointWriter out, AbstractSimEvent event) throws IOException {
+		out.writeInt(event.getType().ordinal());
+		out.writeLong(event.getId());
+		out.writeLong(event.getTime());
+		out.writeInt(event.getShaftIndex());
+		out.writeInt(event.getFloorIndex());
+		out.writeInt(event.getPassenger());
+		if (event.getType() == SimEventType.PassengerArrivesAtFloor) {
+			var arrivals = ((PassengerArrivesAtFloorEvent) event).getArrivals();
+			out.writeBoolean(arrivals != null);
+			if (arrivals != null) {
+				arrivals.writeState(out);
+			}
+		}
+	}
+
+	private static AbstractSimEvent readEvent(Simulation simulation, CheckpointReader in) throws IOException {
+		var group = simulation.getElevatorGroup();
+		var passengers = simulation.getContext().getPassengers();
+		var types = SimEventType.values();
+
+		var type = types[in.readCount(types.length - 1)];
+		var id = in.readLong();
+		var time = in.readLong();
+		var shaftIndex = in.readInt();
+		var floorIndex = in.readInt();
+		var passenger = in.readInt();
+		if (shaftIndex < -1 || shaftIndex >= group.getShafts().size()
+				|| floorIndex < -1 || floorIndex >= group.getFloors().size()
+				|| passenger < -1 || passenger >= passengers.size()) {
+			throw new IOException("Invalid " + type + " event " + id + " in checkpoint.");
+		}
+
+		var shaft = shaftIndex >= 0 ? group.getShafts().get(shaftIndex) : null;
+		var car = shaft != null ? shaft.getElevatorCar() : null;
+		var floor = floorIndex >= 0 ? group.getFloors().get(floorIndex) : null;
+		var aboutPassenger = type == SimEventType.PassengerArrivesAtFloor || type == SimEventType.PassengerLeavesFloor;
+		if (aboutPassenger ? floor == null || passenger < 0 : shaft == null) {
+			throw new IOException("Incomplete " + type + " event " + id + " in checkpoint.");
+		}
+
+		AbstractSimEvent event;
+		switch (type) {
+			case DoorOpen:
+				event = DoorOpenSimEvent.obtain(simulation, car);
+				break;
+			case PassengersExit:
+				event = PassengersExitCarSimEvent.obtain(simulation, car);
+				break;
+			case PassengersEnter:
+				event = PassengersEnterCarSimEvent.obtain(simulation, car);
+				break;
+			case DoorClose:
+				event = DoorCloseSimEvent.obtain(simulation, car);
+				break;
+			case CarMove:
+				event = CarMoveSimEvent.obtain(simulation, shaft);
+				break;
+			case PassengerArrivesAtFloor:
+				PassengerArrivalGenerator arrivals = null;
+				if (in.readBoolean()) {
+					arrivals = new PassengerArrivalGenerator(simulation, floor, group, 0);
+					arrivals.readState(in);
+				}
+				event = PassengerArrivesAtFloorEvent.obtain(simulation, passenger, floor, group, arrivals);
+				break;
+			case PassengerLeavesFloor:
+				event = PassengerLeavesFloorSimEvent.obtain(simulation, floor, passenger);
+				passengers.setPatienceTimeout(passenger, event);
+				break;
+			default:
+				throw new IOException("Unsupported event type " + type + " in checkpoint.");
+		}
+
+		if (event.getShaftIndex() != shaftIndex || event.getFloorIndex() != floorIndex || event.getPassenger() != passenger) {
+			throw new IOException("Invalid " + type + " event " + id + " in checkpoint.");
+		}
+
+		event.restore(id, time);
+		return event;
+	}
+}
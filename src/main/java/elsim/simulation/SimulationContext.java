@@ -0,0 +1,96 @@
+package main.java.elsim.simulation;
+
+import main.java.elsim.config.ConfigManager;
+import main.java.elsim.config.SimulationConfig;
+import main.java.elsim.models.PassengerStore;
+import main.java.elsim.models.RNG;
+
+/**
+ * Holds the state that a single simulation shares between its models and events: its configuration, its random number generator
+ * and its passengers. The configuration is an immutable {@code SimulationConfig}, which may be shared by several contexts.
+ *
+ * Every model, event manager and simulation created with its own context is independent of all others,
+ * so several simulations can be created, run and discarded concurrently in one JVM.
+ * The context returned by {@code getDefault} wraps the global {@code ConfigManager} and {@code RNG} instances
+ * and is used by the constructors that do not take a context.
+ * @see Simulation
+ */
+public class SimulationContext {
+	private static SimulationContext defaultContext;
+
+	private final SimulationConfig config;
+	private final RNG rng;
+	private final PassengerStore passengers;
+
+	/**
+	 * Creates a context using a snapshot of the given config and a new random number generator seeded from its {@code RNG.seed}.
+	 * @param config The config of the simulation. Later changes to it do not affect the context.
+	 * @throws IllegalArgumentException When an entry of the config is missing or malformed.
+	 */
+	public SimulationContext(ConfigManager config) {
+		this(SimulationConfig.from(config));
+	}
+
+	/**
+	 * Creates a context using the given settings and a new random number generator seeded from their seed.
+	 * @param config The settings of the simulation.
+	 */
+	public SimulationContext(SimulationConfig config) {
+		this(config, new RNG(config.getSeed()));
+	}
+
+	/**
+	 * Creates a context using the given settings and random number generator.
+	 * @param config The settings of the simulation.
+	 * @param rng The random number generator of the simulation.
+	 */
+	public SimulationContext(SimulationConfig config, RNG rng) {
+		if (config == null) {
+			throw new IllegalArgumentException("config");
+		}
+
+		if (rng == null) {
+			throw new IllegalArgumentException("rng");
+		}
+
+		this.config = config;
+		this.rng = rng;
+		this.passengers = new PassengerStore();
+	}
+
+	/**
+	 * Gets the context wrapping a snapshot of the global {@code ConfigManager} and the global {@code RNG} instance.
+	 * The snapshot is taken on the first call.
+	 * @return The default context.
+	 */
+	public static synchronized SimulationContext getDefault() {
+		if (defaultContext == null) {
+			defaultContext = new SimulationContext(SimulationConfig.from(ConfigManager.getInstance()), RNG.getInstance());
+		}
+		return defaultContext;
+	}
+
+	/**
+	 * Gets the typed settings of the simulation.
+	 * @return The settings.
+	 */
+	public SimulationConfig getConfig() {
+		return config;
+	}
+
+	/**
+	 * Gets the random number generator of the simulation.
+	 * @return The random number generator.
+	 */
+	public RNG getRng() {
+		return rng;
+	}
+
+	/**
+	 * Gets the store of all passengers created in the simulation. Floors, cars and events refer to passengers by their id in it.
+	 * @return The passenger store.
+	 */
+	public PassengerStore getPassengers() {
+		return passengers;
+	}
+}
@@ -0,0 +1,78 @@
+package main.java.elsim.simulation;
+
+import main.java.elsim.simulation.events.AbstractSimEvent;
+
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * The reference {@code SimEventQueue} implementation, backed by a {@code TreeSet} ordered by {@code SimEventTimestampComparator}.
+ * Every operation is O(log n). Use it to verify the event order of other implementations.
+ */
+public class TreeSetSimEventQueue implements SimEventQueue {
+	private final NavigableSet<AbstractSimEvent> events;
+
+	/**
+	 * Creates an empty queue.
+	 */
+	public TreeSetSimEventQueue() {
+		this.events = new TreeSet<>(new SimEventTimestampComparator());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void add(AbstractSimEvent event, long time) {
+		events.add(event);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public AbstractSimEvent poll() {
+		return events.pollFirst();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public AbstractSimEvent peek() {
+		return events.isEmpty() ? null : events.first();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int removeCancelled() {
+		var before = events.size();
+		events.removeIf(event -> {
+			if (event.isCancelled()) {
+				event.setPending(false);
+				return true;
+			}
+			return false;
+		});
+		return before - events.size();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void forEach(Consumer<? super AbstractSimEvent> action) {
+		events.forEach(action);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int size() {
+		return events.size();
+	}
+}
@@ -1,5 +1,6 @@
 package main.java.elsim.simulation.events;
 
+import main.java.elsim.simulation.SimEventHandle;
 import main.java.elsim.simulation.Simulation;
 import main.java.elsim.simulation.SimulationNotInitializedException;
 
@@ -8,22 +9,42 @@ import java.time.format.DateTimeFormatter;
 
 /**
  * An abstract class defining some event occurring at a specific point in time during the simulation.
+ *
+ * The point in time is kept as a primitive simulation time in milliseconds since the simulation start.
+ * A {@code LocalDateTime} is only created when it is requested, e.g. for log output.
+ * Events of pooled types (see {@code SimEventType.isPooled}) are recycled after they have been processed,
+ * so their handles must not be kept after that.
  * @author jbook
  */
-public abstract class AbstractSimEvent {
-	private static long counter = 0;
+public abstract class AbstractSimEvent implements SimEventHandle {
+	/**
+	 * The simulation time of an event that has not been scheduled yet.
+	 */
+	public static final long NO_TIME = Long.MIN_VALUE;
 
-	private final long id;
+	private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss dd/MM/yyyy");
+
+	private long id;
 	protected Simulation simulation;
-	protected LocalDateTime timestamp;
+	private long time = NO_TIME;
+	private boolean pending;
+	private boolean cancelled;
 
 	/**
-	 * Create an event that should be processed at a specific time during the simulation.
+	 * Create an event that should be processed at a specific time during the static simulation instance.
 	 * @throws SimulationNotInitializedException When the simulation has not been initialized yet.
 	 */
 	public AbstractSimEvent() throws SimulationNotInitializedException {
-		this.id = counter++;
-		this.simulation = Simulation.getInstance();
+		this(Simulation.getInstance());
+	}
+
+	/**
+	 * Create an event that should be processed at a specific time during the given simulation.
+	 * @param simulation The simulation this event belongs to.
+	 */
+	public AbstractSimEvent(Simulation simulation) {
+		this.id = simulation.nextEventId();
+		this.simulation = simulation;
 	}
 
 	/**
@@ -32,11 +53,67 @@ public abstract class AbstractSimEvent {
 	public abstract void processEvent() throws SimulationNotInitializedException;
 
 	/**
-	 * Gets the event's timestamp as a {@code LocalDateTime}.
-	 * @return The event's timestamp.
+	 * Gets the type of this event.
+	 * @return The event type.
+	 */
+	public abstract SimEventType getType();
+
+	/**
+	 * Prepares a recycled instance for being scheduled again, as if it had just been created.
+	 * Assigns a new id and clears the time and all scheduling state.
+	 */
+	protected void reinitialize() {
+		this.id = simulation.nextEventId();
+		this.time = NO_TIME;
+		this.pending = false;
+		this.cancelled = false;
+	}
+
+	/**
+	 * Gives a new, unscheduled event the id and time of the event it replaces when a simulation is restored from a checkpoint.
+	 * Only to be used while restoring, the simulation's event ids are restored afterwards.
+	 * @param id The id of the restored event.
+	 * @param time The simulation time of the restored event.
+	 */
+	public void restore(long id, long time) {
+		if (hasTime()) {
+			throw new UnsupportedOperationException("only unscheduled events can be restored.");
+		}
+
+		this.id = id;
+		this.time = time;
+	}
+
+	/**
+	 * Gets the shaft whose car this event is about.
+	 * @return The index of the shaft in its group, or -1 if the event is not about a car.
+	 */
+	public int getShaftIndex() {
+		return -1;
+	}
+
+	/**
+	 * Gets the floor this event is about.
+	 * @return The index of the floor in its group, or -1 if the event is not about a floor.
+	 */
+	public int getFloorIndex() {
+		return -1;
+	}
+
+	/**
+	 * Gets the passenger this event is about.
+	 * @return The id of the passenger in the passenger store of the simulation, or -1 if the event is not about a passenger.
+	 */
+	public int getPassenger() {
+		return -1;
+	}
+
+	/**
+	 * Gets the event's timestamp as a {@code LocalDateTime}. Creates a new instance on every call.
+	 * @return The event's timestamp, or {@code null} if the event has not been scheduled yet.
 	 */
 	public LocalDateTime getTimestamp() {
-		return timestamp;
+		return hasTime() ? simulation.getTimestamp(time) : null;
 	}
 
 	/**
@@ -52,19 +129,81 @@ public abstract class AbstractSimEvent {
 	 * @param timestamp The event's new timestamp.
 	 */
 	public void setTimestamp(LocalDateTime timestamp) {
-		if (this.timestamp != null) {
+		setTime(simulation.getSimTime(timestamp));
+	}
+
+	/**
+	 * Gets the event's simulation time.
+	 * @return Milliseconds since the simulation start, or {@code NO_TIME} if the event has not been scheduled yet.
+	 */
+	public long getTime() {
+		return time;
+	}
+
+	/**
+	 * Gets whether the event's simulation time has been set.
+	 * @return {@code true} if the event has a time.
+	 */
+	public boolean hasTime() {
+		return time != NO_TIME;
+	}
+
+	/**
+	 * Sets the event's simulation time. Only possible to set once per use of the instance.
+	 * @param time Milliseconds since the simulation start.
+	 */
+	public void setTime(long time) {
+		if (hasTime()) {
 			throw new UnsupportedOperationException("timestamp can only be set once.");
 		}
 
-		this.timestamp = timestamp;
+		this.time = time;
+	}
+
+	/**
+	 * Gets whether this event is waiting in the event queue to be processed.
+	 * @return {@code true} between being added to and being removed from the event queue.
+	 */
+	public boolean isPending() {
+		return pending;
+	}
+
+	/**
+	 * Marks whether this event is waiting in the event queue. Only to be used by the {@code SimEventManager}.
+	 * @param pending Whether the event is in the event queue.
+	 */
+	public void setPending(boolean pending) {
+		this.pending = pending;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean cancel() {
+		if (!this.pending || this.cancelled) {
+			return false;
+		}
+
+		this.cancelled = true;
+		this.simulation.getEventManager().eventCancelled();
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isCancelled() {
+		return cancelled;
 	}
 
 	/**
-	 * Gets {@code this.timestamp} formatted according to our specification.
+	 * Gets the event's timestamp formatted according to our specification.
 	 * @return A {@code String} representing this event's timestamp.
 	 */
 	protected String getNowFormatted() {
-		return formatTimestamp(this.timestamp);
+		return formatTimestamp(this.getTimestamp());
 	}
 
 	/**
@@ -72,6 +211,6 @@ public abstract class AbstractSimEvent {
 	 * @return A {@code String} representing the supplied timestamp.
 	 */
 	protected String formatTimestamp(LocalDateTime timestamp) {
-		return timestamp.format(DateTimeFormatter.ofPattern("HH:mm:ss dd/MM/yyyy"));
+		return timestamp.format(TIMESTAMP_FORMATTER);
 	}
 }
@@ -1,7 +1,9 @@
 package main.java.elsim.simulation.events;
 
 import main.java.elsim.models.ElevatorShaft;
+import main.java.elsim.simulation.Simulation;
 import main.java.elsim.simulation.SimulationNotInitializedException;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -10,28 +12,64 @@ import java.util.logging.Logger;
 public class CarMoveSimEvent extends AbstractSimEvent {
 	private static final Logger LOGGER = Logger.getLogger(CarMoveSimEvent.class.getName());
 
-	private final ElevatorShaft shaft;
+	private ElevatorShaft shaft;
 
-	public CarMoveSimEvent(ElevatorShaft shaft) throws SimulationNotInitializedException {
+	public CarMoveSimEvent(Simulation simulation, ElevatorShaft shaft) {
+		super(simulation);
 		this.shaft = shaft;
 	}
 
+	/**
+	 * Gets an event from the simulation's event pool, or creates a new one if the pool is empty.
+	 * @param simulation The simulation this event belongs to.
+	 * @param shaft The shaft whose car moves.
+	 * @return An unscheduled event.
+	 */
+	public static CarMoveSimEvent obtain(Simulation simulation, ElevatorShaft shaft) {
+		var event = (CarMoveSimEvent) simulation.getEventPool().acquire(SimEventType.CarMove);
+		if (event == null) {
+			return new CarMoveSimEvent(simulation, shaft);
+		}
+
+		event.reinitialize();
+		event.shaft = shaft;
+		return event;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public SimEventType getType() {
+		return SimEventType.CarMove;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getShaftIndex() {
+		return this.shaft.getIndex();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	public void processEvent() throws SimulationNotInitializedException {
-		var duration = this.shaft.moveCar();
-		LOGGER.info(String.format("Elevator arrives at floor %d with %d passengers. (at %s)",
-				shaft.getCurrentCarFloor().getFloorNumber(),
-				shaft.getElevatorCar().getCurrentPassengers().size(),
-				this.formatTimestamp(this.getTimestamp().plus(duration))));
+		var duration = this.shaft.moveCar();		// ms
+		if (LOGGER.isLoggable(Level.INFO)) {
+			LOGGER.info(String.format("Elevator arrives at floor %d with %d passengers. (at %s)",
+					shaft.getCurrentCarFloor().getFloorNumber(),
+					shaft.getElevatorCar().getPassengerCount(),
+					this.formatTimestamp(this.simulation.getTimestamp(this.getTime() + duration))));
+		}
 
-		if (duration.isZero()) {
+		if (duration == 0) {
 			return; // no next floor to move to
 		}
 
 		var elevatorCar = this.shaft.getElevatorCar();
-		this.simulation.addSimEvent(duration, new DoorOpenSimEvent(elevatorCar));
+		this.simulation.addSimEventMillis(duration, DoorOpenSimEvent.obtain(this.simulation, elevatorCar));
 	}
 }
@@ -1,8 +1,10 @@
 package main.java.elsim.simulation.events;
 
 import main.java.elsim.models.Car;
+import main.java.elsim.simulation.Simulation;
 import main.java.elsim.simulation.SimulationNotInitializedException;
 
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -11,21 +13,57 @@ import java.util.logging.Logger;
 public class DoorCloseSimEvent extends AbstractSimEvent {
 	private static final Logger LOGGER = Logger.getLogger(DoorCloseSimEvent.class.getName());
 
-	private final Car car;
+	private Car car;
 
-	public DoorCloseSimEvent(Car car) throws SimulationNotInitializedException {
+	public DoorCloseSimEvent(Simulation simulation, Car car) {
+		super(simulation);
 		this.car = car;
 	}
 
+	/**
+	 * Gets an event from the simulation's event pool, or creates a new one if the pool is empty.
+	 * @param simulation The simulation this event belongs to.
+	 * @param car The car whose doors are closing.
+	 * @return An unscheduled event.
+	 */
+	public static DoorCloseSimEvent obtain(Simulation simulation, Car car) {
+		var event = (DoorCloseSimEvent) simulation.getEventPool().acquire(SimEventType.DoorClose);
+		if (event == null) {
+			return new DoorCloseSimEvent(simulation, car);
+		}
+
+		event.reinitialize();
+		event.car = car;
+		return event;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public SimEventType getType() {
+		return SimEventType.DoorClose;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getShaftIndex() {
+		return this.car.getElevatorShaft().getIndex();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	public void processEvent() throws SimulationNotInitializedException {
-		var durationInSeconds = (int)this.car.closeDoor();
-		LOGGER.info(String.format("Door is closing and will be closed at %s.",
-				this.formatTimestamp(this.timestamp.plusSeconds(durationInSeconds))));
+		var duration = this.car.closeDoor();				// ms
+		if (LOGGER.isLoggable(Level.INFO)) {
+			LOGGER.info(String.format("Door is closing and will be closed at %s.",
+					this.formatTimestamp(this.simulation.getTimestamp(this.getTime() + duration))));
+		}
 
-		this.simulation.addSimEvent(durationInSeconds, new CarMoveSimEvent(this.car.getElevatorShaft()));
+		this.simulation.addSimEventMillis(duration, CarMoveSimEvent.obtain(this.simulation, this.car.getElevatorShaft()));
 	}
 }
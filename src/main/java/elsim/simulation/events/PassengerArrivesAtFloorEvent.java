@@ -1,48 +1,128 @@
 package main.java.elsim.simulation.events;
 
-import main.java.elsim.models.ElevatorShaft;
+import main.java.elsim.models.ElevatorGroup;
 import main.java.elsim.models.Floor;
 import main.java.elsim.models.MoveDirection;
-import main.java.elsim.models.Passenger;
+import main.java.elsim.models.PassengerArrivalGenerator;
+import main.java.elsim.simulation.Simulation;
 import main.java.elsim.simulation.SimulationNotInitializedException;
 
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class PassengerArrivesAtFloorEvent extends AbstractSimEvent {
 	private static final Logger LOGGER = Logger.getLogger(PassengerArrivesAtFloorEvent.class.getName());
 
-	private final Passenger passenger;
-	private final Floor floor;
-	private final ElevatorShaft shaft;
+	private int passenger;
+	private Floor floor;
+	private ElevatorGroup group;
+	private PassengerArrivalGenerator arrivals;
 
 
 	/**
 	 * Create an event that should be processed at a specific time during the simulation.
 	 *
-	 * @throws SimulationNotInitializedException When the simulation has not been initialized yet.
+	 * @param simulation The simulation this event belongs to.
+	 * @param passenger The id of the passenger in the passenger store of the simulation.
 	 */
-	public PassengerArrivesAtFloorEvent(Passenger passenger, Floor floor, ElevatorShaft shaft) throws SimulationNotInitializedException {
+	public PassengerArrivesAtFloorEvent(Simulation simulation, int passenger, Floor floor, ElevatorGroup group) {
+		this(simulation, passenger, floor, group, null);
+	}
+
+	/**
+	 * Create an event that should be processed at a specific time during the simulation
+	 * and schedules the floor's next arrival when processed.
+	 *
+	 * @param simulation The simulation this event belongs to.
+	 * @param passenger The id of the passenger in the passenger store of the simulation.
+	 * @param arrivals The generator of the floor's arrivals, or {@code null} if all arrivals are scheduled up front.
+	 */
+	public PassengerArrivesAtFloorEvent(Simulation simulation, int passenger, Floor floor, ElevatorGroup group, PassengerArrivalGenerator arrivals) {
+		super(simulation);
 		this.passenger = passenger;
 		this.floor = floor;
-		this.shaft = shaft;
+		this.group = group;
+		this.arrivals = arrivals;
+	}
+
+	/**
+	 * Gets an event from the simulation's event pool, or creates a new one if the pool is empty.
+	 * @param simulation The simulation this event belongs to.
+	 * @param passenger The id of the passenger in the passenger store of the simulation.
+	 * @param floor The floor the passenger arrives at.
+	 * @param group The group serving the floor.
+	 * @param arrivals The generator of the floor's arrivals, or {@code null} if all arrivals are scheduled up front.
+	 * @return An unscheduled event.
+	 */
+	public static PassengerArrivesAtFloorEvent obtain(Simulation simulation, int passenger, Floor floor, ElevatorGroup group, PassengerArrivalGenerator arrivals) {
+		var event = (PassengerArrivesAtFloorEvent) simulation.getEventPool().acquire(SimEventType.PassengerArrivesAtFloor);
+		if (event == null) {
+			return new PassengerArrivesAtFloorEvent(simulation, passenger, floor, group, arrivals);
+		}
+
+		event.reinitialize();
+		event.passenger = passenger;
+		event.floor = floor;
+		event.group = group;
+		event.arrivals = arrivals;
+		return event;
+	}
+
+	@Override
+	public SimEventType getType() {
+		return SimEventType.PassengerArrivesAtFloor;
+	}
+
+	@Override
+	public int getFloorIndex() {
+		return this.floor.getIndex();
+	}
+
+	@Override
+	public int getPassenger() {
+		return this.passenger;
+	}
+
+	/**
+	 * Gets the generator that schedules the floor's next arrival when this event is processed.
+	 * @return The generator, or {@code null} if all arrivals are scheduled up front.
+	 */
+	public PassengerArrivalGenerator getArrivals() {
+		return this.arrivals;
 	}
 
 	@Override
 	public void processEvent() throws SimulationNotInitializedException {
+		var passengers = this.simulation.getContext().getPassengers();
+		var destination = passengers.getFloorDestination(passenger);
 		this.floor.addPassenger(passenger);
-		LOGGER.fine(String.format("Passenger arrives at floor %d, wanting to go to floor %d. (at %s)",
-				this.floor.getFloorNumber(),
-				passenger.getFloorDestination().getFloorNumber(),
-				this.getNowFormatted()));
+		var statistics = this.simulation.getStatistics();
+		if (statistics != null) {
+			statistics.passengerArrived(passenger);
+		}
+		if (LOGGER.isLoggable(Level.FINE)) {
+			LOGGER.fine(String.format("Passenger arrives at floor %d, wanting to go to floor %d. (at %s)",
+					this.floor.getFloorNumber(),
+					destination.getFloorNumber(),
+					this.getNowFormatted()));
+		}
 
-		this.simulation.addSimEvent(passenger.getTimePatience(), new PassengerLeavesFloorSimEvent(this.floor, passenger));
+		var patienceTimeout = this.simulation.addSimEventMillis(passengers.getTimePatience(passenger), PassengerLeavesFloorSimEvent.obtain(this.simulation, this.floor, passenger));
+		passengers.setPatienceTimeout(passenger, patienceTimeout);
 
-		if (this.shaft.getDir() == MoveDirection.Hold) {
-			if (this.shaft.getCurrentCarFloor().getFloorNumber() == passenger.getFloorStartingPoint().getFloorNumber()) {
-				this.simulation.addSimEvent(0, new DoorOpenSimEvent(this.shaft.getElevatorCar()));
+		// wake up the car that is to pick up the passenger
+		var direction = destination.getFloorNumber() > this.floor.getFloorNumber() ? MoveDirection.Up : MoveDirection.Down;
+		var shaft = this.group.getServingShaft(this.floor, direction);
+		if (shaft != null && shaft.getDir() == MoveDirection.Hold) {
+			if (shaft.getCurrentCarFloor().getFloorNumber() == passengers.getFloorStartingPoint(passenger).getFloorNumber()) {
+				this.simulation.addSimEvent(0, DoorOpenSimEvent.obtain(this.simulation, shaft.getElevatorCar()));
 			} else {
-				this.simulation.addSimEvent(0, new CarMoveSimEvent(this.shaft));
+				this.simulation.addSimEvent(0, CarMoveSimEvent.obtain(this.simulation, shaft));
 			}
 		}
+
+		if (this.arrivals != null) {
+			this.arrivals.scheduleNext(this.simulation);
+		}
 	}
 }
@@ -1,9 +1,10 @@
 package main.java.elsim.simulation.events;
 
 import main.java.elsim.models.Floor;
-import main.java.elsim.models.Passenger;
+import main.java.elsim.simulation.Simulation;
 import main.java.elsim.simulation.SimulationNotInitializedException;
 
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -12,23 +13,81 @@ import java.util.logging.Logger;
 public class PassengerLeavesFloorSimEvent extends AbstractSimEvent {
 	private static final Logger LOGGER = Logger.getLogger(PassengerLeavesFloorSimEvent.class.getName());
 
-	private final Floor floor;
-	private final Passenger passenger;
+	private Floor floor;
+	private int passenger;
 
-	public PassengerLeavesFloorSimEvent(Floor floor, Passenger passenger) throws SimulationNotInitializedException {
+	/**
+	 * Create an event that should be processed at a specific time during the simulation.
+	 * @param simulation The simulation this event belongs to.
+	 * @param floor The floor the passenger waits at.
+	 * @param passenger The id of the passenger in the passenger store of the simulation.
+	 */
+	public PassengerLeavesFloorSimEvent(Simulation simulation, Floor floor, int passenger) {
+		super(simulation);
 		this.floor = floor;
 		this.passenger = passenger;
 	}
 
+	/**
+	 * Gets an event from the simulation's event pool, or creates a new one if the pool is empty.
+	 * @param simulation The simulation this event belongs to.
+	 * @param floor The floor the passenger waits at.
+	 * @param passenger The id of the passenger in the passenger store of the simulation.
+	 * @return An unscheduled event.
+	 */
+	public static PassengerLeavesFloorSimEvent obtain(Simulation simulation, Floor floor, int passenger) {
+		var event = (PassengerLeavesFloorSimEvent) simulation.getEventPool().acquire(SimEventType.PassengerLeavesFloor);
+		if (event == null) {
+			return new PassengerLeavesFloorSimEvent(simulation, floor, passenger);
+		}
+
+		event.reinitialize();
+		event.floor = floor;
+		event.passenger = passenger;
+		return event;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public SimEventType getType() {
+		return SimEventType.PassengerLeavesFloor;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getFloorIndex() {
+		return this.floor.getIndex();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getPassenger() {
+		return this.passenger;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	public void processEvent() {
 		if (this.floor.removePassenger(passenger)) {
-			LOGGER.info(String.format("One passenger runs out of patience after they have waited for %d seconds (at %s)",
-					passenger.getTimePatience().toSeconds(),
-					this.getNowFormatted()));
+			this.simulation.countAbandonedPassenger();
+			var statistics = this.simulation.getStatistics();
+			if (statistics != null) {
+				statistics.passengerAbandoned(passenger);
+			}
+			if (LOGGER.isLoggable(Level.INFO)) {
+				LOGGER.info(String.format("One passenger runs out of patience after they have waited for %d seconds (at %s)",
+						this.simulation.getContext().getPassengers().getTimePatience(passenger) / 1000,
+						this.getNowFormatted()));
+			}
+			this.simulation.getContext().getPassengers().release(passenger);
 		}
 	}
 }
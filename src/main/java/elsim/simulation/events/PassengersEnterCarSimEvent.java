@@ -1,8 +1,10 @@
 package main.java.elsim.simulation.events;
 
 import main.java.elsim.models.Car;
+import main.java.elsim.simulation.Simulation;
 import main.java.elsim.simulation.SimulationNotInitializedException;
 
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -11,12 +13,46 @@ import java.util.logging.Logger;
 public class PassengersEnterCarSimEvent extends AbstractSimEvent {
 	private static final Logger LOGGER = Logger.getLogger(PassengersEnterCarSimEvent.class.getName());
 
-	private final Car car;
+	private Car car;
 
-	public PassengersEnterCarSimEvent(Car car) throws SimulationNotInitializedException {
+	public PassengersEnterCarSimEvent(Simulation simulation, Car car) {
+		super(simulation);
 		this.car = car;
 	}
 
+	/**
+	 * Gets an event from the simulation's event pool, or creates a new one if the pool is empty.
+	 * @param simulation The simulation this event belongs to.
+	 * @param car The car passengers enter.
+	 * @return An unscheduled event.
+	 */
+	public static PassengersEnterCarSimEvent obtain(Simulation simulation, Car car) {
+		var event = (PassengersEnterCarSimEvent) simulation.getEventPool().acquire(SimEventType.PassengersEnter);
+		if (event == null) {
+			return new PassengersEnterCarSimEvent(simulation, car);
+		}
+
+		event.reinitialize();
+		event.car = car;
+		return event;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public SimEventType getType() {
+		return SimEventType.PassengersEnter;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getShaftIndex() {
+		return this.car.getElevatorShaft().getIndex();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -24,14 +60,18 @@ public class PassengersEnterCarSimEvent extends AbstractSimEvent {
 	public void processEvent() throws SimulationNotInitializedException {
 		var elevatorShaft = this.car.getElevatorShaft();
 		var currentFloor = elevatorShaft.getCurrentCarFloor();
-		var before = car.getCurrentPassengers().size();
+		var before = car.getPassengerCount();
 
-		var enterDuration = this.car.addAllPassengersAtFloor(currentFloor);
+		var enterDuration = this.car.addAllPassengersAtFloor(currentFloor);	// ms
 
-		var after = car.getCurrentPassengers().size();
-		LOGGER.fine(String.format("%d passengers have entered the car at %s", after - before, this.getNowFormatted()));
+		var after = car.getPassengerCount();
+		if (LOGGER.isLoggable(Level.FINE)) {
+			LOGGER.fine(String.format("%d passengers have entered the car at %s", after - before, this.getNowFormatted()));
+		}
 
-		LOGGER.finer(after + " passengers are now in the car.");
-		this.simulation.addSimEvent(enterDuration, new DoorCloseSimEvent(this.car));
+		if (LOGGER.isLoggable(Level.FINER)) {
+			LOGGER.finer(after + " passengers are now in the car.");
+		}
+		this.simulation.addSimEventMillis(enterDuration, DoorCloseSimEvent.obtain(this.simulation, this.car));
 	}
 }
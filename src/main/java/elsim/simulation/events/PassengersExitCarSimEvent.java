@@ -1,8 +1,10 @@
 package main.java.elsim.simulation.events;
 
 import main.java.elsim.models.Car;
+import main.java.elsim.simulation.Simulation;
 import main.java.elsim.simulation.SimulationNotInitializedException;
 
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -11,12 +13,46 @@ import java.util.logging.Logger;
 public class PassengersExitCarSimEvent extends AbstractSimEvent {
 	private static final Logger LOGGER = Logger.getLogger(PassengersExitCarSimEvent.class.getName());
 
-	private final Car car;
+	private Car car;
 
-	public PassengersExitCarSimEvent(Car car) throws SimulationNotInitializedException {
+	public PassengersExitCarSimEvent(Simulation simulation, Car car) {
+		super(simulation);
 		this.car = car;
 	}
 
+	/**
+	 * Gets an event from the simulation's event pool, or creates a new one if the pool is empty.
+	 * @param simulation The simulation this event belongs to.
+	 * @param car The car passengers exit.
+	 * @return An unscheduled event.
+	 */
+	public static PassengersExitCarSimEvent obtain(Simulation simulation, Car car) {
+		var event = (PassengersExitCarSimEvent) simulation.getEventPool().acquire(SimEventType.PassengersExit);
+		if (event == null) {
+			return new PassengersExitCarSimEvent(simulation, car);
+		}
+
+		event.reinitialize();
+		event.car = car;
+		return event;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public SimEventType getType() {
+		return SimEventType.PassengersExit;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getShaftIndex() {
+		return this.car.getElevatorShaft().getIndex();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -24,14 +60,19 @@ public class PassengersExitCarSimEvent extends AbstractSimEvent {
 	public void processEvent() throws SimulationNotInitializedException {
 		var elevatorShaft = this.car.getElevatorShaft();
 		var currentFloor = elevatorShaft.getCurrentCarFloor();
-		var before = car.getCurrentPassengers().size();
+		var before = car.getPassengerCount();
 
-		var exitDuration = this.car.removeAllPassengersAtFloor(currentFloor);
+		var exitDuration = this.car.removeAllPassengersAtFloor(currentFloor);	// ms
 
-		var after = car.getCurrentPassengers().size();
-		LOGGER.fine(String.format("%d passengers have exited the car at %s", before - after, this.getNowFormatted()));
+		var after = car.getPassengerCount();
+		this.simulation.countDeliveredPassengers(before - after);
+		if (LOGGER.isLoggable(Level.FINE)) {
+			LOGGER.fine(String.format("%d passengers have exited the car at %s", before - after, this.getNowFormatted()));
+		}
 
-		LOGGER.finer(after + " passengers remain in the car.");
-		this.simulation.addSimEvent(exitDuration, new PassengersEnterCarSimEvent(this.car));
+		if (LOGGER.isLoggable(Level.FINER)) {
+			LOGGER.finer(after + " passengers remain in the car.");
+		}
+		this.simulation.addSimEventMillis(exitDuration, PassengersEnterCarSimEvent.obtain(this.simulation, this.car));
 	}
 }
@@ -0,0 +1,32 @@
+package main.java.elsim.simulation.events;
+
+/**
+ * SimEventType identifies the kind of a simulation event.
+ * Events of pooled types are returned to the simulation's {@code SimEventPool} after they have been processed and reused
+ * for the next event of the same type, cancelled events once they have been skipped.
+ * Only types whose handles are not kept by models once they have been processed or cancelled are pooled,
+ * the patience timeout of a passenger is dropped by the store when it is cancelled or the passenger is released.
+ */
+public enum SimEventType {
+	DoorOpen(true),
+	PassengersExit(true),
+	PassengersEnter(true),
+	DoorClose(true),
+	CarMove(true),
+	PassengerArrivesAtFloor(true),
+	PassengerLeavesFloor(true);
+
+	private final boolean pooled;
+
+	SimEventType(boolean pooled) {
+		this.pooled = pooled;
+	}
+
+	/**
+	 * Whether processed events of this type are recycled.
+	 * @return {@code true} if the type is pooled.
+	 */
+	public boolean isPooled() {
+		return pooled;
+	}
+}
@@ -0,0 +1,176 @@
+package main.java.elsim.statistics;
+
+import main.java.elsim.simulation.CheckpointReader;
+import main.java.elsim.simulation.CheckpointWriter;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A histogram of non-negative {@code long} values with a fixed memory footprint, in the style of an HDR histogram.
+ *
+ * Values below 128 are counted exactly. Larger values are counted in log-linear buckets: every power of two is split into
+ * 64 sub-buckets, so a recorded value is known with a relative error of less than 1/64. Recording a value does not allocate.
+ * Count, sum, minimum and maximum are tracked exactly.
+ */
+public class Histogram {
+	private static final int SUB_BUCKET_BITS = 7;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+	private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_HALF_COUNT + SUB_BUCKET_COUNT;
+
+	private final long[] counts = new long[BUCKET_COUNT];
+	private long count;
+	private long sum;
+	private long min = Long.MAX_VALUE;
+	private long max = Long.MIN_VALUE;
+
+	/**
+	 * Records one value.
+	 * @param value The value, must not be negative.
+	 */
+	public void record(long value) {
+		if (value < 0) {
+			throw new IllegalArgumentException("value must not be negative.");
+		}
+
+		counts[indexOf(value)]++;
+		count++;
+		sum += value;
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+	}
+
+	/**
+	 * Gets the number of recorded values.
+	 * @return The number of values.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Gets the sum of all recorded values.
+	 * @return The exact sum.
+	 */
+	public long getSum() {
+		return sum;
+	}
+
+	/**
+	 * Gets the mean of all recorded values.
+	 * @return The exact mean, or {@code NaN} if no value has been recorded.
+	 */
+	public double getMean() {
+		return count > 0 ? (double) sum / count : Double.NaN;
+	}
+
+	/**
+	 * Gets the smallest recorded value.
+	 * @return The minimum, or 0 if no value has been recorded.
+	 */
+	public long getMin() {
+		return count > 0 ? min : 0;
+	}
+
+	/**
+	 * Gets the largest recorded value.
+	 * @return The maximum, or 0 if no value has been recorded.
+	 */
+	public long getMax() {
+		return count > 0 ? max : 0;
+	}
+
+	/**
+	 * Gets the value below or at which the given percentage of the recorded values lie.
+	 * @param percentile The percentile between 0 and 100.
+	 * @return The highest value of the bucket containing the percentile, at most the maximum, or 0 if no value has been recorded.
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (percentile < 0 || percentile > 100) {
+			throw new IllegalArgumentException("percentile has to be between 0 and 100.");
+		}
+
+		if (count == 0) {
+			return 0;
+		}
+
+		var rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return Math.min(highestValueOf(i), max);
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * Writes the recorded values to a checkpoint. Only the buckets that have counted a value are written.
+	 * @param out The checkpoint to write to.
+	 * @throws IOException When the checkpoint cannot be written.
+	 */
+	public void writeState(CheckpointWriter out) throws IOException {
+		out.writeLong(count);
+		out.writeLong(sum);
+		out.writeLong(min);
+		out.writeLong(max);
+		var used = 0;
+		for (var c : counts) {
+			if (c != 0) {
+				used++;
+			}
+		}
+		out.writeInt(used);
+		for (int i = 0; i < counts.length; i++) {
+			if (counts[i] != 0) {
+				out.writeInt(i);
+				out.writeLong(counts[i]);
+			}
+		}
+	}
+
+	/**
+	 * Replaces the recorded values with those written by {@code writeState}.
+	 * @param in The checkpoint to read from.
+	 * @throws IOException When the checkpoint cannot be read.
+	 */
+	public void readState(CheckpointReader in) throws IOException {
+		count = in.readLong();
+		sum = in.readLong();
+		min = in.readLong();
+		max = in.readLong();
+		Arrays.fill(counts, 0);
+		var used = in.readCount(BUCKET_COUNT);
+		for (int i = 0; i < used; i++) {
+			counts[in.readCount(BUCKET_COUNT - 1)] = in.readLong();
+		}
+	}
+
+	/**
+	 * Gets the index of the bucket counting a value.
+	 */
+	private static int indexOf(long value) {
+		if (value < SUB_BUCKET_COUNT) {
+			return (int) value;
+		}
+
+		var exponent = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		var subBucket = (int) (value >>> exponent); // between SUB_BUCKET_HALF_COUNT and SUB_BUCKET_COUNT - 1
+		return exponent * SUB_BUCKET_HALF_COUNT + subBucket;
+	}
+
+	/**
+	 * Gets the highest value counted by a bucket.
+	 */
+	private static long highestValueOf(int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+
+		var exponent = index / SUB_BUCKET_HALF_COUNT - 1;
+		long subBucket = index % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+		return ((subBucket + 1) << exponent) - 1;
+	}
+}
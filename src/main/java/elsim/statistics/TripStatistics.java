@@ -0,0 +1,243 @@
+package main.java.elsim.statistics;
+
+import main.java.elsim.models.Floor;
+import main.java.elsim.models.PassengerStore;
+import main.java.elsim.simulation.CheckpointReader;
+import main.java.elsim.simulation.CheckpointWriter;
+import main.java.elsim.simulation.SimEventManager;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Collects statistics about the trips of all passengers of one simulation: how long they wait for the car,
+ * how long they ride, how long they wait before giving up, and how many passengers arrive, board, exit and give up per floor.
+ *
+ * All times are simulation times in milliseconds taken from the event manager's clock. Waiting ends when the passenger boards,
+ * the ride ends when the passenger starts exiting. Recording a passenger does not allocate.
+ * @see Histogram
+ */
+public class TripStatistics {
+	private final List<Floor> floors;
+	private final PassengerStore passengers;
+	private final SimEventManager clock;
+
+	private final Histogram waitTimes = new Histogram();
+	private final Histogram rideTimes = new Histogram();
+	private final Histogram abandonWaitTimes = new Histogram();
+
+	private final long[] arrivals;
+	private final long[] boardings;
+	private final long[] exits;
+	private final long[] abandonments;
+
+	/**
+	 * Creates an empty collector.
+	 * @param floors The floors of the building, in shaft order, so that each floor is at its {@code Floor.getIndex()}.
+	 * @param passengers The passengers of the simulation, whose arrival and boarding times are kept there.
+	 * @param clock The event manager whose current time is the time of each recorded action.
+	 */
+	public TripStatistics(List<Floor> floors, PassengerStore passengers, SimEventManager clock) {
+		if (floors == null) {
+			throw new IllegalArgumentException("floors");
+		}
+
+		if (passengers == null) {
+			throw new IllegalArgumentException("passengers");
+		}
+
+		if (clock == null) {
+			throw new IllegalArgumentException("clock");
+		}
+
+		this.floors = List.copyOf(floors);
+		this.passengers = passengers;
+		this.clock = clock;
+
+		this.arrivals = new long[this.floors.size()];
+		this.boardings = new long[this.floors.size()];
+		this.exits = new long[this.floors.size()];
+		this.abandonments = new long[this.floors.size()];
+	}
+
+	/**
+	 * Records a passenger arriving at their starting floor.
+	 * @param passenger The id of the passenger who has arrived.
+	 */
+	public void passengerArrived(int passenger) {
+		passengers.setArrivalTime(passenger, clock.getCurrentTime());
+		arrivals[passengers.getFloorStartingPoint(passenger).getIndex()]++;
+	}
+
+	/**
+	 * Records a passenger entering the car.
+	 * @param passenger The id of the passenger who has boarded.
+	 */
+	public void passengerBoarded(int passenger) {
+		var now = clock.getCurrentTime();
+		waitTimes.record(now - passengers.getArrivalTime(passenger));
+		passengers.setBoardingTime(passenger, now);
+		boardings[passengers.getFloorStartingPoint(passenger).getIndex()]++;
+	}
+
+	/**
+	 * Records a passenger exiting the car at their destination.
+	 * @param passenger The id of the passenger who has exited.
+	 */
+	public void passengerExited(int passenger) {
+		rideTimes.record(clock.getCurrentTime() - passengers.getBoardingTime(passenger));
+		exits[passengers.getFloorDestination(passenger).getIndex()]++;
+	}
+
+	/**
+	 * Records a passenger leaving their floor because their patience has run out.
+	 * @param passenger The id of the passenger who has given up.
+	 */
+	public void passengerAbandoned(int passenger) {
+		abandonWaitTimes.record(clock.getCurrentTime() - passengers.getArrivalTime(passenger));
+		abandonments[passengers.getFloorStartingPoint(passenger).getIndex()]++;
+	}
+
+	/**
+	 * Writes everything recorded so far to a checkpoint.
+	 * The arrival and boarding times of the passengers are kept in the passenger store and written with it.
+	 * @param out The checkpoint to write to.
+	 * @throws IOException When the checkpoint cannot be written.
+	 */
+	public void writeState(CheckpointWriter out) throws IOException {
+		waitTimes.writeState(out);
+		rideTimes.writeState(out);
+		abandonWaitTimes.writeState(out);
+		out.writeInt(floors.size());
+		for (int i = 0; i < floors.size(); i++) {
+			out.writeLong(arrivals[i]);
+			out.writeLong(boardings[i]);
+			out.writeLong(exits[i]);
+			out.writeLong(abandonments[i]);
+		}
+	}
+
+	/**
+	 * Replaces everything recorded so far with the state written by {@code writeState}.
+	 * @param in The checkpoint to read from.
+	 * @throws IOException When the checkpoint cannot be read or has been written for other floors.
+	 */
+	public void readState(CheckpointReader in) throws IOException {
+		waitTimes.readState(in);
+		rideTimes.readState(in);
+		abandonWaitTimes.readState(in);
+		var floorCount = in.readInt();
+		if (floorCount != floors.size()) {
+			throw new IOException("Checkpoint has statistics of " + floorCount + " floors, the simulation has " + floors.size() + ".");
+		}
+		for (int i = 0; i < floorCount; i++) {
+			arrivals[i] = in.readLong();
+			boardings[i] = in.readLong();
+			exits[i] = in.readLong();
+			abandonments[i] = in.readLong();
+		}
+	}
+
+	/**
+	 * Gets the times passengers have waited until boarding.
+	 * @return The histogram of waiting times in milliseconds.
+	 */
+	public Histogram getWaitTimes() {
+		return waitTimes;
+	}
+
+	/**
+	 * Gets the times passengers have spent in the car.
+	 * @return The histogram of ride times in milliseconds.
+	 */
+	public Histogram getRideTimes() {
+		return rideTimes;
+	}
+
+	/**
+	 * Gets the times passengers have waited before giving up.
+	 * @return The histogram of waiting times of abandoning passengers in milliseconds.
+	 */
+	public Histogram getAbandonWaitTimes() {
+		return abandonWaitTimes;
+	}
+
+	/**
+	 * Gets the number of passengers who have arrived at a floor.
+	 * @param floorIndex The index of the floor in the shaft.
+	 * @return The number of arrivals.
+	 */
+	public long getArrivals(int floorIndex) {
+		return arrivals[floorIndex];
+	}
+
+	/**
+	 * Gets the number of passengers who have boarded the car at a floor.
+	 * @param floorIndex The index of the floor in the shaft.
+	 * @return The number of boardings.
+	 */
+	public long getBoardings(int floorIndex) {
+		return boardings[floorIndex];
+	}
+
+	/**
+	 * Gets the number of passengers who have exited the car at a floor.
+	 * @param floorIndex The index of the floor in the shaft.
+	 * @return The number of exits.
+	 */
+	public long getExits(int floorIndex) {
+		return exits[floorIndex];
+	}
+
+	/**
+	 * Gets the number of passengers who have given up waiting at a floor.
+	 * @param floorIndex The index of the floor in the shaft.
+	 * @return The number of abandonments.
+	 */
+	public long getAbandonments(int floorIndex) {
+		return abandonments[floorIndex];
+	}
+
+	/**
+	 * Writes a compact summary of all statistics as plain text.
+	 * @param writer The writer to write to.
+	 */
+	public void writeSummary(PrintWriter writer) {
+		writer.println("# times in seconds");
+		writer.println("metric count mean min p50 p90 p99 max");
+		writeHistogram(writer, "wait", waitTimes);
+		writeHistogram(writer, "ride", rideTimes);
+		writeHistogram(writer, "abandonWait", abandonWaitTimes);
+		writer.println();
+		writer.println("floor arrivals boardings exits abandonments");
+		for (int i = 0; i < floors.size(); i++) {
+			writer.printf(Locale.ROOT, "%d %d %d %d %d%n",
+					floors.get(i).getFloorNumber(), arrivals[i], boardings[i], exits[i], abandonments[i]);
+		}
+	}
+
+	/**
+	 * Writes a compact summary of all statistics to a file, replacing its content.
+	 * @param file The file to write to.
+	 * @throws IOException When the file cannot be written.
+	 */
+	public void writeSummary(Path file) throws IOException {
+		try (var writer = new PrintWriter(Files.newBufferedWriter(file))) {
+			writeSummary(writer);
+		}
+	}
+
+	private static void writeHistogram(PrintWriter writer, String metric, Histogram histogram) {
+		writer.printf(Locale.ROOT, "%s %d %.3f %.3f %.3f %.3f %.3f %.3f%n", metric, histogram.getCount(),
+				histogram.getMean() / 1000,
+				histogram.getMin() / 1000.0,
+				histogram.getValueAtPercentile(50) / 1000.0,
+				histogram.getValueAtPercentile(90) / 1000.0,
+				histogram.getValueAtPercentile(99) / 1000.0,
+				histogram.getMax() / 1000.0);
+	}
+}